@@ -0,0 +1,185 @@
+package edu.wpi.grip.benchmarks;
+
+import com.google.common.eventbus.EventBus;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.MatPool;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.operations.composite.BlurOperation;
+import edu.wpi.grip.core.operations.composite.ContoursReport;
+import edu.wpi.grip.core.operations.composite.DesaturateOperation;
+import edu.wpi.grip.core.operations.composite.FilterContoursOperation;
+import edu.wpi.grip.core.operations.composite.FindBlobsOperation;
+import edu.wpi.grip.core.operations.composite.FindContoursOperation;
+import edu.wpi.grip.core.operations.composite.FindLinesOperation;
+import edu.wpi.grip.core.operations.composite.HSVThresholdOperation;
+import edu.wpi.grip.core.operations.composite.RGBThresholdOperation;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast each of the built-in composite operations runs on a real image at a few common camera
+ * resolutions.
+ * <p>
+ * Each benchmark calls {@link Operation#perform} directly on sockets made by the operation's own
+ * <code>createInputSockets</code> and <code>createOutputSockets</code>, with the same inputs every time, so the
+ * results only include the operation and not the rest of the pipeline.  The build runs these with JMH's
+ * <code>gc</code> profiler, which reports the bytes of Java heap allocated per operation as
+ * <code>gc.alloc.rate.norm</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperationBenchmark {
+
+    @Param({"320x240", "640x480", "1280x720"})
+    public String resolution;
+
+    private MatPool matPool;
+
+    private Harness blur;
+    private Harness desaturate;
+    private Harness hsvThreshold;
+    private Harness rgbThreshold;
+    private Harness findContours;
+    private Harness filterContours;
+    private Harness findBlobs;
+    private Harness findLines;
+
+    /**
+     * The sockets and data for one operation, set up the same way a {@link edu.wpi.grip.core.Step} would
+     */
+    private static final class Harness {
+        private final Operation operation;
+        private final InputSocket<?>[] inputs;
+        private final OutputSocket<?>[] outputs;
+        private final Optional<?> data;
+
+        private Harness(Operation operation) {
+            final EventBus eventBus = new EventBus();
+            this.operation = operation;
+            this.inputs = operation.createInputSockets(eventBus);
+            this.outputs = operation.createOutputSockets(eventBus);
+            this.data = operation.createData();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Harness set(int index, Object value) {
+            ((InputSocket<Object>) inputs[index]).setValue(value);
+            return this;
+        }
+
+        private Object perform(MatPool matPool) {
+            operation.perform(inputs, outputs, data, matPool);
+            return outputs.length > 0 ? outputs[0].getValue().orElse(null) : null;
+        }
+
+        private Object getOutput(int index) {
+            return outputs[index].getValue().get();
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        final Mat image = SampleImages.load(resolution);
+        matPool = new MatPool();
+
+        blur = new Harness(new BlurOperation())
+                .set(0, image)
+                .set(2, 5.0);
+        desaturate = new Harness(new DesaturateOperation())
+                .set(0, image);
+        hsvThreshold = new Harness(new HSVThresholdOperation())
+                .set(0, image)
+                .set(1, Arrays.asList(0.0, 60.0))
+                .set(2, Arrays.asList(50.0, 255.0))
+                .set(3, Arrays.asList(50.0, 255.0));
+        rgbThreshold = new Harness(new RGBThresholdOperation())
+                .set(0, image)
+                .set(1, Arrays.asList(100.0, 255.0))
+                .set(2, Arrays.asList(0.0, 200.0))
+                .set(3, Arrays.asList(0.0, 200.0));
+
+        // The contour operations are fed the real output of the thresholds, like they would be in a pipeline
+        hsvThreshold.perform(matPool);
+        final Mat binary = new Mat();
+        ((Mat) hsvThreshold.getOutput(0)).copyTo(binary);
+
+        findContours = new Harness(new FindContoursOperation())
+                .set(0, binary)
+                .set(1, false);
+        findContours.perform(matPool);
+        filterContours = new Harness(new FilterContoursOperation())
+                .set(0, (ContoursReport) findContours.getOutput(0))
+                .set(1, 20.0);
+        findBlobs = new Harness(new FindBlobsOperation())
+                .set(0, image)
+                .set(1, 10.0);
+        findLines = new Harness(new FindLinesOperation())
+                .set(0, image);
+    }
+
+    @TearDown
+    public void tearDown() {
+        matPool.clear();
+    }
+
+    @Benchmark
+    public Object blur() {
+        return blur.perform(matPool);
+    }
+
+    @Benchmark
+    public Object desaturate() {
+        return desaturate.perform(matPool);
+    }
+
+    @Benchmark
+    public Object hsvThreshold() {
+        return hsvThreshold.perform(matPool);
+    }
+
+    @Benchmark
+    public Object rgbThreshold() {
+        return rgbThreshold.perform(matPool);
+    }
+
+    @Benchmark
+    public Object findContours() {
+        return findContours.perform(matPool);
+    }
+
+    @Benchmark
+    public Object filterContours() {
+        return filterContours.perform(matPool);
+    }
+
+    @Benchmark
+    public Object findBlobs() {
+        return findBlobs.perform(matPool);
+    }
+
+    @Benchmark
+    public Object findLines() {
+        return findLines.perform(matPool);
+    }
+}
@@ -0,0 +1,203 @@
+package edu.wpi.grip.benchmarks;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import edu.wpi.grip.core.Connection;
+import edu.wpi.grip.core.GRIPCoreModule;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.PipelineExecutor;
+import edu.wpi.grip.core.SocketHint;
+import edu.wpi.grip.core.SocketHints;
+import edu.wpi.grip.core.Source;
+import edu.wpi.grip.core.Step;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import edu.wpi.grip.core.events.SourceAddedEvent;
+import edu.wpi.grip.core.util.ExceptionWitness;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the pipeline engine itself costs, separately from OpenCV.
+ * <p>
+ * Each benchmark builds a pipeline of trivial steps that just add one to a number, fed by a source that publishes a
+ * new number on every pass.  The steps are either wired in a <code>chain</code>, where each step feeds the next, or
+ * a <code>fanOut</code>, where the source feeds every step directly.  The time for one pass is the time it takes a
+ * source update to reach every step through its {@link edu.wpi.grip.core.Socket sockets},
+ * {@link Connection connections} and {@link Step steps}, so dividing by the number of steps gives the overhead per
+ * step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineDispatchBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int steps;
+
+    @Param({"chain", "fanOut"})
+    public String shape;
+
+    private EventBus eventBus;
+    private Connection.Factory<Object> connectionFactory;
+    private PipelineExecutor pipelineExecutor;
+    private OutputSocket<Number> lastOutput;
+
+    /**
+     * Adds one to its input
+     */
+    private static final class IncrementOperation implements Operation {
+        private final SocketHint<Number>
+                inputHint = SocketHints.createNumberSocketHint("a", 0.0),
+                outputHint = SocketHints.Outputs.createNumberSocketHint("a + 1", 0.0);
+
+        @Override
+        public String getName() {
+            return "Increment";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Add one to a number";
+        }
+
+        @Override
+        public InputSocket<?>[] createInputSockets(EventBus eventBus) {
+            return new InputSocket<?>[]{new InputSocket<>(eventBus, inputHint)};
+        }
+
+        @Override
+        public OutputSocket<?>[] createOutputSockets(EventBus eventBus) {
+            return new OutputSocket<?>[]{new OutputSocket<>(eventBus, outputHint)};
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs) {
+            final Number a = ((InputSocket<Number>) inputs[0]).getValue().get();
+            ((OutputSocket<Number>) outputs[0]).setValue(a.doubleValue() + 1);
+        }
+    }
+
+    /**
+     * Publishes a different number every time the pipeline runs, so every step has new input on every pass
+     */
+    private static final class CountingSource extends Source {
+        private final OutputSocket<Number> outputSocket;
+        private double count = 0;
+
+        private CountingSource(EventBus eventBus, ExceptionWitness.Factory exceptionWitnessFactory) {
+            super(exceptionWitnessFactory);
+            this.outputSocket = new OutputSocket<>(eventBus, SocketHints.Outputs.createNumberSocketHint("Count", 0.0));
+        }
+
+        @Override
+        public String getName() {
+            return "Counting Source";
+        }
+
+        @Override
+        protected OutputSocket[] createOutputSockets() {
+            return new OutputSocket[]{outputSocket};
+        }
+
+        @Override
+        public Properties getProperties() {
+            return new Properties();
+        }
+
+        @Override
+        public void initialize() {
+            /* no op */
+        }
+
+        @Override
+        public void updateOutputSockets() {
+            outputSocket.setValue(count++);
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        eventBus = injector.getInstance(EventBus.class);
+        final Pipeline pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
+        final Step.Factory stepFactory = injector.getInstance(Step.Factory.class);
+        connectionFactory = injector.getInstance(Key.get(new TypeLiteral<Connection.Factory<Object>>() {
+        }));
+
+        final CountingSource source = new CountingSource(eventBus,
+                injector.getInstance(ExceptionWitness.Factory.class));
+        eventBus.post(new SourceAddedEvent(source));
+
+        final Operation increment = new IncrementOperation();
+        OutputSocket<Number> upstream = (OutputSocket<Number>) source.getOutputSockets()[0];
+        for (int i = 0; i < steps; i++) {
+            final Step step = stepFactory.create(increment);
+            pipeline.addStep(step);
+            connect(upstream, (InputSocket<Object>) step.getInputSockets()[0]);
+
+            lastOutput = (OutputSocket<Number>) step.getOutputSockets()[0];
+            if ("chain".equals(shape)) {
+                upstream = lastOutput;
+            }
+        }
+
+        // Run once so every step has a value, and so the benchmark doesn't include running new steps for the first time
+        pipelineExecutor.runPipeline();
+        pipelineExecutor.postSocketChangedEvents();
+    }
+
+    private void connect(OutputSocket<?> outputSocket, InputSocket<Object> inputSocket) {
+        eventBus.post(new ConnectionAddedEvent(connectionFactory.create(outputSocket, inputSocket)));
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        pipelineExecutor.stop();
+    }
+
+    /**
+     * One source update propagating through the whole pipeline
+     */
+    @Benchmark
+    public Object update() {
+        pipelineExecutor.runPipeline();
+        return lastOutput.getValue().get();
+    }
+
+    /**
+     * One source update, followed by a {@link edu.wpi.grip.core.events.SocketChangedEvent} for every socket that
+     * changed.  This is the most the {@link EventBus} can cost per update, since the executor normally posts these
+     * events less often than the pipeline runs.
+     */
+    @Benchmark
+    public Object updateAndNotify() {
+        pipelineExecutor.runPipeline();
+        pipelineExecutor.postSocketChangedEvents();
+        return lastOutput.getValue().get();
+    }
+}
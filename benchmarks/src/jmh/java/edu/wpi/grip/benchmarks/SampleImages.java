@@ -0,0 +1,60 @@
+package edu.wpi.grip.benchmarks;
+
+import edu.wpi.grip.core.util.ImageLoadingUtility;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Size;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.bytedeco.javacpp.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.javacpp.opencv_imgproc.resize;
+
+/**
+ * Loads the images in <code>samples/images</code> at a fixed resolution, so every benchmark run works on exactly the
+ * same pixels.
+ * <p>
+ * The build passes the location of the images in the <code>grip.samples</code> system property.
+ */
+final class SampleImages {
+    static final String DIRECTORY_PROPERTY = "grip.samples";
+    static final String DEFAULT_IMAGE = "gompei.jpeg";
+
+    private SampleImages() {
+        /* no op */
+    }
+
+    /**
+     * @param resolution A resolution like <code>"640x480"</code>
+     * @return The default sample image, scaled to the given resolution
+     */
+    static Mat load(String resolution) throws IOException {
+        return load(DEFAULT_IMAGE, resolution);
+    }
+
+    /**
+     * @param name       The file name of one of the sample images
+     * @param resolution A resolution like <code>"640x480"</code>
+     * @return The sample image, scaled to the given resolution
+     */
+    static Mat load(String name, String resolution) throws IOException {
+        final Mat original = new Mat();
+        ImageLoadingUtility.loadImage(new File(getDirectory(), name).getPath(), original);
+
+        final Mat scaled = new Mat();
+        resize(original, scaled, parseResolution(resolution), 0, 0, INTER_AREA);
+        return scaled;
+    }
+
+    static Size parseResolution(String resolution) {
+        final String[] parts = resolution.split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Resolutions should look like 640x480, not " + resolution);
+        }
+        return new Size(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    private static File getDirectory() {
+        return new File(System.getProperty(DIRECTORY_PROPERTY, "samples" + File.separator + "images"));
+    }
+}
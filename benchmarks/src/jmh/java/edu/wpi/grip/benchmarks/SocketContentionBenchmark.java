@@ -0,0 +1,101 @@
+package edu.wpi.grip.benchmarks;
+
+import com.google.common.eventbus.EventBus;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Socket;
+import edu.wpi.grip.core.SocketHint;
+import edu.wpi.grip.core.SocketHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how reading and writing a {@link Socket} scale when one thread is writing (like the pipeline) and several
+ * threads are reading (like previews and NetworkTables) at the same time.
+ * <p>
+ * The <code>locked</code> group does the same thing with a value that's guarded by a monitor, which is how sockets
+ * used to work, as a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SocketContentionBenchmark {
+
+    private Socket<Number> socket;
+    private LockedHolder lockedHolder;
+    private double nextValue;
+
+    /**
+     * A value protected by <code>synchronized</code> on both reads and writes.
+     */
+    private static final class LockedHolder {
+        private Optional<Number> value = Optional.empty();
+        private long version;
+
+        synchronized void set(Optional<Number> value) {
+            this.value = value;
+            this.version++;
+        }
+
+        synchronized Optional<Number> get() {
+            return value;
+        }
+
+        synchronized long getVersion() {
+            return version;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        final SocketHint<Number> hint = SocketHints.createNumberSocketHint("value", 0.0);
+        socket = new OutputSocket<>(new EventBus(), hint);
+        lockedHolder = new LockedHolder();
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public void lockFreeWrite() {
+        // Every value is different, so each write is a real change
+        socket.setValue(nextValue++);
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public boolean lockFreeRead() {
+        final Socket.Snapshot<Number> snapshot = socket.snapshot();
+        return snapshot.getValue().isPresent() && snapshot.isCurrent();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWrite() {
+        lockedHolder.set(Optional.of(nextValue++));
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public boolean lockedRead() {
+        final long version = lockedHolder.getVersion();
+        return lockedHolder.get().isPresent() && lockedHolder.getVersion() == version;
+    }
+}
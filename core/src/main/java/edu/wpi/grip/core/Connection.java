@@ -6,6 +6,9 @@ import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import edu.wpi.grip.core.events.*;
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -18,6 +21,8 @@ public class Connection<T> {
     private final EventBus eventBus;
     private final OutputSocket<? extends T> outputSocket;
     private final InputSocket<T> inputSocket;
+    private volatile double processingScale;
+    private volatile double qualityScaleFactor = 1.0;
 
 
     public interface Factory <T> {
@@ -34,6 +39,7 @@ public class Connection<T> {
         this.eventBus = eventBus;
         this.outputSocket = outputSocket;
         this.inputSocket = inputSocket;
+        this.processingScale = pipeline.getProjectSettings().getProcessingScale();
         checkArgument(pipeline.canConnect(outputSocket, inputSocket), "Cannot connect sockets");
     }
 
@@ -50,14 +56,61 @@ public class Connection<T> {
         if (event.getConnection().equals(this)) {
             inputSocket.addConnection(this);
             outputSocket.addConnection(this);
-            inputSocket.setValueOptional(outputSocket.getValue());
+            inputSocket.setFrameInfo(outputSocket.getFrameInfo());
+            copyValue();
+        }
+    }
+
+    /**
+     * Copy the value of the output socket into the input socket.  This is called by the output socket whenever its
+     * value changes.
+     */
+    void onOutputChanged() {
+        inputSocket.setFrameInfo(outputSocket.getFrameInfo());
+        copyValue();
+    }
+
+    /**
+     * Images coming straight from a source are shrunk to the project's processing scale (and further, if the
+     * {@link QualityController} is keeping up with a target frame rate) on their way into the pipeline, and tagged with a {@link Region} so that anything found in them is reported in full-size coordinates.
+     */
+    @SuppressWarnings("unchecked")
+    private void copyValue() {
+        final Optional<? extends T> value = outputSocket.getValue();
+        final double scale = processingScale * qualityScaleFactor;
+        if (scale < 1.0 && outputSocket.getSource().isPresent()
+                && value.isPresent() && value.get() instanceof Mat && !((Mat) value.get()).empty()) {
+            final Mat image = (Mat) value.get();
+            final Mat scaledImage = outputSocket.getScaledImage(scale);
+            inputSocket.setRegion(Optional.of(
+                    Region.ofScaledFrame(image.cols(), image.rows(), scaledImage.cols(), scaledImage.rows())));
+            inputSocket.setValue((T) scaledImage);
+        } else {
+            inputSocket.setRegion(outputSocket.getRegion());
+            inputSocket.setValueOptional(value);
+        }
+    }
+
+    @Subscribe
+    public void onProjectSettingsChanged(ProjectSettingsChangedEvent event) {
+        final double scale = event.getProjectSettings().getProcessingScale();
+        if (scale != processingScale) {
+            processingScale = scale;
+            onProcessingScaleChanged();
         }
     }
 
     @Subscribe
-    public void onOutputChanged(SocketChangedEvent e) {
-        if (e.getSocket() == outputSocket) {
-            inputSocket.setValueOptional(outputSocket.getValue());
+    public void onQualityChanged(QualityChangedEvent event) {
+        if (event.getScaleFactor() != qualityScaleFactor) {
+            qualityScaleFactor = event.getScaleFactor();
+            onProcessingScaleChanged();
+        }
+    }
+
+    private void onProcessingScaleChanged() {
+        if (outputSocket.getSource().isPresent() && inputSocket.getConnections().contains(this)) {
+            copyValue();
         }
     }
 
@@ -72,14 +125,14 @@ public class Connection<T> {
     @Subscribe
     public void removeConnection(StepRemovedEvent e) {
         // Remove this connection if one of the steps it was connected to was removed
-        for (Socket socket : e.getStep().getOutputSockets()) {
+        for (Socket<?> socket : e.getStep().getOutputSockets()) {
             if (socket == this.inputSocket || socket == this.outputSocket) {
                 this.eventBus.post(new ConnectionRemovedEvent(this));
                 return;
             }
         }
 
-        for (Socket socket : e.getStep().getInputSockets()) {
+        for (Socket<?> socket : e.getStep().getInputSockets()) {
             if (socket == this.inputSocket || socket == this.outputSocket) {
                 this.eventBus.post(new ConnectionRemovedEvent(this));
                 return;
@@ -90,7 +143,7 @@ public class Connection<T> {
     @Subscribe
     public void removeConnection(SourceRemovedEvent e) {
         // Remove this connection if it's from a source that was removed
-        for (OutputSocket socket : e.getSource().getOutputSockets()) {
+        for (OutputSocket<?> socket : e.getSource().getOutputSockets()) {
             if (socket == this.outputSocket) {
                 this.eventBus.post(new ConnectionRemovedEvent(this));
                 return;
@@ -0,0 +1,47 @@
+package edu.wpi.grip.core;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Identifies the camera frame that a value was computed from.  Sources that capture frames attach one of these to
+ * their outputs, and it's passed along through connections and steps, so a step at the end of the pipeline can tell
+ * how long ago the data it's working on was captured.
+ *
+ * @see Socket#getFrameInfo()
+ */
+public final class FrameInfo {
+    private final long sequenceNumber;
+    private final long captureNanos;
+
+    /**
+     * @param sequenceNumber The number of the frame, counting up from 1 for each frame that a source captures
+     * @param captureNanos   The value of {@link System#nanoTime()} when the frame was captured
+     */
+    public FrameInfo(long sequenceNumber, long captureNanos) {
+        this.sequenceNumber = sequenceNumber;
+        this.captureNanos = captureNanos;
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public long getCaptureNanos() {
+        return captureNanos;
+    }
+
+    /**
+     * @return How many nanoseconds ago the frame was captured
+     */
+    public long getAgeNanos() {
+        return System.nanoTime() - captureNanos;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("sequenceNumber", sequenceNumber)
+                .add("captureNanos", captureNanos)
+                .toString();
+    }
+}
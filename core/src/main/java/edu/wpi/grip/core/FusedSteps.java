@@ -0,0 +1,396 @@
+package edu.wpi.grip.core;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A group of connected steps with {@link PixelwiseOperation pixelwise operations}, like a threshold followed by a mask,
+ * that the {@link PipelineExecutor} runs together in a single pass over the image.
+ * <p>
+ * Normally, each step goes over the whole image and writes a full-size result for the next step to read back.  A
+ * fused group instead goes over the image in bands of rows, small enough to stay in the CPU cache, and runs every step
+ * on one band before moving on to the next.  The results of the steps in the middle only ever take up one band.
+ * <p>
+ * A step is only fused into the step after it if nothing else needs its result: its only output isn't previewed and
+ * is connected to nothing but an image input of that step.  So a group always ends with a single step, the tail, and
+ * the tail's output is the only one that gets set.  If the intermediate result is needed again (for example, because
+ * it's previewed), the group is split up and the steps run on their own.
+ */
+class FusedSteps {
+    private static final Logger logger = Logger.getLogger(FusedSteps.class.getName());
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private static final boolean cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+
+    /**
+     * About how many bytes a band of one image takes up.  This is small enough for the bands of a few images to fit
+     * in the L2 cache of a typical coprocessor.
+     */
+    static final int BAND_BYTES = 64 * 1024;
+
+    /**
+     * The steps in the group, in pipeline order, so the tail is last
+     */
+    private final ImmutableList<Step> steps;
+
+    /**
+     * For each step, the position in {@link #steps} of the step that computes each of its pixelwise inputs, or -1 if
+     * the input comes from outside of the group
+     */
+    private final int[][] producers;
+
+    /**
+     * The band that each step other than the tail writes its result into.  These are kept between frames.
+     */
+    private final Mat[] bandBuffers;
+
+    /**
+     * The inputs that are connected to another step in the group.  Their values are out of date, since the steps in
+     * the middle of the group don't set their outputs.
+     */
+    private final Set<InputSocket<?>> internalInputs = new HashSet<>();
+
+    private final int[] outputTypes;
+    private final int[][] imageTypes;
+    private final Mat[][] inputImages;
+    private final Mat[][] bandImages;
+    private final Mat[] bandOutputs;
+    private int rows;
+    private int cols;
+
+    private FusedSteps(List<Step> steps) {
+        checkArgument(steps.size() > 1, "A group needs at least two steps");
+        this.steps = ImmutableList.copyOf(steps);
+        this.producers = new int[steps.size()][];
+        this.bandBuffers = new Mat[steps.size()];
+        this.outputTypes = new int[steps.size()];
+        this.imageTypes = new int[steps.size()][];
+        this.inputImages = new Mat[steps.size()][];
+        this.bandImages = new Mat[steps.size()][];
+        this.bandOutputs = new Mat[steps.size()];
+
+        for (int i = 0; i < steps.size(); i++) {
+            final Step step = steps.get(i);
+            final int[] pixelwiseInputs = getOperation(step).getPixelwiseInputIndexes();
+            producers[i] = new int[pixelwiseInputs.length];
+            for (int j = 0; j < pixelwiseInputs.length; j++) {
+                producers[i][j] = getProducer(step.getInputSockets()[pixelwiseInputs[j]]);
+                if (producers[i][j] >= 0) {
+                    internalInputs.add(step.getInputSockets()[pixelwiseInputs[j]]);
+                }
+            }
+            bandBuffers[i] = new Mat();
+            imageTypes[i] = new int[pixelwiseInputs.length];
+            inputImages[i] = new Mat[pixelwiseInputs.length];
+            bandImages[i] = new Mat[pixelwiseInputs.length];
+        }
+    }
+
+    /**
+     * @return The position in {@link #steps} of the step whose output is connected to the given input, or -1 if it's
+     * not connected to a step in this group
+     */
+    private int getProducer(InputSocket<?> inputSocket) {
+        for (Connection<?> connection : inputSocket.getConnections()) {
+            final Optional<Step> step = connection.getOutputSocket().getStep();
+            if (step.isPresent() && steps.indexOf(step.get()) >= 0) {
+                return steps.indexOf(step.get());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the steps in a pipeline that can be fused.
+     *
+     * @return The group that each fused step belongs to.  Steps that aren't fused aren't in the map.
+     */
+    static ImmutableMap<Step, FusedSteps> plan(StepGraph stepGraph) {
+        // The groups are found by following each step to the step it can be fused into, until the tail is reached
+        final Map<Step, Step> fusedInto = new HashMap<>();
+        for (Step step : stepGraph.getSteps()) {
+            getFusableConsumer(stepGraph, step).ifPresent(consumer -> fusedInto.put(step, consumer));
+        }
+
+        final Map<Step, List<Step>> groupsByTail = new LinkedHashMap<>();
+        for (Step step : stepGraph.getSteps()) {
+            Step tail = step;
+            while (fusedInto.containsKey(tail)) {
+                tail = fusedInto.get(tail);
+            }
+            groupsByTail.computeIfAbsent(tail, t -> new ArrayList<>()).add(step);
+        }
+
+        final ImmutableMap.Builder<Step, FusedSteps> plan = ImmutableMap.builder();
+        for (List<Step> group : groupsByTail.values()) {
+            if (group.size() > 1) {
+                final FusedSteps fusedSteps = new FusedSteps(group);
+                group.forEach(step -> plan.put(step, fusedSteps));
+            }
+        }
+        return plan.build();
+    }
+
+    /**
+     * @return The step that the given step can be fused into, if there is one
+     */
+    private static Optional<Step> getFusableConsumer(StepGraph stepGraph, Step step) {
+        if (!isPixelwise(step)) {
+            return Optional.empty();
+        }
+
+        final OutputSocket<?> output = step.getOutputSockets()[0];
+        final Set<Connection<?>> connections = ImmutableSet.copyOf(output.getConnectionsDirectly());
+        if (output.isPreviewed() || connections.size() != 1) {
+            return Optional.empty();
+        }
+
+        final InputSocket<?> input = connections.iterator().next().getInputSocket();
+        final Optional<Step> consumer = input.getStep();
+        if (!consumer.isPresent() || !stepGraph.getSteps().contains(consumer.get()) || !isPixelwise(consumer.get())) {
+            return Optional.empty();
+        }
+
+        final int inputIndex = ImmutableList.copyOf(consumer.get().getInputSockets()).indexOf(input);
+        return Ints.contains(getOperation(consumer.get()).getPixelwiseInputIndexes(), inputIndex)
+                ? consumer
+                : Optional.empty();
+    }
+
+    private static boolean isPixelwise(Step step) {
+        return step.getOperation() instanceof PixelwiseOperation && step.getOutputSockets().length == 1
+                && Mat.class.equals(step.getOutputSockets()[0].getSocketHint().getType());
+    }
+
+    private static PixelwiseOperation getOperation(Step step) {
+        return (PixelwiseOperation) step.getOperation();
+    }
+
+    /**
+     * @return The steps in the group, in the order that they run
+     */
+    ImmutableList<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return The last step in the group, which is the only one whose output is set
+     */
+    Step getTail() {
+        return steps.get(steps.size() - 1);
+    }
+
+    /**
+     * Run every step in the group in one pass over the image.  If that works, each step remembers the inputs it ran
+     * with, and the group isn't run again until one of them changes.
+     *
+     * @param compareImageContents If true, an image input that was set again but still has the same pixels doesn't
+     *                             count as a change the next time the step runs
+     * @return false if the group couldn't be run this way, for example because an input is missing or the images
+     * aren't all the same size.  The steps should then be run on their own, which reports the problem on the right
+     * step.
+     */
+    boolean run(boolean compareImageContents) {
+        boolean changed = false;
+        for (Step step : steps) {
+            // Every step reads its inputs, even after one is found to have changed
+            changed |= step.readInputVersions(compareImageContents);
+        }
+        if (!changed || runFused()) {
+            steps.forEach(Step::recordPerformedInputs);
+            return true;
+        }
+        // The steps have to perform on their own, even if they already did with these inputs
+        steps.forEach(Step::forgetPerformedInputs);
+        return false;
+    }
+
+    private boolean runFused() {
+        if (!collectInputImages()) {
+            return false;
+        }
+
+        final Step tail = getTail();
+        @SuppressWarnings("unchecked")
+        final OutputSocket<Mat> outputSocket = (OutputSocket<Mat>) tail.getOutputSockets()[0];
+        final Optional<Mat> outputValue = outputSocket.getValue();
+        if (!outputValue.isPresent()) {
+            return false;
+        }
+        final Mat output = outputValue.get();
+
+        final Optional<FrameInfo> frameInfo = getOldestInputFrame();
+        final long startCpuTime = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+        final long startTime = System.nanoTime();
+        outputSocket.beginUpdate();
+        outputSocket.setFrameInfo(frameInfo);
+        outputSocket.setRegion(getInputRegion());
+        try {
+            final int bandRows = prepare();
+            output.create(rows, cols, outputTypes[steps.size() - 1]);
+
+            for (int startRow = 0; startRow < rows; startRow += bandRows) {
+                final int endRow = Math.min(startRow + bandRows, rows);
+                for (int i = 0; i < steps.size(); i++) {
+                    for (int j = 0; j < producers[i].length; j++) {
+                        bandImages[i][j] = producers[i][j] < 0
+                                ? inputImages[i][j].rowRange(startRow, endRow)
+                                : bandOutputs[producers[i][j]];
+                    }
+                    bandOutputs[i] = i == steps.size() - 1
+                            ? output.rowRange(startRow, endRow)
+                            : bandBuffers[i].rowRange(0, endRow - startRow);
+
+                    final Step step = steps.get(i);
+                    getOperation(step).performBand(step.getInputSockets(), bandImages[i], bandOutputs[i], startRow,
+                            step.getData());
+                }
+            }
+            outputSocket.setValue(output);
+        } catch (RuntimeException e) {
+            logger.log(Level.FINE, "Could not run " + this + " fused, so the steps will be run on their own", e);
+            return false;
+        } finally {
+            outputSocket.endUpdate();
+        }
+
+        final long endTime = System.nanoTime();
+        tail.getWallTime().record(endTime - startTime, endTime);
+        if (frameInfo.isPresent()) {
+            tail.getFrameLatency().record(endTime - frameInfo.get().getCaptureNanos(), endTime);
+        }
+        if (cpuTimeSupported) {
+            tail.getCpuTime().record(threadMXBean.getCurrentThreadCpuTime() - startCpuTime, endTime);
+        }
+        steps.forEach(Step::clearException);
+        return true;
+    }
+
+    /**
+     * Get the value and size of every input image that comes from outside of the group, and make sure that every
+     * other input has a value.
+     *
+     * @return false if an input is missing, or the images aren't all the same size
+     */
+    private boolean collectInputImages() {
+        rows = -1;
+        cols = -1;
+        for (int i = 0; i < steps.size(); i++) {
+            final InputSocket<?>[] inputSockets = steps.get(i).getInputSockets();
+            for (InputSocket<?> inputSocket : inputSockets) {
+                if (!inputSocket.getValue().isPresent()) {
+                    return false;
+                }
+            }
+
+            final int[] pixelwiseInputs = getOperation(steps.get(i)).getPixelwiseInputIndexes();
+            for (int j = 0; j < pixelwiseInputs.length; j++) {
+                if (producers[i][j] >= 0) {
+                    continue;
+                }
+                final Object value = inputSockets[pixelwiseInputs[j]].getValue().get();
+                if (!(value instanceof Mat) || ((Mat) value).empty()) {
+                    return false;
+                }
+                final Mat image = (Mat) value;
+                if (rows < 0) {
+                    rows = image.rows();
+                    cols = image.cols();
+                } else if (image.rows() != rows || image.cols() != cols) {
+                    return false;
+                }
+                inputImages[i][j] = image;
+            }
+        }
+        return rows >= 0;
+    }
+
+    /**
+     * Let every step get ready for images of this size, and allocate the band for each step's result.
+     *
+     * @return The number of rows in each band
+     */
+    private int prepare() {
+        long widestRow = 1;
+        for (int i = 0; i < steps.size(); i++) {
+            for (int j = 0; j < producers[i].length; j++) {
+                if (producers[i][j] < 0) {
+                    imageTypes[i][j] = inputImages[i][j].type();
+                    widestRow = Math.max(widestRow, inputImages[i][j].step());
+                } else {
+                    imageTypes[i][j] = outputTypes[producers[i][j]];
+                }
+            }
+
+            final Step step = steps.get(i);
+            outputTypes[i] = getOperation(step).prepareBands(step.getInputSockets(), rows, cols, imageTypes[i],
+                    step.getData(), step.getMatPool());
+        }
+
+        final int bandRows = (int) Math.max(1, Math.min(rows, BAND_BYTES / widestRow));
+        for (int i = 0; i < steps.size() - 1; i++) {
+            bandBuffers[i].create(bandRows, cols, outputTypes[i]);
+        }
+        return bandRows;
+    }
+
+    /**
+     * @return The frame of the oldest input to the group that came from a camera
+     */
+    private Optional<FrameInfo> getOldestInputFrame() {
+        Optional<FrameInfo> oldest = Optional.empty();
+        for (Step step : steps) {
+            for (InputSocket<?> inputSocket : step.getInputSockets()) {
+                if (internalInputs.contains(inputSocket)) {
+                    continue;
+                }
+                final Optional<FrameInfo> frameInfo = inputSocket.getFrameInfo();
+                if (frameInfo.isPresent() && (!oldest.isPresent()
+                        || frameInfo.get().getCaptureNanos() < oldest.get().getCaptureNanos())) {
+                    oldest = frameInfo;
+                }
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * @return The region of the frame that the inputs to the group came from
+     */
+    private Optional<Region> getInputRegion() {
+        for (Step step : steps) {
+            for (InputSocket<?> inputSocket : step.getInputSockets()) {
+                if (!internalInputs.contains(inputSocket) && inputSocket.getRegion().isPresent()) {
+                    return inputSocket.getRegion();
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder name = new StringBuilder();
+        for (Step step : steps) {
+            name.append(name.length() == 0 ? "" : " + ").append(step.getOperation().getName());
+        }
+        return name.toString();
+    }
+}
@@ -85,6 +85,9 @@ public class GRIPCoreModule extends AbstractModule {
 
         bind(EventBus.class).toInstance(eventBus);
 
+        // The executor has to exist before any steps are added, so it can keep track of when they need to run
+        bind(PipelineExecutor.class).asEagerSingleton();
+
         install(new FactoryModuleBuilder().build(new TypeLiteral<Connection.Factory<Object>>() {
         }));
 
@@ -5,6 +5,10 @@ import com.google.common.eventbus.Subscribe;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import edu.wpi.grip.core.events.SocketConnectedChangedEvent;
 
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Represents the input into an {@link Operation}.
  *
@@ -13,6 +17,19 @@ import edu.wpi.grip.core.events.SocketConnectedChangedEvent;
 @XStreamAlias(value = "grip:Input")
 public class InputSocket<T> extends Socket<T> {
 
+    /**
+     * Guards {@link #held} and the values that were set while the socket was held
+     */
+    private final Object holdLock = new Object();
+    private boolean held = false;
+
+    /**
+     * The latest value, frame, and region set while the socket was held, or null if none was set
+     */
+    private Optional<? extends T> heldValue = null;
+    private Optional<FrameInfo> heldFrameInfo = null;
+    private Optional<Region> heldRegion = null;
+
 
     /**
      * @param eventBus   The Guava {@link EventBus} used by the application.
@@ -22,6 +39,84 @@ public class InputSocket<T> extends Socket<T> {
         super(eventBus, socketHint, Direction.INPUT);
     }
 
+    /**
+     * Keep the value of this socket from changing until {@link #release()} is called.  Anything set in the meantime
+     * (for example, by a connection from a step that has already moved on to the next frame) is saved and applied
+     * when the socket is released, so the step reading this socket sees the same value, frame, and region the whole
+     * time.
+     * <p>
+     * This is used by the {@link PipelineExecutor} in pipelined execution, where the steps feeding into a step can
+     * finish the next frame while it's still working on the last one.
+     */
+    void hold() {
+        synchronized (holdLock) {
+            held = true;
+        }
+    }
+
+    /**
+     * Stop holding the value of this socket, and apply the latest value, frame, and region that were set while it
+     * was held.  If the value changed, the step is notified as usual.
+     */
+    void release() {
+        synchronized (holdLock) {
+            held = false;
+            if (heldFrameInfo != null) {
+                super.setFrameInfo(heldFrameInfo);
+            }
+            if (heldRegion != null) {
+                super.setRegion(heldRegion);
+            }
+            if (heldValue != null) {
+                super.setValueOptional(heldValue);
+            }
+            heldValue = null;
+            heldFrameInfo = null;
+            heldRegion = null;
+        }
+    }
+
+    @Override
+    public void setValueOptional(Optional<? extends T> optionalValue) {
+        synchronized (holdLock) {
+            if (held) {
+                heldValue = checkNotNull(optionalValue, "The optional value can not be null");
+                return;
+            }
+            super.setValueOptional(optionalValue);
+        }
+    }
+
+    @Override
+    public void setFrameInfo(Optional<FrameInfo> frameInfo) {
+        synchronized (holdLock) {
+            if (held) {
+                heldFrameInfo = checkNotNull(frameInfo, "Frame info can not be null");
+                return;
+            }
+            super.setFrameInfo(frameInfo);
+        }
+    }
+
+    @Override
+    public void setRegion(Optional<Region> region) {
+        synchronized (holdLock) {
+            if (held) {
+                heldRegion = checkNotNull(region, "Region can not be null");
+                return;
+            }
+            super.setRegion(region);
+        }
+    }
+
+    /**
+     * Let the step that this socket is part of know that one of its inputs changed.
+     */
+    @Override
+    protected void onValueChanged() {
+        getStep().ifPresent(Step::onInputChanged);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -29,6 +124,7 @@ public class InputSocket<T> extends Socket<T> {
     protected void onDisconnected() {
         super.onDisconnected();
         if (this.getConnections().isEmpty()) {
+            this.setRegion(Optional.empty());
             this.setValue(this.getSocketHint().createInitialValue().orElse(null));
         }
     }
@@ -4,15 +4,25 @@ import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import edu.wpi.grip.core.bench.BenchmarkOptions;
+import edu.wpi.grip.core.bench.BenchmarkReport;
+import edu.wpi.grip.core.bench.BenchmarkRunner;
 import edu.wpi.grip.core.events.ExceptionClearedEvent;
 import edu.wpi.grip.core.events.ExceptionEvent;
+import edu.wpi.grip.core.metrics.NativeMemoryMonitor;
+import edu.wpi.grip.core.metrics.PipelineMetrics;
 import edu.wpi.grip.core.operations.Operations;
 import edu.wpi.grip.core.serialization.Project;
 import edu.wpi.grip.generated.CVOperations;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,9 +31,30 @@ import java.util.logging.Logger;
  */
 public class Main {
 
+    /**
+     * How often to log how much time and native memory each step is using.  On an embedded device, the log is the only
+     * place to see which step is slow or running out of memory.
+     */
+    private static final long METRICS_SUMMARY_PERIOD_MINUTES = 1;
+
+    /**
+     * The first argument that runs a project as a benchmark instead of running it forever
+     */
+    private static final String BENCH_COMMAND = "bench";
+
     @Inject
     private Project project;
     @Inject
+    private PipelineExecutor pipelineExecutor;
+    @Inject
+    private NativeMemoryMonitor nativeMemoryMonitor;
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+    @Inject
+    private QualityController qualityController;
+    @Inject
+    private Provider<BenchmarkRunner> benchmarkRunner;
+    @Inject
     private EventBus eventBus;
     @Inject
     private Logger logger;
@@ -37,8 +68,14 @@ public class Main {
 
     @SuppressWarnings("PMD.SystemPrintln")
     public void start(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && BENCH_COMMAND.equals(args[0])) {
+            benchmark(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         if (args.length != 1) {
             System.err.println("Usage: GRIP.jar project.grip");
+            System.err.println("   or: " + BenchmarkOptions.USAGE.replace("Usage: ", ""));
             return;
         } else {
             logger.log(Level.INFO, "Loading file " + args[0]);
@@ -47,6 +84,13 @@ public class Main {
         Operations.addOperations(eventBus);
         CVOperations.addOperations(eventBus);
 
+        // Nothing is previewed in headless mode, so only steps that lead to a published result need to run
+        pipelineExecutor.setDemandDriven(true);
+        pipelineExecutor.start();
+        qualityController.start();
+        nativeMemoryMonitor.start(METRICS_SUMMARY_PERIOD_MINUTES, TimeUnit.MINUTES);
+        pipelineMetrics.start(METRICS_SUMMARY_PERIOD_MINUTES, TimeUnit.MINUTES);
+
         final String projectPath = args[0];
 
         // Open a project from a .grip file specified on the command line
@@ -61,6 +105,33 @@ public class Main {
         }
     }
 
+    /**
+     * Run a project on recorded frames as fast as possible (or at a fixed rate), then print how it did
+     */
+    @SuppressWarnings("PMD.SystemPrintln")
+    private void benchmark(String[] args) throws IOException {
+        final BenchmarkOptions options;
+        try {
+            options = BenchmarkOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(BenchmarkOptions.USAGE);
+            return;
+        }
+        logger.log(Level.INFO, "Benchmarking " + options);
+
+        Operations.addOperations(eventBus);
+        CVOperations.addOperations(eventBus);
+
+        final BenchmarkReport report = benchmarkRunner.get().run(options);
+        System.out.println(report.toText());
+        if (options.getJsonFile().isPresent()) {
+            Files.write(options.getJsonFile().get().toPath(), report.toJson().getBytes(StandardCharsets.UTF_8));
+        } else {
+            System.out.println(report.toJson());
+        }
+    }
+
     @Subscribe
     public final void onExceptionEvent(ExceptionEvent event) {
         Logger.getLogger(event.getOrigin().getClass().getName()).log(
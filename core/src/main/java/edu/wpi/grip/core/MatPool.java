@@ -0,0 +1,177 @@
+package edu.wpi.grip.core;
+
+import com.google.common.base.MoreObjects;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A pool of {@link Mat Mats} that operations can borrow scratch buffers from instead of allocating new ones.
+ * <p>
+ * Native memory held by a Mat is only freed when the garbage collector gets around to running its deallocator, so an
+ * operation that allocates a new Mat every frame makes native memory use climb until the next GC, which can be a long
+ * pause on a small device like the roboRIO.  Returning Mats to this pool lets the next frame reuse them.
+ * <p>
+ * Mats are kept by their size and type.  The pool holds at most {@link #getCapacityBytes()} bytes of idle Mats, and
+ * when it's full, the Mats of the size that was used least recently are freed first.
+ */
+@Singleton
+public class MatPool {
+    public static final long DEFAULT_CAPACITY_BYTES = 32 * 1024 * 1024;
+
+    private final long capacityBytes;
+
+    /**
+     * Idle Mats of each shape, ordered so the least recently used shape comes first
+     */
+    private final Map<Key, Deque<Mat>> idleMats = new LinkedHashMap<>(16, 0.75f, true);
+    private long idleBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    private static final class Key {
+        private final int rows;
+        private final int cols;
+        private final int type;
+
+        private Key(int rows, int cols, int type) {
+            this.rows = rows;
+            this.cols = cols;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return rows == key.rows && cols == key.cols && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * rows + cols) + type;
+        }
+    }
+
+    @Inject
+    public MatPool() {
+        this(DEFAULT_CAPACITY_BYTES);
+    }
+
+    /**
+     * @param capacityBytes The most native memory that idle Mats in this pool can hold
+     */
+    public MatPool(long capacityBytes) {
+        checkArgument(capacityBytes >= 0, "Capacity cannot be negative");
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * Get a Mat with the given size and type.  Its contents are undefined.  The Mat belongs to the caller until it's
+     * given back with {@link #release(Mat)}, and it's fine to never give it back.
+     */
+    public synchronized Mat borrow(int rows, int cols, int type) {
+        final Deque<Mat> mats = idleMats.get(new Key(rows, cols, type));
+        if (mats != null && !mats.isEmpty()) {
+            final Mat mat = mats.pop();
+            idleBytes -= sizeInBytes(mat);
+            hits++;
+            return mat;
+        }
+        misses++;
+        return new Mat(rows, cols, type);
+    }
+
+    /**
+     * Give a Mat back to the pool so a later {@link #borrow} can reuse it.  The caller must not use the Mat after
+     * this.  Empty Mats and Mats that aren't continuous (like a region of another Mat) are not pooled.
+     */
+    public synchronized void release(Mat mat) {
+        checkNotNull(mat, "Mat can not be null");
+        final long size = sizeInBytes(mat);
+        if (mat.empty() || !mat.isContinuous() || size > capacityBytes) {
+            return;
+        }
+
+        idleMats.computeIfAbsent(new Key(mat.rows(), mat.cols(), mat.type()), key -> new ArrayDeque<>()).push(mat);
+        idleBytes += size;
+        evict();
+    }
+
+    /**
+     * Free the least recently used Mats until the pool is under its capacity
+     */
+    private void evict() {
+        final Iterator<Deque<Mat>> iterator = idleMats.values().iterator();
+        while (idleBytes > capacityBytes && iterator.hasNext()) {
+            final Deque<Mat> mats = iterator.next();
+            while (idleBytes > capacityBytes && !mats.isEmpty()) {
+                final Mat mat = mats.removeLast();
+                idleBytes -= sizeInBytes(mat);
+                mat.deallocate();
+            }
+            if (mats.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Free every idle Mat in the pool
+     */
+    public synchronized void clear() {
+        idleMats.values().forEach(mats -> mats.forEach(Mat::deallocate));
+        idleMats.clear();
+        idleBytes = 0;
+    }
+
+    public long getCapacityBytes() {
+        return capacityBytes;
+    }
+
+    /**
+     * @return The amount of native memory held by Mats that are in the pool and not borrowed
+     */
+    public synchronized long getIdleBytes() {
+        return idleBytes;
+    }
+
+    /**
+     * @return The number of times {@link #borrow} was able to reuse a Mat
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of times {@link #borrow} had to allocate a new Mat
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static long sizeInBytes(Mat mat) {
+        return mat.total() * mat.elemSize();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("capacityBytes", capacityBytes)
+                .add("idleBytes", idleBytes)
+                .add("hits", hits)
+                .add("misses", misses)
+                .toString();
+    }
+}
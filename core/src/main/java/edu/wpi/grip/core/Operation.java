@@ -48,6 +48,22 @@ public interface Operation {
         return Optional.empty();
     }
 
+    /**
+     * Perform the operation on the specified inputs, storing the results in the specified outputs.  Override this
+     * version to borrow temporary {@link org.bytedeco.javacpp.opencv_core.Mat Mats} from the pipeline's
+     * {@link MatPool} instead of allocating new ones every frame.
+     *
+     * @param inputs  An array obtained from {@link #createInputSockets(EventBus)}. The caller can set the value of
+     *                each socket to an actual parameter for the operation.
+     * @param outputs An array obtained from {@link #createOutputSockets(EventBus)}. The outputs of the operation will
+     *                be stored in these sockets.
+     * @param data    Optional data to be passed to the operation
+     * @param matPool The pool to borrow temporary Mats from
+     */
+    default void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs, Optional<?> data, MatPool matPool) {
+        perform(inputs, outputs, data);
+    }
+
     /**
      * Perform the operation on the specified inputs, storing the results in the specified outputs.
      *
@@ -5,10 +5,15 @@ import com.google.common.base.MoreObjects;
 import com.google.common.eventbus.EventBus;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import edu.wpi.grip.core.events.SocketPreviewChangedEvent;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Size;
 
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
+import static org.bytedeco.javacpp.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.javacpp.opencv_imgproc.resize;
+
 /**
  * Represents the output of an {@link Operation}.
  *
@@ -22,6 +27,13 @@ public class OutputSocket<T> extends Socket<T> {
      */
     private boolean previewed = false;
 
+    /**
+     * The image in this socket shrunk to the project's processing scale, shared by every connection from this socket
+     */
+    private Mat scaledImage;
+    private long scaledImageVersion;
+    private double scaledImageScale;
+
     /**
      * @param eventBus   The Guava {@link EventBus} used by the application.
      * @param socketHint {@link #getSocketHint}
@@ -41,6 +53,16 @@ public class OutputSocket<T> extends Socket<T> {
         super.setValue(value);
     }
 
+    /**
+     * Copy the new value into every input socket connected to this one.
+     */
+    @Override
+    protected void onValueChanged() {
+        for (Connection<?> connection : getConnectionsDirectly()) {
+            connection.onOutputChanged();
+        }
+    }
+
     /**
      * @param previewed If <code>true</code>, this socket will be shown in a preview in the GUI.
      */
@@ -62,7 +84,30 @@ public class OutputSocket<T> extends Socket<T> {
         return this.previewed;
     }
 
+    /**
+     * @param scale The fraction of its size to shrink the image in this socket to
+     * @return The image in this socket, shrunk by averaging the pixels it covers.  The shrunk image is kept until the
+     * value changes, so an image that goes to several steps is only shrunk once.
+     */
+    synchronized Mat getScaledImage(double scale) {
+        final Mat image = (Mat) getValue().get();
+        final long version = getVersion();
+        if (scaledImage == null) {
+            scaledImage = new Mat();
+        } else if (scaledImageVersion == version && scaledImageScale == scale) {
+            return scaledImage;
+        }
+        final Size size = new Size(
+                Math.max(1, (int) Math.round(image.cols() * scale)),
+                Math.max(1, (int) Math.round(image.rows() * scale)));
+        resize(image, scaledImage, size, 0, 0, INTER_AREA);
+        scaledImageVersion = version;
+        scaledImageScale = scale;
+        return scaledImage;
+    }
+
     protected void resetValueToInitial() {
+        this.setRegion(Optional.empty());
         this.setValue(this.getSocketHint()
                 .createInitialValue()
                 .orElse(null));
@@ -1,5 +1,6 @@
 package edu.wpi.grip.core;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Singleton;
@@ -37,27 +38,34 @@ public class Pipeline {
 
     private final List<Source> sources = new ArrayList<>();
     private final List<Step> steps = new ArrayList<>();
-    private final Set<Connection> connections = new HashSet<>();
+    private final Set<Connection<?>> connections = new HashSet<>();
     private ProjectSettings settings = new ProjectSettings();
 
+    /**
+     * A cached graph of the dependencies between steps.  This is thrown away whenever a step or connection changes.
+     */
+    @XStreamOmitField
+    private transient Optional<StepGraph> stepGraph = Optional.empty();
+
     /**
      * Remove everything in the pipeline
      */
     public void clear() {
         this.steps.stream().collect(Collectors.toList()).forEach(this::removeStep);
 
-        this.sources.stream()
+        getSources().stream()
                 .map(SourceRemovedEvent::new)
                 .collect(Collectors.toList())
                 .forEach(this.eventBus::post);
     }
 
     /**
-     * @return The unmodifiable list of sources for inputs to the algorithm
+     * @return An immutable snapshot of the sources for inputs to the algorithm.  This is safe to iterate over from any
+     * thread, such as the {@link PipelineExecutor}'s worker, even while sources are being added or removed.
      * @see Source
      */
-    public List<Source> getSources() {
-        return Collections.unmodifiableList(this.sources);
+    public synchronized List<Source> getSources() {
+        return ImmutableList.copyOf(this.sources);
     }
 
     /**
@@ -71,7 +79,18 @@ public class Pipeline {
      * @return The unmodifiable set of connections between inputs and outputs of steps in the algorithm
      */
     public Set<Connection> getConnections() {
-        return Collections.unmodifiableSet(this.connections);
+        return Collections.<Connection>unmodifiableSet(this.connections);
+    }
+
+    /**
+     * @return A snapshot of the dependencies between the steps in the pipeline.  The same graph is returned until a
+     * step or connection is added, removed, or moved.
+     */
+    public synchronized StepGraph getStepGraph() {
+        if (stepGraph == null || !stepGraph.isPresent()) {
+            stepGraph = Optional.of(new StepGraph(steps, connections));
+        }
+        return stepGraph.get();
     }
 
     /*
@@ -138,12 +157,16 @@ public class Pipeline {
 
     @Subscribe
     public void onSourceAdded(SourceAddedEvent event) {
-        this.sources.add(event.getSource());
+        synchronized (this) {
+            this.sources.add(event.getSource());
+        }
     }
 
     @Subscribe
     public void onSourceRemoved(SourceRemovedEvent event) {
-        this.sources.remove(event.getSource());
+        synchronized (this) {
+            this.sources.remove(event.getSource());
+        }
 
         // Sockets of deleted sources should not be previewed
         for (OutputSocket<?> socket : event.getSource().getOutputSockets()) {
@@ -154,7 +177,7 @@ public class Pipeline {
     public synchronized void addStep(int index, Step step) {
         checkNotNull(step, "The step can not be null");
         this.steps.add(index, step);
-        this.eventBus.register(step);
+        this.stepGraph = Optional.empty();
         this.eventBus.post(new StepAddedEvent(step, index));
     }
 
@@ -165,11 +188,11 @@ public class Pipeline {
     public synchronized void removeStep(Step step) {
         checkNotNull(step, "The step can not be null");
         this.steps.remove(step);
+        this.stepGraph = Optional.empty();
         // Sockets of deleted steps should not be previewed
         for (OutputSocket<?> socket : step.getOutputSockets()) {
             socket.setPreviewed(false);
         }
-        this.eventBus.unregister(step);
         this.eventBus.post(new StepRemovedEvent(step));
     }
 
@@ -183,18 +206,21 @@ public class Pipeline {
         // Compute the new index of the step, clamping to the beginning or end of pipeline if it goes past either end
         final int newIndex = Math.min(Math.max(oldIndex + delta, 0), this.steps.size());
         this.steps.add(newIndex, step);
+        this.stepGraph = Optional.empty();
         eventBus.post(new StepMovedEvent(step, delta));
     }
 
     @Subscribe
-    public void onConnectionAdded(ConnectionAddedEvent event) {
+    public synchronized void onConnectionAdded(ConnectionAddedEvent event) {
         final Connection connection = event.getConnection();
         this.connections.add(connection);
+        this.stepGraph = Optional.empty();
     }
 
     @Subscribe
-    public void onConnectionRemoved(ConnectionRemovedEvent event) {
+    public synchronized void onConnectionRemoved(ConnectionRemovedEvent event) {
         this.connections.remove(event.getConnection());
+        this.stepGraph = Optional.empty();
         this.eventBus.unregister(event.getConnection());
     }
 
@@ -0,0 +1,675 @@
+package edu.wpi.grip.core;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import edu.wpi.grip.core.events.SocketChangedEvent;
+import edu.wpi.grip.core.events.SocketPreviewChangedEvent;
+import edu.wpi.grip.core.events.SourceAddedEvent;
+import edu.wpi.grip.core.events.SourceRemovedEvent;
+import edu.wpi.grip.core.events.StepAddedEvent;
+import edu.wpi.grip.core.events.StepRemovedEvent;
+import edu.wpi.grip.core.events.UnexpectedThrowableEvent;
+import edu.wpi.grip.core.settings.ProjectSettings;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs the steps in the {@link Pipeline} on a dedicated worker thread.
+ * <p>
+ * Instead of running a step on whatever thread happened to change one of its inputs (which, for a camera, means a deep
+ * chain of synchronous calls on the camera thread), changing an input only marks the step as pending and wakes up the
+ * worker.  The worker then makes a single pass over the pipeline and runs every pending step
+ * exactly once, after all of the steps feeding into it have run.  This means that all of the inputs that change in
+ * one pass (for example, a mask and the image that it masks, both computed from the same frame) are collected into a
+ * single perform, instead of the step running once for each input with a mismatched set of values.
+ * <p>
+ * Steps are run on a fork-join pool using the pipeline's {@link StepGraph}.  Each step waits only for the steps that
+ * feed into it, so independent branches of the pipeline (for example, finding contours and finding blobs in the same
+ * thresholded image) run at the same time, and the branches are only joined where their outputs converge.
+ * <p>
+ * Connected steps with {@link PixelwiseOperation pixelwise operations} whose intermediate results aren't needed
+ * anywhere else are run together as {@link FusedSteps}, in one pass over the image.
+ * <p>
+ * If {@link ProjectSettings#getPipelinedExecution()} is enabled, each step instead runs on its own stage thread, and
+ * consecutive frames overlap: an early step can work on one frame while a later step is still working on the last.
+ * Steps aren't fused in this mode, since each one has its own thread.
+ * <p>
+ * Values are passed from sockets to connections to steps with plain method calls.  The {@link EventBus} is still used
+ * for editing events (for example, a step being added), and {@link SocketChangedEvent SocketChangedEvents} are posted
+ * for observers such as the GUI by {@link #postSocketChangedEvents()}, at a limited rate.
+ */
+@Singleton
+public class PipelineExecutor {
+    private static final Logger logger = Logger.getLogger(PipelineExecutor.class.getName());
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    /**
+     * The minimum time between two {@link SocketChangedEvent SocketChangedEvents} for the same socket.  This is
+     * about 30 updates per second, which is as fast as the GUI can usefully show them.
+     */
+    public static final long SOCKET_NOTIFICATION_PERIOD_MILLIS = 33;
+
+    private final EventBus eventBus;
+    private final Pipeline pipeline;
+
+    /**
+     * Steps that have had at least one input change since they last ran
+     */
+    private final Set<Step> pendingSteps = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Released whenever there is new work for the pipeline.  Any permits that pile up while a pass is running are
+     * drained, so a burst of changes only results in one more pass.
+     */
+    private final Semaphore pipelineFlag = new Semaphore(0);
+
+    /**
+     * The pool that steps are performed on.  It has one thread per processor, since operations are CPU-bound.
+     */
+    private final ForkJoinPool stepPool = new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Pipeline Worker " + thread.getPoolIndex());
+                return thread;
+            },
+            null,
+            false);
+
+    /**
+     * The single-threaded executor for each step when pipelined execution is enabled
+     */
+    private final Map<Step, ExecutorService> stageExecutors = new ConcurrentHashMap<>();
+
+    /**
+     * The pipelined passes that have been started but haven't finished, oldest first
+     */
+    private final Deque<CompletableFuture<Void>> passesInFlight = new ArrayDeque<>();
+
+    /**
+     * The future for each step in the last two pipelined passes.  These are only used by the worker thread.
+     */
+    private Map<Step, CompletableFuture<Void>> previousPass = Collections.emptyMap();
+    private Map<Step, CompletableFuture<Void>> passBeforePrevious = Collections.emptyMap();
+
+    /**
+     * A future for each step in the last pipelined pass that's done once the step has started and is holding its
+     * inputs.  This is only used by the worker thread.
+     */
+    private Map<Step, CompletableFuture<Void>> previousPassStarted = Collections.emptyMap();
+
+    private volatile long lastSocketNotificationTime = System.nanoTime();
+
+    /**
+     * If true, only steps that something depends on are run.  See {@link #setDemandDriven(boolean)}.
+     */
+    private volatile boolean demandDriven = false;
+    private final AtomicInteger previewVersion = new AtomicInteger();
+    private Set<Step> activeSteps = ImmutableSet.of();
+    private StepGraph activeStepsGraph = null;
+    private int activeStepsPreviewVersion = -1;
+    private boolean activeStepsDemandDriven = false;
+
+    /**
+     * If true, pixelwise steps are fused in sequential passes.  See {@link #setFusionEnabled(boolean)}.
+     */
+    private volatile boolean fusionEnabled = true;
+    private Map<Step, FusedSteps> fusedSteps = ImmutableMap.of();
+    private StepGraph fusedStepsGraph = null;
+    private int fusedStepsPreviewVersion = -1;
+    private boolean fusedStepsEnabled = false;
+
+    private volatile Optional<LongConsumer> passListener = Optional.empty();
+
+    private Optional<Thread> workerThread = Optional.empty();
+
+    /**
+     * True if the last pass run by the worker thread threw an exception.  This is only used by the worker thread.
+     */
+    private boolean passFailing = false;
+
+    @Inject
+    PipelineExecutor(EventBus eventBus, Pipeline pipeline) {
+        this.eventBus = checkNotNull(eventBus, "EventBus can not be null");
+        this.pipeline = checkNotNull(pipeline, "Pipeline can not be null");
+    }
+
+    /**
+     * Starts the worker thread.  Any steps that changed before the executor was started are run right away.
+     *
+     * @throws IllegalStateException If the executor is already running
+     */
+    public synchronized void start() {
+        if (workerThread.isPresent()) {
+            throw new IllegalStateException("The pipeline executor has already been started");
+        }
+
+        final Thread worker = new Thread(this::runWorker, "Pipeline Executor");
+        worker.setDaemon(true);
+        worker.setUncaughtExceptionHandler((thread, throwable) ->
+                eventBus.post(new UnexpectedThrowableEvent(throwable, "The pipeline executor crashed")));
+        workerThread = Optional.of(worker);
+        worker.start();
+
+        pipelineFlag.release();
+    }
+
+    /**
+     * Stops the worker thread and waits for the pass that it is currently running to finish.
+     */
+    public void stop() throws InterruptedException {
+        final Optional<Thread> worker;
+        synchronized (this) {
+            worker = workerThread;
+            workerThread = Optional.empty();
+        }
+
+        if (worker.isPresent()) {
+            worker.get().interrupt();
+            worker.get().join();
+        }
+    }
+
+    /**
+     * Set whether the pipeline is evaluated on demand.  In demand-driven mode, only steps whose results are actually
+     * used are run: steps with no outputs (such as publishing to NetworkTables), steps with a previewed output, and
+     * the steps that feed into them.  Anything else, like a debugging branch that was left in a project, costs
+     * nothing.  Skipped steps stay pending, so they run as soon as something starts depending on them.
+     * <p>
+     * This is used in headless mode, where nothing is previewed.
+     */
+    public void setDemandDriven(boolean demandDriven) {
+        this.demandDriven = demandDriven;
+        pipelineFlag.release();
+    }
+
+    public boolean isDemandDriven() {
+        return demandDriven;
+    }
+
+    /**
+     * Set whether chains of pixelwise steps, like a threshold followed by a mask, are run as {@link FusedSteps} in a
+     * single pass over the image.  This is enabled by default, and only has an effect when pipelined execution isn't
+     * enabled.  The results are the same either way.
+     */
+    public void setFusionEnabled(boolean fusionEnabled) {
+        this.fusionEnabled = fusionEnabled;
+        pipelineFlag.release();
+    }
+
+    public boolean isFusionEnabled() {
+        return fusionEnabled;
+    }
+
+    /**
+     * @param passListener Called with the time that each pass over the pipeline took, in nanoseconds.  For pipelined
+     *                     passes, this is the time from the pass being scheduled to its last step finishing.
+     */
+    public void setPassListener(Optional<LongConsumer> passListener) {
+        this.passListener = checkNotNull(passListener, "The pass listener can not be null");
+    }
+
+    /**
+     * @return true if the worker thread is running
+     */
+    public synchronized boolean isStarted() {
+        return workerThread.isPresent() && workerThread.get().isAlive();
+    }
+
+    /**
+     * Make a single pass over the pipeline.  First, every source publishes the newest value it has received, then each
+     * pending step runs once, after all of the steps that it depends on have finished.
+     * <p>
+     * Normally this returns once every step has finished.  If {@link ProjectSettings#getPipelinedExecution()} is
+     * enabled, this returns as soon as the pass has been scheduled, and {@link #awaitPipeline()} can be used to wait
+     * for it to finish.
+     * <p>
+     * This is normally only called by the worker thread, but it can be called directly (for example, in tests) when
+     * the executor hasn't been started.
+     */
+    public void runPipeline() {
+        if (pipeline.getProjectSettings().getPipelinedExecution()) {
+            runPipelinedPass();
+            return;
+        }
+
+        // Pipelined passes may still be running if the setting was just turned off
+        awaitPipeline();
+
+        final long startTime = System.nanoTime();
+        for (Source source : pipeline.getSources()) {
+            source.updateOutputSockets();
+        }
+
+        final StepGraph stepGraph = pipeline.getStepGraph();
+        final Map<Step, FusedSteps> fusedSteps = getFusedSteps(stepGraph, fusionEnabled);
+        final Set<Step> activeSteps = getActiveSteps(stepGraph);
+        final Map<Step, CompletableFuture<Void>> stepFutures = new HashMap<>();
+        for (Step step : stepGraph.getSteps()) {
+            if (!activeSteps.contains(step)) {
+                continue;
+            }
+
+            // The graph is in topological order, so the futures for every upstream step have already been created.
+            final CompletableFuture<?>[] upstreamFutures = stepGraph.getUpstreamSteps(step).stream()
+                    .map(upstream -> stepFutures.getOrDefault(upstream, COMPLETED))
+                    .toArray(CompletableFuture<?>[]::new);
+
+            final FusedSteps group = fusedSteps.get(step);
+            stepFutures.put(step, CompletableFuture.allOf(upstreamFutures)
+                    .thenRunAsync(() -> {
+                        if (group == null) {
+                            runIfPending(step, false);
+                        } else if (group.getTail() == step) {
+                            // The rest of the group was skipped, and everything that feeds into it is done
+                            runIfPending(group);
+                        }
+                    }, stepPool));
+        }
+
+        join(allOf(stepFutures.values()));
+        passListener.ifPresent(listener -> listener.accept(System.nanoTime() - startTime));
+    }
+
+    /**
+     * Wait for every pipelined pass that has been started to finish.  If pipelined execution isn't enabled, this
+     * returns immediately.
+     */
+    public void awaitPipeline() {
+        final CompletableFuture<Void> inFlight;
+        synchronized (passesInFlight) {
+            inFlight = allOf(passesInFlight);
+        }
+        join(inFlight);
+    }
+
+    /**
+     * Start a pass in which every step runs on its own stage thread.  A step can start working on this pass as soon
+     * as the steps feeding into it are done with this pass, even if later steps are still working on earlier passes.
+     * <p>
+     * Because each step writes its {@link org.bytedeco.javacpp.opencv_core.Mat} outputs into alternating buffers (see
+     * {@link Step#swapOutputBuffers()}), a step in pass <i>n</i> also has to wait for the steps after it to finish
+     * pass <i>n-2</i>, since those are the last steps that could still be reading the buffer it is about to write.
+     * <p>
+     * Each step holds its inputs while it runs (see {@link #runStage(Step, CompletableFuture)}), and a step in pass
+     * <i>n</i> doesn't start until the steps after it have started pass <i>n-1</i>.  Together, these make sure that
+     * every step in a pass reads the results of that pass, even if the steps feeding into it have already moved on:
+     * anything from pass <i>n</i> that arrives while a step is still running pass <i>n-1</i> is only applied when it's
+     * done, and a branch that's slow to start can't be handed results from a later pass than the other branches.
+     */
+    private void runPipelinedPass() {
+        final StepGraph stepGraph = pipeline.getStepGraph();
+        final long startTime = System.nanoTime();
+
+        // Don't start more passes than there are stages, otherwise new frames would just queue up behind the slowest
+        // stage instead of being dropped.  The lock isn't held while waiting, since finished passes need it to remove
+        // themselves.
+        while (true) {
+            final CompletableFuture<Void> oldestPass;
+            synchronized (passesInFlight) {
+                if (passesInFlight.size() < Math.max(1, stepGraph.getSteps().size())) {
+                    break;
+                }
+                oldestPass = passesInFlight.removeFirst();
+            }
+            join(oldestPass);
+        }
+
+        // Sources update their values in place, so the steps that read them need to be done with the last frame
+        for (Step step : stepGraph.getSourceConsumers()) {
+            join(previousPass.getOrDefault(step, COMPLETED));
+        }
+        for (Source source : pipeline.getSources()) {
+            source.updateOutputSockets();
+        }
+
+        // Any steps that were fused in sequential passes need to set their own outputs again
+        getFusedSteps(stepGraph, false);
+        final Set<Step> activeSteps = getActiveSteps(stepGraph);
+        final Map<Step, CompletableFuture<Void>> stepFutures = new HashMap<>();
+        final Map<Step, CompletableFuture<Void>> startedFutures = new HashMap<>();
+        for (Step step : stepGraph.getSteps()) {
+            if (!activeSteps.contains(step)) {
+                continue;
+            }
+
+            final List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+            stepGraph.getUpstreamSteps(step).forEach(upstream ->
+                    dependencies.add(stepFutures.getOrDefault(upstream, COMPLETED)));
+            dependencies.add(previousPass.getOrDefault(step, COMPLETED));
+            stepGraph.getDownstreamSteps(step).forEach(downstream -> {
+                dependencies.add(previousPassStarted.getOrDefault(downstream, COMPLETED));
+                dependencies.add(passBeforePrevious.getOrDefault(downstream, COMPLETED));
+            });
+
+            final CompletableFuture<Void> started = new CompletableFuture<>();
+            final CompletableFuture<Void> stepFuture = allOf(dependencies)
+                    .thenRunAsync(() -> runStage(step, started), getStageExecutor(step));
+            // If the stage never runs because something it depends on failed, nothing should wait for it to start
+            stepFuture.whenComplete((result, throwable) -> started.complete(null));
+            stepFutures.put(step, stepFuture);
+            startedFutures.put(step, started);
+        }
+
+        passBeforePrevious = previousPass;
+        previousPass = stepFutures;
+        previousPassStarted = startedFutures;
+
+        final CompletableFuture<Void> pass = allOf(stepFutures.values());
+        synchronized (passesInFlight) {
+            passesInFlight.addLast(pass);
+        }
+        pass.whenComplete((result, throwable) -> {
+            synchronized (passesInFlight) {
+                passesInFlight.remove(pass);
+            }
+            if (throwable != null) {
+                final Throwable cause = throwable.getCause() == null ? throwable : throwable.getCause();
+                eventBus.post(new UnexpectedThrowableEvent(cause, "A pipelined pass did not complete"));
+            } else {
+                passListener.ifPresent(listener -> listener.accept(System.nanoTime() - startTime));
+            }
+        });
+    }
+
+    /**
+     * @return The steps that should run.  Normally this is every step, but in demand-driven mode it's only the sinks
+     * (steps with no outputs, like publishing operations, and steps with a previewed output) and the steps that feed
+     * into them.
+     */
+    private Set<Step> getActiveSteps(StepGraph stepGraph) {
+        final boolean demandDriven = this.demandDriven;
+        synchronized (this) {
+            // The graph is rebuilt whenever a step or connection changes, so only the preview flags need a counter
+            final int previewVersion = this.previewVersion.get();
+            if (stepGraph != activeStepsGraph || previewVersion != activeStepsPreviewVersion
+                    || demandDriven != activeStepsDemandDriven) {
+                if (demandDriven) {
+                    final List<Step> sinks = stepGraph.getSteps().stream()
+                            .filter(PipelineExecutor::isSink)
+                            .collect(Collectors.toList());
+                    activeSteps = stepGraph.getStepsFeeding(sinks);
+                } else {
+                    activeSteps = ImmutableSet.copyOf(stepGraph.getSteps());
+                }
+                activeStepsGraph = stepGraph;
+                activeStepsPreviewVersion = previewVersion;
+                activeStepsDemandDriven = demandDriven;
+            }
+            return activeSteps;
+        }
+    }
+
+    /**
+     * @param fuse If false, nothing is fused
+     * @return The group that each fused step belongs to.  Whenever the groups change, the steps that were fused are
+     * made pending, since a step in the middle of a group doesn't set its outputs, and they might be needed now.
+     */
+    private synchronized Map<Step, FusedSteps> getFusedSteps(StepGraph stepGraph, boolean fuse) {
+        final int previewVersion = this.previewVersion.get();
+        if (stepGraph != fusedStepsGraph || previewVersion != fusedStepsPreviewVersion || fuse != fusedStepsEnabled) {
+            for (Step step : fusedSteps.keySet()) {
+                if (stepGraph.getSteps().contains(step)) {
+                    step.forgetPerformedInputs();
+                    pendingSteps.add(step);
+                }
+            }
+            fusedSteps = fuse ? FusedSteps.plan(stepGraph) : ImmutableMap.of();
+            fusedStepsGraph = stepGraph;
+            fusedStepsPreviewVersion = previewVersion;
+            fusedStepsEnabled = fuse;
+        }
+        return fusedSteps;
+    }
+
+    private static boolean isSink(Step step) {
+        final OutputSocket<?>[] outputSockets = step.getOutputSockets();
+        if (outputSockets.length == 0) {
+            return true;
+        }
+        for (OutputSocket<?> outputSocket : outputSockets) {
+            if (outputSocket.isPreviewed()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ExecutorService getStageExecutor(Step step) {
+        return stageExecutors.computeIfAbsent(step, s -> Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Pipeline Stage - " + s.getOperation().getName());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @Subscribe
+    public void onSocketPreviewChanged(SocketPreviewChangedEvent event) {
+        previewVersion.incrementAndGet();
+        if (demandDriven) {
+            // A step that was skipped might need to run now
+            pipelineFlag.release();
+        }
+    }
+
+    /**
+     * Run a step as one stage of a pipelined pass.  The steps feeding into it might finish the next pass while it's
+     * still running, so its inputs are held until it's done.  That way it never mixes values from two passes, and
+     * the versions that it records as performed are the ones that it actually read.  Anything that arrived while it
+     * was running makes it pending again for the next pass.
+     *
+     * @param started Completed once the inputs are held, so the steps feeding into this one can start the next pass
+     */
+    private void runStage(Step step, CompletableFuture<Void> started) {
+        step.holdInputs();
+        started.complete(null);
+        try {
+            runIfPending(step, true);
+        } finally {
+            step.releaseInputs();
+        }
+    }
+
+    private void runIfPending(Step step, boolean swapOutputBuffers) {
+        // A step only becomes pending when one of its inputs changes, which for a connected input happens while an
+        // upstream step is running.  The step is removed from the set before it runs, so an input that changes while
+        // the step is running will cause it to run again on the next pass.
+        if (pendingSteps.remove(step)) {
+            step.runPerformIfPossible(swapOutputBuffers, pipeline.getProjectSettings().getCompareImageContents());
+        }
+    }
+
+    /**
+     * Run a group of fused steps if any of them is pending.  If the group can't be run as one (for example, because
+     * an input is missing), each step is run on its own instead.
+     */
+    private void runIfPending(FusedSteps group) {
+        boolean pending = false;
+        for (Step step : group.getSteps()) {
+            // Every step is removed, even after one is found to be pending
+            pending |= pendingSteps.remove(step);
+        }
+        if (pending && !group.run(pipeline.getProjectSettings().getCompareImageContents())) {
+            for (Step step : group.getSteps()) {
+                step.runPerformIfPossible(false, pipeline.getProjectSettings().getCompareImageContents());
+            }
+        }
+    }
+
+    private static CompletableFuture<Void> allOf(Collection<CompletableFuture<Void>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    private static void join(CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            // Step catches exceptions thrown by operations, so anything that gets here is unexpected
+            Throwables.propagateIfPossible(e.getCause());
+            throw e;
+        }
+    }
+
+    private void runWorker() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                // Wake up periodically even if there's nothing to run, so that changes made by pipelined passes (which
+                // finish on other threads) and the last changes from a burst are still posted.
+                try {
+                    if (pipelineFlag.tryAcquire(SOCKET_NOTIFICATION_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) {
+                        pipelineFlag.drainPermits();
+                        runPipeline();
+                    }
+
+                    if (System.nanoTime() - lastSocketNotificationTime
+                            >= TimeUnit.MILLISECONDS.toNanos(SOCKET_NOTIFICATION_PERIOD_MILLIS)) {
+                        postSocketChangedEvents();
+                    }
+                    passFailing = false;
+                } catch (RuntimeException e) {
+                    // One bad pass (for example, a source that failed to update) shouldn't stop the pipeline for
+                    // good, so it's reported and the next pass runs as usual.  Only the first of a run of failed
+                    // passes is posted, so a source that fails on every frame doesn't flood the GUI.
+                    logger.log(Level.WARNING, "A pass over the pipeline did not complete", e);
+                    if (!passFailing) {
+                        eventBus.post(new UnexpectedThrowableEvent(e, "A pass over the pipeline did not complete"));
+                    }
+                    passFailing = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.log(Level.FINE, "The pipeline executor was interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Called directly by a step in the pipeline whenever one of its inputs changes.  Outputs reach the inputs of other
+     * steps through their connections, so only inputs need to be tracked.
+     */
+    private void onStepInputChanged(Step step) {
+        pendingSteps.add(step);
+        pipelineFlag.release();
+    }
+
+    /**
+     * Post a {@link SocketChangedEvent} for every socket in the pipeline that has changed since the last time this was
+     * called.  Values are passed between sockets and steps directly, so these events are only for observers such as
+     * the GUI.  The worker thread calls this at most once every {@link #SOCKET_NOTIFICATION_PERIOD_MILLIS}
+     * milliseconds, so observers see at most one event per socket in that time, no matter how fast the pipeline runs.
+     * <p>
+     * Observers may read the images in the sockets while they're told about them (for example, previews copy them),
+     * so the events for a step are posted while that step and every step before it are kept from running.  Those are
+     * the steps that write the images in its sockets, including the images that reports point to.  This should be
+     * called on the worker thread, or between passes, since steps that are run {@link FusedSteps fused} aren't kept
+     * from running.
+     */
+    public void postSocketChangedEvents() {
+        lastSocketNotificationTime = System.nanoTime();
+        for (Source source : pipeline.getSources()) {
+            final List<Socket<?>> changedSockets = new ArrayList<>();
+            pollChangedSockets(source.getOutputSockets(), changedSockets);
+            postSocketChangedEvents(changedSockets);
+        }
+
+        final StepGraph stepGraph = pipeline.getStepGraph();
+        for (Step step : stepGraph.getSteps()) {
+            final List<Socket<?>> changedSockets = new ArrayList<>();
+            pollChangedSockets(step.getInputSockets(), changedSockets);
+            pollChangedSockets(step.getOutputSockets(), changedSockets);
+            if (!changedSockets.isEmpty()) {
+                // Steps only hold themselves while they run, so holding several here (always in the order that they
+                // run) can't deadlock
+                final Set<Step> writers = stepGraph.getStepsFeeding(Collections.singleton(step));
+                final List<Step> heldSteps = stepGraph.getSteps().stream()
+                        .filter(writers::contains)
+                        .collect(Collectors.toList());
+                postSocketChangedEventsHolding(heldSteps, 0, changedSockets);
+            }
+        }
+    }
+
+    private void postSocketChangedEventsHolding(List<Step> steps, int index, List<Socket<?>> changedSockets) {
+        if (index == steps.size()) {
+            postSocketChangedEvents(changedSockets);
+            return;
+        }
+        synchronized (steps.get(index)) {
+            postSocketChangedEventsHolding(steps, index + 1, changedSockets);
+        }
+    }
+
+    private static void pollChangedSockets(Socket<?>[] sockets, List<Socket<?>> changedSockets) {
+        for (Socket<?> socket : sockets) {
+            if (socket.pollChanged()) {
+                changedSockets.add(socket);
+            }
+        }
+    }
+
+    private void postSocketChangedEvents(List<Socket<?>> changedSockets) {
+        for (Socket<?> socket : changedSockets) {
+            eventBus.post(new SocketChangedEvent(socket));
+        }
+    }
+
+    @Subscribe
+    public void onSourceAdded(SourceAddedEvent event) {
+        // Sources call this directly for every new value, so a camera's frames never go through the EventBus
+        event.getSource().setPendingUpdateListener(Optional.of(source -> pipelineFlag.release()));
+    }
+
+    @Subscribe
+    public void onSourceRemoved(SourceRemovedEvent event) {
+        event.getSource().setPendingUpdateListener(Optional.empty());
+    }
+
+    @Subscribe
+    public void onStepAdded(StepAddedEvent event) {
+        final Step step = event.getStep();
+        step.setInputChangedListener(Optional.of(this::onStepInputChanged));
+
+        // New steps are run once so that their outputs (or their missing input warnings) are up to date
+        onStepInputChanged(step);
+    }
+
+    @Subscribe
+    public void onStepRemoved(StepRemovedEvent event) {
+        event.getStep().setInputChangedListener(Optional.empty());
+        pendingSteps.remove(event.getStep());
+        final ExecutorService stageExecutor = stageExecutors.remove(event.getStep());
+        if (stageExecutor != null) {
+            stageExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package edu.wpi.grip.core;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.Optional;
+
+/**
+ * An {@link Operation} whose output image is computed pixel by pixel from its input images, like a color conversion,
+ * a threshold, or a mask.  Each row of the output only depends on the same row of the inputs.
+ * <p>
+ * When several of these are connected one after another, the {@link PipelineExecutor} can run them together as one
+ * {@link FusedSteps fused} group.  Instead of each step going over the whole image and writing a full-size
+ * intermediate image for the next, the group goes over the image once, in bands of rows that are small enough to stay
+ * in the CPU cache, and runs every step on a band before moving on to the next.
+ * <p>
+ * An operation that implements this must still implement {@link #perform}, which is used whenever the step isn't
+ * fused.  It must have exactly one output, which is an image.
+ */
+public interface PixelwiseOperation extends Operation {
+
+    /**
+     * @return The indexes of the input sockets that hold images that are processed pixel by pixel.  These images must
+     * all be the same size as each other, and the output is the same size as them.
+     */
+    int[] getPixelwiseInputIndexes();
+
+    /**
+     * Check the inputs and get ready to process images of the given size.  This is called once for each frame, before
+     * any calls to {@link #performBand}.
+     *
+     * @param inputs     The input sockets of the step.  The values of the sockets in
+     *                   {@link #getPixelwiseInputIndexes()} can't be used, since they may come from a fused step that
+     *                   never stores its full output.
+     * @param rows       The number of rows in the images
+     * @param cols       The number of columns in the images
+     * @param imageTypes The OpenCV type of each image input, in the same order as {@link #getPixelwiseInputIndexes()}
+     * @param data       The data from {@link #createData()}
+     * @param matPool    The pool to borrow any full-size Mats from
+     * @return The OpenCV type of the output image
+     * @throws IllegalArgumentException If the operation can't be performed on these inputs
+     */
+    int prepareBands(InputSocket<?>[] inputs, int rows, int cols, int[] imageTypes, Optional<?> data, MatPool matPool);
+
+    /**
+     * Perform the operation on one band of rows.
+     *
+     * @param inputs   The input sockets of the step
+     * @param images   The band of each image input, in the same order as {@link #getPixelwiseInputIndexes()}
+     * @param output   The same band of the output, already allocated with the type returned by
+     *                 {@link #prepareBands}
+     * @param startRow The row of the full image that the band starts at
+     * @param data     The data from {@link #createData()}
+     */
+    void performBand(InputSocket<?>[] inputs, Mat[] images, Mat output, int startRow, Optional<?> data);
+}
@@ -0,0 +1,208 @@
+package edu.wpi.grip.core;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import edu.wpi.grip.core.events.QualityChangedEvent;
+import edu.wpi.grip.core.metrics.LatencyHistogram;
+import edu.wpi.grip.core.settings.ProjectSettings;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the pipeline within the frame time allowed by {@link ProjectSettings#getTargetFrameRate()}, by lowering the
+ * quality of processing when frames take too long and raising it again when there's time to spare.
+ * <p>
+ * The quality is lowered one level at a time.  The first level stops running steps whose results aren't published or
+ * previewed (see {@link PipelineExecutor#setDemandDriven(boolean)}), if {@link ProjectSettings#getSkipUnusedSteps()}
+ * allows it.  Each level after that shrinks images from sources a bit further than the project's processing scale,
+ * down to {@link ProjectSettings#getMinimumProcessingScale()}.  Contours, lines, and blobs are reported in full-frame
+ * coordinates at any scale, so published values stay comparable while this happens.
+ * <p>
+ * Every change is logged and posted as a {@link QualityChangedEvent}, and the current state is included in the
+ * {@link edu.wpi.grip.core.metrics.PipelineMetrics} summary.
+ */
+@Singleton
+public class QualityController {
+    private static final Logger logger = Logger.getLogger(QualityController.class.getName());
+
+    /**
+     * How much further images are shrunk at each level
+     */
+    static final double SCALE_STEP = 0.75;
+
+    /**
+     * Frames that take less than this fraction of the allowed time are fast enough to raise the quality again.  The
+     * gap between this and the full allowed time keeps the quality from going back and forth every adjustment.
+     */
+    static final double HEADROOM = 0.7;
+
+    /**
+     * The minimum time between adjustments.  This is longer than the window that frame times are summarized over, so
+     * each adjustment is judged only on frames that were processed after the last one.
+     */
+    static final long ADJUSTMENT_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The minimum number of frames that an adjustment is based on
+     */
+    static final int MIN_FRAMES = 5;
+
+    private final EventBus eventBus;
+    private final Pipeline pipeline;
+    private final PipelineExecutor pipelineExecutor;
+    private final LatencyHistogram frameTime = new LatencyHistogram(WINDOW_NANOS);
+
+    private int level = 0;
+    private double scaleFactor = 1.0;
+    private boolean skippingUnusedSteps = false;
+    private long lastAdjustmentTime;
+    private long adjustmentCount = 0;
+
+    @Inject
+    QualityController(EventBus eventBus, Pipeline pipeline, PipelineExecutor pipelineExecutor) {
+        this.eventBus = checkNotNull(eventBus, "EventBus can not be null");
+        this.pipeline = checkNotNull(pipeline, "Pipeline can not be null");
+        this.pipelineExecutor = checkNotNull(pipelineExecutor, "PipelineExecutor can not be null");
+    }
+
+    /**
+     * Start watching how long each pass over the pipeline takes
+     */
+    public synchronized void start() {
+        lastAdjustmentTime = System.nanoTime();
+        pipelineExecutor.setPassListener(Optional.of(duration -> onPassFinished(duration, System.nanoTime())));
+    }
+
+    /**
+     * Stop watching the pipeline and go back to full quality
+     */
+    public synchronized void stop() {
+        pipelineExecutor.setPassListener(Optional.empty());
+        setLevel(0, pipeline.getProjectSettings(), "the quality controller was stopped", System.nanoTime());
+    }
+
+    /**
+     * Record the time that one pass over the pipeline took, and adjust the quality if recent passes have been
+     * consistently too slow or fast enough to allow more
+     */
+    synchronized void onPassFinished(long durationNanos, long nowNanos) {
+        frameTime.record(durationNanos, nowNanos);
+
+        final ProjectSettings settings = pipeline.getProjectSettings();
+        if (settings.getTargetFrameRate() <= 0) {
+            if (level != 0) {
+                setLevel(0, settings, "there is no target frame rate", nowNanos);
+            }
+            return;
+        }
+        if (nowNanos - lastAdjustmentTime < ADJUSTMENT_PERIOD_NANOS) {
+            return;
+        }
+
+        final LatencyHistogram.Summary summary = frameTime.summarize(nowNanos);
+        if (summary.getCount() < MIN_FRAMES) {
+            return;
+        }
+
+        final long allowedNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.getTargetFrameRate());
+        final String frameTimes = String.format("frames are taking %.2f ms (p95) out of %.2f ms",
+                summary.getP95() / 1e6, allowedNanos / 1e6);
+        final int maxLevel = getMaxLevel(settings);
+        if (level > maxLevel) {
+            // The settings changed, and there's less that can be turned down now
+            setLevel(maxLevel, settings, "the settings changed", nowNanos);
+        } else if (summary.getP95() > allowedNanos && level < maxLevel) {
+            setLevel(level + 1, settings, frameTimes, nowNanos);
+        } else if (summary.getP95() < allowedNanos * HEADROOM && level > 0) {
+            setLevel(level - 1, settings, frameTimes, nowNanos);
+        }
+    }
+
+    /**
+     * @return The number of levels that the quality can be lowered by with the given settings
+     */
+    private int getMaxLevel(ProjectSettings settings) {
+        return (canSkipUnusedSteps(settings) ? 1 : 0) + getScaleLevels(settings);
+    }
+
+    private boolean canSkipUnusedSteps(ProjectSettings settings) {
+        // If the executor is already demand-driven (as it is in headless mode), nothing more is skipped
+        return settings.getSkipUnusedSteps() && (skippingUnusedSteps || !pipelineExecutor.isDemandDriven());
+    }
+
+    /**
+     * @return The number of times that images can be shrunk by {@link #SCALE_STEP} before reaching the minimum scale,
+     * counting a last, smaller step to exactly the minimum
+     */
+    private static int getScaleLevels(ProjectSettings settings) {
+        final double minimumFactor = settings.getMinimumProcessingScale() / settings.getProcessingScale();
+        if (minimumFactor >= 1.0) {
+            return 0;
+        }
+        return (int) Math.ceil(Math.log(minimumFactor) / Math.log(SCALE_STEP) - 1e-9);
+    }
+
+    private void setLevel(int level, ProjectSettings settings, String reason, long nowNanos) {
+        final boolean skip = level > 0 && canSkipUnusedSteps(settings);
+        final int scaleLevel = level - (canSkipUnusedSteps(settings) ? 1 : 0);
+        final double minimumFactor = Math.min(1.0, settings.getMinimumProcessingScale() / settings.getProcessingScale());
+        final double factor = scaleLevel > 0 ? Math.max(Math.pow(SCALE_STEP, scaleLevel), minimumFactor) : 1.0;
+
+        final boolean raised = level < this.level;
+        this.level = level;
+        lastAdjustmentTime = nowNanos;
+        if (skip == skippingUnusedSteps && factor == scaleFactor) {
+            return;
+        }
+
+        if (skip != skippingUnusedSteps) {
+            pipelineExecutor.setDemandDriven(skip);
+        }
+        skippingUnusedSteps = skip;
+        scaleFactor = factor;
+        adjustmentCount++;
+        logger.log(Level.INFO, String.format("%s the processing quality because %s: images are processed at %.3f of "
+                        + "their size%s", raised ? "Raised" : "Lowered", reason,
+                settings.getProcessingScale() * factor, skip ? ", and unused steps are skipped" : ""));
+        eventBus.post(new QualityChangedEvent(factor, skip));
+    }
+
+    /**
+     * @return How many levels the quality is currently lowered by.  0 is full quality.
+     */
+    public synchronized int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return How much further than the project's processing scale images are currently shrunk
+     */
+    public synchronized double getScaleFactor() {
+        return scaleFactor;
+    }
+
+    public synchronized boolean isSkippingUnusedSteps() {
+        return skippingUnusedSteps;
+    }
+
+    /**
+     * @return The number of times that the quality has been changed
+     */
+    public synchronized long getAdjustmentCount() {
+        return adjustmentCount;
+    }
+
+    /**
+     * @return The time that recent passes over the pipeline took
+     */
+    public LatencyHistogram.Summary getFrameTime() {
+        return frameTime.summarize(System.nanoTime());
+    }
+}
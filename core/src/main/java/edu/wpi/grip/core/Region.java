@@ -0,0 +1,256 @@
+package edu.wpi.grip.core;
+
+import com.google.common.base.MoreObjects;
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Where an image is in the full frame that it was cut out of.  When an operation only works on a region of interest
+ * of a frame, or on a frame that was shrunk to the project's processing scale, the images computed from it carry one
+ * of these along with them, so that anything found in them can be translated back into the coordinates of the full
+ * frame.
+ *
+ * @see Socket#getRegion()
+ */
+public final class Region {
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final int frameWidth;
+    private final int frameHeight;
+    private final double scaleX;
+    private final double scaleY;
+
+    /**
+     * @param x           The column of the full frame that the left edge of the region is at
+     * @param y           The row of the full frame that the top edge of the region is at
+     * @param width       The width of the region
+     * @param height      The height of the region
+     * @param frameWidth  The width of the full frame
+     * @param frameHeight The height of the full frame
+     */
+    public Region(int x, int y, int width, int height, int frameWidth, int frameHeight) {
+        this(x, y, width, height, frameWidth, frameHeight, 1.0);
+    }
+
+    /**
+     * @param x           The column of the full frame that the left edge of the region is at
+     * @param y           The row of the full frame that the top edge of the region is at
+     * @param width       The width of the region, in pixels of the full frame
+     * @param height      The height of the region, in pixels of the full frame
+     * @param frameWidth  The width of the full frame
+     * @param frameHeight The height of the full frame
+     * @param scale       How many pixels of the full frame each pixel of the image is
+     */
+    public Region(int x, int y, int width, int height, int frameWidth, int frameHeight, double scale) {
+        this(x, y, width, height, frameWidth, frameHeight, scale, scale);
+    }
+
+    /**
+     * @param x           The column of the full frame that the left edge of the region is at
+     * @param y           The row of the full frame that the top edge of the region is at
+     * @param width       The width of the region, in pixels of the full frame
+     * @param height      The height of the region, in pixels of the full frame
+     * @param frameWidth  The width of the full frame
+     * @param frameHeight The height of the full frame
+     * @param scaleX      How many columns of the full frame each column of the image is
+     * @param scaleY      How many rows of the full frame each row of the image is.  This is usually a little different
+     *                    from <code>scaleX</code>, since the width and height of a shrunk image are rounded separately.
+     */
+    public Region(int x, int y, int width, int height, int frameWidth, int frameHeight, double scaleX, double scaleY) {
+        checkArgument(x >= 0 && y >= 0 && width >= 0 && height >= 0, "A region cannot have a negative position or size");
+        checkArgument(x + width <= frameWidth && y + height <= frameHeight, "A region must be inside of its frame");
+        checkArgument(scaleX > 0 && scaleY > 0, "A region's scale must be positive");
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+    }
+
+    /**
+     * @return A region that covers the whole of a frame of the given size
+     */
+    public static Region ofFrame(int frameWidth, int frameHeight) {
+        return new Region(0, 0, frameWidth, frameHeight, frameWidth, frameHeight);
+    }
+
+    /**
+     * @return A region that covers the whole of a frame that was shrunk to an image of the given size
+     */
+    public static Region ofScaledFrame(int frameWidth, int frameHeight, int imageWidth, int imageHeight) {
+        checkArgument(imageWidth > 0 && imageHeight > 0, "A scaled frame cannot be empty");
+        return new Region(0, 0, frameWidth, frameHeight, frameWidth, frameHeight,
+                (double) frameWidth / imageWidth, (double) frameHeight / imageHeight);
+    }
+
+    /**
+     * @param socket The socket that holds the image
+     * @param image  An image computed from the whole frame or a region of it
+     * @return The region of the frame that the image in the socket is.  If the socket doesn't have a region, or has one
+     * that doesn't match the image, the image is the whole frame.
+     */
+    public static Region forImage(Socket<?> socket, Mat image) {
+        return socket.getRegion()
+                .filter(region -> region.fits(image.cols(), image.rows()))
+                .orElse(ofFrame(image.cols(), image.rows()));
+    }
+
+    /**
+     * @param region A region of an image that is itself this region of the frame
+     * @return The same region, relative to the full frame instead of to this region
+     */
+    public Region resolve(Region region) {
+        checkArgument(fits(region.frameWidth, region.frameHeight),
+                "The region must be of an image the same size as this region");
+        final int x = this.x + (int) Math.round(region.x * scaleX);
+        final int y = this.y + (int) Math.round(region.y * scaleY);
+        return new Region(x, y,
+                Math.min((int) Math.round(region.width * scaleX), frameWidth - x),
+                Math.min((int) Math.round(region.height * scaleY), frameHeight - y),
+                frameWidth, frameHeight, scaleX * region.scaleX, scaleY * region.scaleY);
+    }
+
+    /**
+     * @return The column of the full frame that a column of the image is at
+     */
+    public double toFrameX(double x) {
+        return this.x + x * scaleX;
+    }
+
+    /**
+     * @return The row of the full frame that a row of the image is at
+     */
+    public double toFrameY(double y) {
+        return this.y + y * scaleY;
+    }
+
+    /**
+     * @return A distance in the image, in pixels of the full frame.  The distance could be in any direction, so it's
+     * scaled by the average of the horizontal and vertical scales.
+     */
+    public double toFrameLength(double length) {
+        return length * (scaleX + scaleY) / 2;
+    }
+
+    /**
+     * @return The column of the image that a column of the full frame is at
+     */
+    public double toImageX(double x) {
+        return (x - this.x) / scaleX;
+    }
+
+    /**
+     * @return The row of the image that a row of the full frame is at
+     */
+    public double toImageY(double y) {
+        return (y - this.y) / scaleY;
+    }
+
+    /**
+     * @return A distance in the full frame, in pixels of the image
+     * @see #toFrameLength(double)
+     */
+    public double toImageLength(double length) {
+        return length * 2 / (scaleX + scaleY);
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    /**
+     * @return How many columns of the full frame each column of the image is.  This is more than 1 if the frame was
+     * shrunk before being processed.
+     */
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    /**
+     * @return How many rows of the full frame each row of the image is
+     * @see #getScaleX()
+     */
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    /**
+     * @return true if each pixel of the image is a pixel of the full frame, so the image wasn't shrunk
+     */
+    public boolean isFullScale() {
+        return scaleX == 1.0 && scaleY == 1.0;
+    }
+
+    /**
+     * @return true if an image of the given size could be this region.  A region only describes where an image is if
+     * it's the same size as the image.
+     */
+    public boolean fits(int width, int height) {
+        return Math.round(this.width / scaleX) == width && Math.round(this.height / scaleY) == height;
+    }
+
+    /**
+     * @return true if this region is the whole frame at its full size, so coordinates in it don't need to be translated
+     */
+    public boolean isWholeFrame() {
+        return x == 0 && y == 0 && width == frameWidth && height == frameHeight && isFullScale();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Region)) {
+            return false;
+        }
+        final Region region = (Region) o;
+        return x == region.x && y == region.y && width == region.width && height == region.height
+                && frameWidth == region.frameWidth && frameHeight == region.frameHeight
+                && Double.compare(scaleX, region.scaleX) == 0 && Double.compare(scaleY, region.scaleY) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(x, y, width, height, frameWidth, frameHeight, scaleX, scaleY);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("x", x)
+                .add("y", y)
+                .add("width", width)
+                .add("height", height)
+                .add("frameWidth", frameWidth)
+                .add("frameHeight", frameHeight)
+                .add("scaleX", scaleX)
+                .add("scaleY", scaleY)
+                .toString();
+    }
+}
@@ -6,12 +6,13 @@ import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import edu.wpi.grip.core.events.ConnectionAddedEvent;
 import edu.wpi.grip.core.events.ConnectionRemovedEvent;
-import edu.wpi.grip.core.events.SocketChangedEvent;
 import edu.wpi.grip.core.events.SocketConnectedChangedEvent;
 
-import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -20,6 +21,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * A Socket is an abstract wrapper for a value that can be updated and passed around operations.  Sockets contain a set of hints
  * about the data they contain, as well as an actual value.
  * <p>
+ * When the value changes, it is passed directly to the connected sockets and the step that owns the socket.  Observers
+ * such as the GUI are notified separately, at a limited rate, with a
+ * {@link edu.wpi.grip.core.events.SocketChangedEvent} (see {@link #pollChanged()}).
+ * <p>
+ * The value is kept in a lock-free holder along with a sequence number, so reading a socket never blocks the thread
+ * that's writing it.  Readers that need to know if a value was changed while they were using it (for example, while
+ * converting a {@link org.bytedeco.javacpp.opencv_core.Mat} for display) can take a {@link #snapshot()}.
+ * <p>
  * Sockets that are given to operations are {@link InputSocket InputSockets}, and sockets that operations store their
  * results are {@link OutputSocket OutputSockets}.
  *
@@ -32,9 +41,60 @@ public abstract class Socket<T> {
     private Optional<Step> step = Optional.empty();
     private Optional<Source> source = Optional.empty();
     private final Direction direction;
-    private final Set<Connection> connections = new HashSet<>();
+    private final Set<Connection<?>> connections = new CopyOnWriteArraySet<>();
     private final SocketHint<T> socketHint;
-    private Optional<? extends T> value;
+    private final AtomicReference<Snapshot<T>> current;
+    private final AtomicBoolean changed = new AtomicBoolean(false);
+    private volatile Optional<FrameInfo> frameInfo = Optional.empty();
+    private volatile Optional<Region> region = Optional.empty();
+
+    /**
+     * An immutable view of the value of a socket at one point in time.
+     * <p>
+     * Each snapshot has a sequence number, which works like a seqlock: it's even when the value is stable, and odd
+     * while a {@link Step} is writing new results into it in place.  A reader can check {@link #isCurrent()} after
+     * it's done with the value to find out if it read something that was being written or has since been replaced.
+     *
+     * @param <T> The type of the value
+     */
+    public static final class Snapshot<T> {
+        private final Socket<T> socket;
+        private final Optional<T> value;
+        private final long sequence;
+
+        private Snapshot(Socket<T> socket, Optional<T> value, long sequence) {
+            this.socket = socket;
+            this.value = value;
+            this.sequence = sequence;
+        }
+
+        public Optional<T> getValue() {
+            return value;
+        }
+
+        /**
+         * @return The {@link Socket#getVersion() version} of the socket when this snapshot was taken
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return true if nothing was writing to the value when the snapshot was taken, and the socket hasn't
+         * changed since.  If this is false, anything read from the value might be torn or out of date.
+         */
+        public boolean isCurrent() {
+            return sequence % 2 == 0 && socket.getVersion() == sequence;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("value", value)
+                    .add("sequence", sequence)
+                    .toString();
+        }
+    }
 
 
     /**
@@ -45,7 +105,7 @@ public abstract class Socket<T> {
     public Socket(EventBus eventBus, SocketHint<T> socketHint, Direction direction) {
         this.eventBus = checkNotNull(eventBus, "EventBus can not be null");
         this.socketHint = checkNotNull(socketHint, "Socket Hint can not be null");
-        this.value = socketHint.createInitialValue();
+        this.current = new AtomicReference<>(new Snapshot<>(this, socketHint.createInitialValue(), 0));
         this.direction = checkNotNull(direction, "Direction can not be null");
     }
 
@@ -57,21 +117,177 @@ public abstract class Socket<T> {
     }
 
     /**
-     * Set the value of the socket using an {@link Optional}, and fire off a {@link edu.wpi.grip.core.events.SocketChangedEvent}.
+     * Set the value of the socket using an {@link Optional}, and pass it on to anything that depends on this socket.
      *
      * @param optionalValue The optional value to assign this socket to.
      */
-    public synchronized void setValueOptional(Optional<? extends T> optionalValue) {
+    @SuppressWarnings("unchecked")
+    public void setValueOptional(Optional<? extends T> optionalValue) {
         checkNotNull(optionalValue, "The optional value can not be null");
         if (optionalValue.isPresent()) {
             getSocketHint().getType().cast(optionalValue.get());
         }
-        this.value = optionalValue;
-        eventBus.post(new SocketChangedEvent(this));
+        Snapshot<T> previous;
+        do {
+            previous = current.get();
+            if (previous.sequence % 2 == 0 && isSameValue(previous.value, optionalValue)) {
+                // Setting a socket to the value it already has is common (a slider that's released where it
+                // started, or a source that reloads the same file), and it shouldn't cause anything to run again.
+                return;
+            }
+        } while (!current.compareAndSet(previous,
+                new Snapshot<>(this, (Optional<T>) optionalValue, nextStableSequence(previous.sequence))));
+        changed.set(true);
+        onValueChanged();
+    }
+
+    /**
+     * Mark the value as being written in place, so that any {@link Snapshot} taken until the next time the value is
+     * set is not {@link Snapshot#isCurrent() current}.  This is used by {@link Step} before performing, since most
+     * operations write their results into the {@link org.bytedeco.javacpp.opencv_core.Mat Mats} that are already in
+     * their output sockets.
+     */
+    void beginUpdate() {
+        Snapshot<T> previous;
+        do {
+            previous = current.get();
+            if (previous.sequence % 2 != 0) {
+                return;
+            }
+        } while (!current.compareAndSet(previous, new Snapshot<>(this, previous.value, previous.sequence + 1)));
     }
 
     /**
-     * Set the value of the socket, and fire off a {@link edu.wpi.grip.core.events.SocketChangedEvent}.
+     * Finish an update started by {@link #beginUpdate()} if the value wasn't set in the meantime, without notifying
+     * anything.
+     */
+    void endUpdate() {
+        Snapshot<T> previous;
+        do {
+            previous = current.get();
+            if (previous.sequence % 2 == 0) {
+                return;
+            }
+        } while (!current.compareAndSet(previous, new Snapshot<>(this, previous.value, previous.sequence + 1)));
+    }
+
+    private static long nextStableSequence(long sequence) {
+        return (sequence | 1) + 1;
+    }
+
+    /**
+     * @return true if the new value is known to be the same as the old one.  Mutable values like {@link
+     * org.bytedeco.javacpp.opencv_core.Mat Mats} and lists are often changed in place and then set again, so setting
+     * a socket to the same instance of anything but an immutable value always counts as a change.
+     */
+    private static boolean isSameValue(Optional<?> oldValue, Optional<?> newValue) {
+        if (!oldValue.isPresent() || !newValue.isPresent()) {
+            return !oldValue.isPresent() && !newValue.isPresent();
+        }
+        final Object oldObject = oldValue.get();
+        final Object newObject = newValue.get();
+        if (oldObject == newObject) {
+            return oldObject instanceof Number || oldObject instanceof Boolean || oldObject instanceof String
+                    || oldObject instanceof Enum;
+        }
+        return oldObject.equals(newObject);
+    }
+
+    /**
+     * @return The camera frame that the current value was computed from, if it came from a source that captures
+     * frames
+     */
+    public Optional<FrameInfo> getFrameInfo() {
+        return frameInfo;
+    }
+
+    /**
+     * Set which camera frame the value of this socket is computed from.  This should be called before the value is
+     * set, so anything that the value is passed on to sees the new frame.
+     *
+     * @param frameInfo The frame, or empty if the value doesn't come from a camera
+     */
+    public void setFrameInfo(Optional<FrameInfo> frameInfo) {
+        this.frameInfo = checkNotNull(frameInfo, "Frame info can not be null");
+    }
+
+    /**
+     * @return The region of the full frame that the current value was computed from, if it was computed from only part
+     * of the frame
+     */
+    public Optional<Region> getRegion() {
+        return region;
+    }
+
+    /**
+     * Set which region of the full frame the value of this socket is computed from.  Like
+     * {@link #setFrameInfo(Optional)}, this should be called before the value is set.
+     *
+     * @param region The region, or empty if the value was computed from the whole frame
+     */
+    public void setRegion(Optional<Region> region) {
+        this.region = checkNotNull(region, "Region can not be null");
+    }
+
+    /**
+     * @return A number that increases every time the value of this socket changes.  {@link Step} uses this to tell
+     * if its inputs have changed since it last ran.
+     */
+    public long getVersion() {
+        return current.get().sequence;
+    }
+
+    /**
+     * @return The current value of this socket along with its version.  This never blocks, even if another thread is
+     * setting the value at the same time.
+     */
+    public Snapshot<T> snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Called after the value of this socket changes.  Subclasses pass the new value on to the sockets or steps that
+     * depend on it.
+     */
+    protected void onValueChanged() {}
+
+    /**
+     * @return true if the value of this socket has changed since the last time this was called.  This is used to send
+     * {@link edu.wpi.grip.core.events.SocketChangedEvent SocketChangedEvents} to observers at a limited rate, instead
+     * of on every change.
+     */
+    public boolean pollChanged() {
+        return changed.getAndSet(false);
+    }
+
+    /**
+     * Send a {@link edu.wpi.grip.core.events.SocketChangedEvent} for this socket the next time changes are sent, even
+     * if the value doesn't change before then.  A new observer uses this to get the current value on the same thread
+     * as every later one.
+     */
+    public void requestChangedEvent() {
+        changed.set(true);
+    }
+
+    /**
+     * Replace the value of the socket without firing off a {@link edu.wpi.grip.core.events.SocketChangedEvent}.
+     * This is only used by {@link Step} to switch between output buffers before it performs, since the new value
+     * will be published by the operation.
+     *
+     * @param optionalValue The optional value to assign this socket to.
+     */
+    @SuppressWarnings("unchecked")
+    void replaceValueSilently(Optional<? extends T> optionalValue) {
+        checkNotNull(optionalValue, "The optional value can not be null");
+        Snapshot<T> previous;
+        do {
+            previous = current.get();
+        } while (!current.compareAndSet(previous,
+                new Snapshot<>(this, (Optional<T>) optionalValue, nextStableSequence(previous.sequence))));
+    }
+
+    /**
+     * Set the value of the socket, and pass it on to anything that depends on this socket.
      *
      * @param value The value to store in this socket. Nullable.
      */
@@ -84,7 +300,7 @@ public abstract class Socket<T> {
      * @return The value currently stored in this socket.
      */
     public Optional<T> getValue() {
-        return (Optional<T>) this.value;
+        return current.get().value;
     }
 
     /**
@@ -131,7 +347,14 @@ public abstract class Socket<T> {
      * @return The set of connections that have this socket as an input or output
      */
     public Set<Connection> getConnections() {
-        return ImmutableSet.copyOf(this.connections);
+        return ImmutableSet.<Connection>copyOf(this.connections);
+    }
+
+    /**
+     * @return The live set of connections, for propagating values without making a copy of the set each time
+     */
+    Set<Connection<?>> getConnectionsDirectly() {
+        return this.connections;
     }
 
     /**
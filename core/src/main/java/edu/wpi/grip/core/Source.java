@@ -1,6 +1,7 @@
 package edu.wpi.grip.core;
 
 import com.google.inject.Inject;
+import edu.wpi.grip.core.metrics.NativeMemory;
 import edu.wpi.grip.core.sources.CameraSource;
 import edu.wpi.grip.core.sources.ImageFileSource;
 import edu.wpi.grip.core.sources.MultiImageFileSource;
@@ -9,15 +10,19 @@ import edu.wpi.grip.core.util.ExceptionWitness;
 import java.io.IOException;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Base class for an input into the pipeline.
  */
 public abstract class Source {
     private final Logger logger = Logger.getLogger(getClass().getName());
     private final ExceptionWitness exceptionWitness;
+    private volatile Optional<Consumer<Source>> pendingUpdateListener = Optional.empty();
 
     public static class SourceFactoryImpl implements SourceFactory {
         @Inject
@@ -69,12 +74,50 @@ public abstract class Source {
 
     protected abstract OutputSocket[] createOutputSockets();
 
+    /**
+     * Publish any values that this source has received since the last time this was called to its output sockets.
+     * <p>
+     * This is called by the {@link PipelineExecutor} at the start of each pass over the pipeline, so sources that
+     * produce values on their own thread (for example, cameras) can hand them off without waiting for the pipeline.
+     * These sources should call {@link #notifyPendingUpdate()} when a new value is ready.  By default this does
+     * nothing.
+     */
+    public void updateOutputSockets() {
+        /* no-op */
+    }
+
+    /**
+     * Tell the pipeline that this source has received a new value that it hasn't published yet, so the pipeline
+     * makes another pass and calls {@link #updateOutputSockets()}.  This only wakes up the {@link PipelineExecutor},
+     * so it's cheap enough to call for every frame from a camera.
+     */
+    protected final void notifyPendingUpdate() {
+        pendingUpdateListener.ifPresent(listener -> listener.accept(this));
+    }
+
+    /**
+     * @param pendingUpdateListener Called by {@link #notifyPendingUpdate()}.  This is used by the
+     *                              {@link PipelineExecutor} to know when to update the sources.
+     */
+    void setPendingUpdateListener(Optional<Consumer<Source>> pendingUpdateListener) {
+        this.pendingUpdateListener = checkNotNull(pendingUpdateListener, "Listener can not be null");
+    }
+
     /**
      * @return A {@link Properties} containing data that can be used to re-create this source.  This is used for
      * serialization/deserialization.
      */
     public abstract Properties getProperties();
 
+    /**
+     * @return An estimate of the native memory held by this source.  By default, this is the memory held by the
+     * values of its output sockets.  Sources that keep other buffers should add those.
+     * @see NativeMemory
+     */
+    public long getNativeMemoryBytes() {
+        return NativeMemory.sizeOf(getOutputSockets());
+    }
+
     protected ExceptionWitness getExceptionWitness() {
         return this.exceptionWitness;
     }
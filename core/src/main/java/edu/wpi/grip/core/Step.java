@@ -1,14 +1,21 @@
 package edu.wpi.grip.core;
 
 import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
-import edu.wpi.grip.core.events.SocketChangedEvent;
+import edu.wpi.grip.core.metrics.LatencyHistogram;
+import edu.wpi.grip.core.metrics.NativeMemory;
 import edu.wpi.grip.core.util.ExceptionWitness;
+import edu.wpi.grip.core.util.MatFingerprint;
+import org.bytedeco.javacpp.opencv_core.Mat;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,12 +23,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * A step is an instance of an operation in a pipeline.  A step contains a list of input and output sockets, and it
- * runs the operation whenever one of the input sockets changes.
+ * runs the operation whenever the {@link PipelineExecutor} finds that one of the input sockets has changed.
  */
 @XStreamAlias(value = "grip:Step")
 public class Step {
     private static final Logger logger = Logger.getLogger(Step.class.getName());
     private static final String MISSING_SOCKET_MESSAGE_END = " must have a value to run this step.";
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private static final boolean cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
 
     private final ExceptionWitness witness;
 
@@ -29,17 +38,49 @@ public class Step {
     private final InputSocket<?>[] inputSockets;
     private final OutputSocket<?>[] outputSockets;
     private final Optional<?> data;
+    private final MatPool matPool;
 
+    /**
+     * The spare value for each {@link Mat} output socket, used by {@link #swapOutputBuffers()}
+     */
+    private final Map<OutputSocket<?>, Object> spareOutputValues = new HashMap<>();
+
+    /**
+     * The {@link Socket#getVersion() version} of each input socket the last time the operation was performed
+     * successfully.  This is only meaningful if {@link #hasPerformed} is true.
+     */
+    private long[] performedInputVersions;
+
+    /**
+     * The versions of the inputs for the current run, kept around so that running a step doesn't allocate anything.
+     * This and {@link #performedInputVersions} trade places after a successful perform.
+     */
+    private long[] currentInputVersions;
+    private boolean hasPerformed = false;
+
+    /**
+     * The {@link MatFingerprint} of each {@link Mat} input the last time the operation was performed successfully.
+     * This is only filled in when image contents are being compared.
+     */
+    private final long[] performedInputFingerprints;
+
+    private volatile Optional<Consumer<Step>> inputChangedListener = Optional.empty();
+
+    private volatile LatencyHistogram wallTime = new LatencyHistogram();
+    private volatile LatencyHistogram cpuTime = new LatencyHistogram();
+    private volatile LatencyHistogram frameLatency = new LatencyHistogram();
 
     @Singleton
     public static class Factory {
         private final EventBus eventBus;
         private final ExceptionWitness.Factory exceptionWitnessFactory;
+        private final MatPool matPool;
 
         @Inject
-        public Factory(EventBus eventBus, ExceptionWitness.Factory exceptionWitnessFactory) {
+        public Factory(EventBus eventBus, ExceptionWitness.Factory exceptionWitnessFactory, MatPool matPool) {
             this.eventBus = eventBus;
             this.exceptionWitnessFactory = exceptionWitnessFactory;
+            this.matPool = matPool;
         }
 
         public Step create(Operation operation) {
@@ -53,9 +94,9 @@ public class Step {
                     inputSockets,
                     outputSockets,
                     operation.createData(),
+                    matPool,
                     exceptionWitnessFactory
             );
-            eventBus.register(step);
             for (Socket<?> socket : inputSockets) {
                 socket.setStep(Optional.of(step));
             }
@@ -63,7 +104,7 @@ public class Step {
                 socket.setStep(Optional.of(step));
             }
 
-            step.runPerformIfPossible();
+            // The step isn't performed here.  The PipelineExecutor runs it once it's added to the pipeline.
             return step;
         }
     }
@@ -73,18 +114,24 @@ public class Step {
      * @param inputSockets            The input sockets from the operation.
      * @param outputSockets           The output sockets provided by the operation.
      * @param data                    The data provided by the operation.
+     * @param matPool                 The pool that the operation can borrow temporary Mats from
      * @param exceptionWitnessFactory A factory used to create an {@link ExceptionWitness}
      */
     Step(Operation operation,
          InputSocket<?>[] inputSockets,
          OutputSocket<?>[] outputSockets,
          Optional<?> data,
+         MatPool matPool,
          ExceptionWitness.Factory exceptionWitnessFactory) {
         this.operation = operation;
         this.inputSockets = inputSockets;
         this.outputSockets = outputSockets;
         this.data = data;
+        this.matPool = matPool;
         this.witness = exceptionWitnessFactory.create(this);
+        this.performedInputVersions = new long[inputSockets.length];
+        this.currentInputVersions = new long[inputSockets.length];
+        this.performedInputFingerprints = new long[inputSockets.length];
     }
 
     /**
@@ -108,6 +155,147 @@ public class Step {
         return outputSockets;
     }
 
+    /**
+     * @return An estimate of the native memory held by this step's outputs and any data that the operation keeps
+     * between frames.  Inputs aren't counted, since they belong to whatever is connected to them.
+     * @see NativeMemory
+     */
+    public long getNativeMemoryBytes() {
+        final long spareBytes;
+        synchronized (this) {
+            spareBytes = NativeMemory.sizeOf(spareOutputValues.values());
+        }
+        return NativeMemory.sizeOf(outputSockets) + NativeMemory.sizeOf(data) + spareBytes;
+    }
+
+    /**
+     * @return How long recent runs of the operation took, in nanoseconds of wall-clock time
+     * @see edu.wpi.grip.core.metrics.PipelineMetrics
+     */
+    public LatencyHistogram getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * @return How much CPU time recent runs of the operation used, in nanoseconds.  This doesn't include work done on
+     * other threads, and it's empty if the JVM can't measure CPU time.
+     * @see edu.wpi.grip.core.metrics.PipelineMetrics
+     */
+    public LatencyHistogram getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * @return How long after its frame was captured each recent run of the operation finished, in nanoseconds.  For a
+     * step that publishes its results, this is the capture-to-publish latency.  This is empty if none of the step's
+     * inputs come from a camera.
+     * @see FrameInfo
+     */
+    public LatencyHistogram getFrameLatency() {
+        return frameLatency;
+    }
+
+    /**
+     * Throw away the step's timings, and keep the ones recorded from now on for the given window.  This is used by
+     * {@link edu.wpi.grip.core.bench.BenchmarkRunner} after warming up, so the timings cover exactly the frames that
+     * are measured.
+     *
+     * @param windowNanos About how long to keep each timing for
+     * @see LatencyHistogram#UNBOUNDED_WINDOW_NANOS
+     */
+    public void resetTimings(long windowNanos) {
+        wallTime = new LatencyHistogram(windowNanos);
+        cpuTime = new LatencyHistogram(windowNanos);
+        frameLatency = new LatencyHistogram(windowNanos);
+    }
+
+    /**
+     * @return The data from {@link Operation#createData()}, for running the operation as part of {@link FusedSteps}
+     */
+    Optional<?> getData() {
+        return data;
+    }
+
+    MatPool getMatPool() {
+        return matPool;
+    }
+
+    /**
+     * Read the versions of the inputs before the step runs as part of {@link FusedSteps}, the same way
+     * {@link #runPerformIfPossible} does before performing the operation.
+     *
+     * @param compareImageContents If true, an image input that was set again but still has the same pixels doesn't
+     *                             count as a change
+     * @return true if any input has changed since the last successful perform
+     * @see #recordPerformedInputs()
+     */
+    synchronized boolean readInputVersions(boolean compareImageContents) {
+        readCurrentInputVersions();
+        return haveInputsChanged(compareImageContents);
+    }
+
+    /**
+     * Remember the inputs from {@link #readInputVersions(boolean)} as the ones that the operation was last performed
+     * with, after the step ran successfully as part of {@link FusedSteps}.
+     */
+    synchronized void recordPerformedInputs() {
+        recordPerformedInputVersions();
+    }
+
+    /**
+     * Make the next {@link #runPerformIfPossible} perform the operation even if the inputs haven't changed.  This is
+     * used when a step couldn't run as part of {@link FusedSteps}, or stops being part of one, since a step in a group
+     * doesn't set its outputs the way performing the operation on its own would.
+     */
+    synchronized void forgetPerformedInputs() {
+        hasPerformed = false;
+    }
+
+    /**
+     * Clear any error from the last time the operation failed, after it ran successfully as part of
+     * {@link FusedSteps}.
+     */
+    void clearException() {
+        witness.clearException();
+    }
+
+    /**
+     * @param inputChangedListener Called whenever the value of one of this step's input sockets changes.  This is used
+     *                             by the {@link PipelineExecutor} to keep track of which steps need to run.
+     */
+    void setInputChangedListener(Optional<Consumer<Step>> inputChangedListener) {
+        this.inputChangedListener = checkNotNull(inputChangedListener, "Listener can not be null");
+    }
+
+    /**
+     * Called by the {@link InputSocket InputSockets} of this step when their values change.
+     */
+    void onInputChanged() {
+        inputChangedListener.ifPresent(listener -> listener.accept(this));
+    }
+
+    /**
+     * Keep the values of this step's inputs from changing until {@link #releaseInputs()} is called.
+     *
+     * @see InputSocket#hold()
+     */
+    void holdInputs() {
+        for (InputSocket<?> inputSocket : inputSockets) {
+            inputSocket.hold();
+        }
+    }
+
+    /**
+     * Apply any input values that were set while the inputs were held.
+     *
+     * @see InputSocket#release()
+     */
+    void releaseInputs() {
+        for (InputSocket<?> inputSocket : inputSockets) {
+            inputSocket.release();
+        }
+    }
+
     /**
      * Resets all {@link OutputSocket OutputSockets} to their initial value.
      * Should only be used by {@link Step#runPerformIfPossible()}
@@ -118,12 +306,69 @@ public class Step {
         }
     }
 
+    /**
+     * Switch each {@link Mat} output socket to its spare buffer, keeping the current one as the new spare.
+     * <p>
+     * In pipelined execution, a step can start on the next frame while the steps after it are still reading its
+     * output from the previous frame.  Writing into the other buffer keeps the step from overwriting a Mat that
+     * another thread is reading.
+     */
+    synchronized void swapOutputBuffers() {
+        for (OutputSocket<?> outputSocket : outputSockets) {
+            if (Mat.class.equals(outputSocket.getSocketHint().getType())) {
+                swapOutputBuffer(outputSocket);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void swapOutputBuffer(OutputSocket<T> outputSocket) {
+        final Optional<T> current = outputSocket.getValue();
+        final Optional<T> spare = spareOutputValues.containsKey(outputSocket)
+                ? Optional.of((T) spareOutputValues.get(outputSocket))
+                : outputSocket.getSocketHint().createInitialValue();
+
+        if (current.isPresent() && spare.isPresent() && current.get() != spare.get()) {
+            spareOutputValues.put(outputSocket, current.get());
+            outputSocket.replaceValueSilently(spare);
+        }
+    }
+
+    /**
+     * Run the operation without switching output buffers or comparing image contents.
+     *
+     * @see #runPerformIfPossible(boolean, boolean)
+     */
+    synchronized void runPerformIfPossible() {
+        runPerformIfPossible(false, false);
+    }
+
     /**
      * The {@link Operation#perform} method should only be called if all {@link InputSocket#getValue()} are not empty.
      * If one input is invalid then the perform method will not run and all output sockets will be assigned to their
      * default values.
+     * <p>
+     * If none of the inputs have changed since the last successful perform, the operation isn't run again.  Since the
+     * outputs aren't set, nothing downstream runs either.
+     * <p>
+     * This is called by the {@link PipelineExecutor}, which makes sure that a step only runs after the steps that feed
+     * into it.
+     *
+     * @param swapOutputBuffers    If true, {@link #swapOutputBuffers()} before performing
+     * @param compareImageContents If true, an image input that was set again but still has the same pixels (according
+     *                             to {@link MatFingerprint}) doesn't count as a change.
      */
-    private synchronized void runPerformIfPossible() {
+    synchronized void runPerformIfPossible(boolean swapOutputBuffers, boolean compareImageContents) {
+        // Read the versions before the values, so a change that happens while the operation is running is never
+        // mistaken for one that was already handled.
+        readCurrentInputVersions();
+        if (!haveInputsChanged(compareImageContents)) {
+            // Nothing really changed, so the versions that were set again are already handled
+            recordPerformedInputVersions();
+            return;
+        }
+        hasPerformed = false;
+
         for (InputSocket<?> inputSocket : inputSockets) {
             // If there is a socket that isn't present then we have a problem.
             if (!inputSocket.getValue().isPresent()) {
@@ -133,8 +378,25 @@ public class Step {
             }
         }
 
+        if (swapOutputBuffers) {
+            swapOutputBuffers();
+        }
+
+        // Operations usually write into the values already in the output sockets, so let anything reading them
+        // know that they're being changed.  The outputs are tagged with the frame they come from before the
+        // operation sets them, so the frame is passed on along with the values.  The region of the frame is passed
+        // on too, unless the operation sets a different one.
+        final Optional<FrameInfo> frameInfo = getOldestInputFrame();
+        final Optional<Region> region = getInputRegion();
+        for (OutputSocket<?> outputSocket : outputSockets) {
+            outputSocket.beginUpdate();
+            outputSocket.setFrameInfo(frameInfo);
+            outputSocket.setRegion(region);
+        }
+        final long startCpuTime = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+        final long startTime = System.nanoTime();
         try {
-            this.operation.perform(inputSockets, outputSockets, data);
+            this.operation.perform(inputSockets, outputSockets, data, matPool);
         } catch (RuntimeException e) {
             // We do not want to catch all exceptions, only runtime exceptions.
             // This is especially important when it comes to InterruptedExceptions
@@ -143,17 +405,86 @@ public class Step {
             witness.flagException(e, operationFailedMessage);
             resetOutputSockets();
             return;
+        } finally {
+            final long endTime = System.nanoTime();
+            wallTime.record(endTime - startTime, endTime);
+            if (frameInfo.isPresent()) {
+                frameLatency.record(endTime - frameInfo.get().getCaptureNanos(), endTime);
+            }
+            if (cpuTimeSupported) {
+                cpuTime.record(threadMXBean.getCurrentThreadCpuTime() - startCpuTime, endTime);
+            }
+            for (OutputSocket<?> outputSocket : outputSockets) {
+                outputSocket.endUpdate();
+            }
         }
         witness.clearException();
+        recordPerformedInputVersions();
     }
 
-    @Subscribe
-    public void onInputSocketChanged(SocketChangedEvent e) {
-        final Socket<?> socket = e.getSocket();
+    /**
+     * @return The frame of the oldest input that came from a camera.  A result is only as recent as the oldest data it
+     * was computed from.
+     */
+    private Optional<FrameInfo> getOldestInputFrame() {
+        Optional<FrameInfo> oldest = Optional.empty();
+        for (InputSocket<?> inputSocket : inputSockets) {
+            final Optional<FrameInfo> frameInfo = inputSocket.getFrameInfo();
+            if (frameInfo.isPresent() && (!oldest.isPresent()
+                    || frameInfo.get().getCaptureNanos() < oldest.get().getCaptureNanos())) {
+                oldest = frameInfo;
+            }
+        }
+        return oldest;
+    }
 
-        // If this socket that changed is one of the inputs to this step, run the operation with the new value.
-        if (socket.getStep().equals(Optional.of(this)) && socket.getDirection().equals(Socket.Direction.INPUT)) {
-            runPerformIfPossible();
+    /**
+     * @return The region of the frame that the first input computed from part of a frame came from.  All of the images
+     * that go into a step should come from the same region.
+     */
+    private Optional<Region> getInputRegion() {
+        for (InputSocket<?> inputSocket : inputSockets) {
+            if (inputSocket.getRegion().isPresent()) {
+                return inputSocket.getRegion();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void readCurrentInputVersions() {
+        for (int i = 0; i < inputSockets.length; i++) {
+            currentInputVersions[i] = inputSockets[i].getVersion();
+        }
+    }
+
+    private void recordPerformedInputVersions() {
+        final long[] previous = performedInputVersions;
+        performedInputVersions = currentInputVersions;
+        currentInputVersions = previous;
+        hasPerformed = true;
+    }
+
+    /**
+     * @return true if any input has changed since the last successful perform.  When comparing image contents, this
+     * also updates the saved fingerprints of any images that were set again.
+     */
+    private boolean haveInputsChanged(boolean compareImageContents) {
+        boolean changed = false;
+        for (int i = 0; i < inputSockets.length; i++) {
+            if (hasPerformed && performedInputVersions[i] == currentInputVersions[i]) {
+                continue;
+            }
+
+            final Optional<?> value = inputSockets[i].getValue();
+            if (compareImageContents && value.isPresent() && value.get() instanceof Mat) {
+                final long fingerprint = MatFingerprint.of((Mat) value.get());
+                if (hasPerformed && performedInputFingerprints[i] == fingerprint) {
+                    continue;
+                }
+                performedInputFingerprints[i] = fingerprint;
+            }
+            changed = true;
         }
+        return changed;
     }
 }
@@ -0,0 +1,132 @@
+package edu.wpi.grip.core;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An immutable snapshot of the dependencies between the steps in a {@link Pipeline}.  One step depends on another if
+ * any of its input sockets is connected to an output socket of the other step.
+ * <p>
+ * Steps that don't depend on each other, either directly or indirectly, are independent branches of the pipeline and
+ * can be run at the same time.
+ *
+ * @see Pipeline#getStepGraph()
+ */
+public class StepGraph {
+    private final ImmutableList<Step> steps;
+    private final ImmutableSetMultimap<Step, Step> upstreamSteps;
+    private final ImmutableSetMultimap<Step, Step> downstreamSteps;
+    private final ImmutableSet<Step> sourceConsumers;
+
+    /**
+     * @param steps       The steps in the pipeline, in the order that they appear in the pipeline
+     * @param connections The connections in the pipeline.  Connections to or from sources are ignored.
+     */
+    StepGraph(List<Step> steps, Collection<? extends Connection<?>> connections) {
+        checkNotNull(steps, "Steps can not be null");
+        checkNotNull(connections, "Connections can not be null");
+
+        final ImmutableSetMultimap.Builder<Step, Step> upstreamBuilder = ImmutableSetMultimap.builder();
+        final ImmutableSet.Builder<Step> sourceConsumersBuilder = ImmutableSet.builder();
+        for (Connection<?> connection : connections) {
+            final Optional<Step> outputStep = connection.getOutputSocket().getStep();
+            final Optional<Step> inputStep = connection.getInputSocket().getStep();
+            if (!inputStep.isPresent() || !steps.contains(inputStep.get())) {
+                continue;
+            }
+
+            if (outputStep.isPresent() && steps.contains(outputStep.get())) {
+                upstreamBuilder.put(inputStep.get(), outputStep.get());
+            } else if (connection.getOutputSocket().getSource().isPresent()) {
+                sourceConsumersBuilder.add(inputStep.get());
+            }
+        }
+
+        this.upstreamSteps = upstreamBuilder.build();
+        this.steps = sortTopologically(steps, upstreamSteps);
+        this.downstreamSteps = upstreamSteps.inverse();
+        this.sourceConsumers = sourceConsumersBuilder.build();
+    }
+
+    /**
+     * Order the steps so that every step comes after all of the steps that it depends on.  Connections are only made
+     * forwards, but {@link Pipeline#moveStep} can move a step in front of a step that it depends on, so the order of
+     * the pipeline can't be trusted on its own.  Otherwise, steps keep their order in the pipeline.
+     */
+    private static ImmutableList<Step> sortTopologically(List<Step> steps, ImmutableSetMultimap<Step, Step> upstream) {
+        final List<Step> remaining = new ArrayList<>(steps);
+        final Set<Step> sorted = new HashSet<>();
+        final ImmutableList.Builder<Step> builder = ImmutableList.builder();
+        while (!remaining.isEmpty()) {
+            // A cycle can only come from moving steps around, and has no right order, so it's broken at the first step
+            Step next = remaining.get(0);
+            for (Step step : remaining) {
+                if (sorted.containsAll(upstream.get(step))) {
+                    next = step;
+                    break;
+                }
+            }
+            remaining.remove(next);
+            sorted.add(next);
+            builder.add(next);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return The steps in the pipeline in a topological order: every step comes after all of the steps that it
+     * depends on.  Apart from that, they're in the order that they appear in the pipeline.
+     */
+    public ImmutableList<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return The steps that have an output connected directly to one of the inputs of the given step
+     */
+    public ImmutableSet<Step> getUpstreamSteps(Step step) {
+        return upstreamSteps.get(step);
+    }
+
+    /**
+     * @return The steps that have an input connected directly to one of the outputs of the given step
+     */
+    public ImmutableSet<Step> getDownstreamSteps(Step step) {
+        return downstreamSteps.get(step);
+    }
+
+    /**
+     * @param sinks Steps whose results are needed
+     * @return The given steps and every step that they depend on, directly or indirectly
+     */
+    public ImmutableSet<Step> getStepsFeeding(Collection<Step> sinks) {
+        final Set<Step> steps = new HashSet<>();
+        final Deque<Step> toVisit = new ArrayDeque<>(sinks);
+        while (!toVisit.isEmpty()) {
+            final Step step = toVisit.pop();
+            if (steps.add(step)) {
+                toVisit.addAll(upstreamSteps.get(step));
+            }
+        }
+        return ImmutableSet.copyOf(steps);
+    }
+
+    /**
+     * @return The steps that have an input connected directly to the output of a {@link Source}
+     */
+    public ImmutableSet<Step> getSourceConsumers() {
+        return sourceConsumers;
+    }
+}
@@ -0,0 +1,172 @@
+package edu.wpi.grip.core.bench;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.File;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The command line options for running a project as a benchmark.
+ *
+ * @see BenchmarkRunner
+ */
+public final class BenchmarkOptions {
+    public static final String USAGE = "Usage: GRIP.jar bench project.grip (--images <directory> | --video <file>) "
+            + "[--frames <count>] [--warmup <count>] [--rate <frames per second>] [--json <file>]";
+
+    public static final int DEFAULT_FRAMES = 1000;
+    public static final int DEFAULT_WARMUP_FRAMES = 100;
+
+    private final File projectFile;
+    private final Optional<File> imageDirectory;
+    private final Optional<File> videoFile;
+    private final int frames;
+    private final int warmupFrames;
+    private final double frameRate;
+    private final Optional<File> jsonFile;
+
+    private BenchmarkOptions(File projectFile, Optional<File> imageDirectory, Optional<File> videoFile, int frames,
+                             int warmupFrames, double frameRate, Optional<File> jsonFile) {
+        this.projectFile = checkNotNull(projectFile, "A project file is required");
+        this.imageDirectory = imageDirectory;
+        this.videoFile = videoFile;
+        this.frames = frames;
+        this.warmupFrames = warmupFrames;
+        this.frameRate = frameRate;
+        this.jsonFile = jsonFile;
+    }
+
+    /**
+     * @param args The arguments that came after <code>bench</code> on the command line
+     * @throws IllegalArgumentException If the arguments aren't valid.  The message says what's wrong with them.
+     */
+    public static BenchmarkOptions parse(String... args) {
+        File projectFile = null;
+        Optional<File> imageDirectory = Optional.empty();
+        Optional<File> videoFile = Optional.empty();
+        int frames = DEFAULT_FRAMES;
+        int warmupFrames = DEFAULT_WARMUP_FRAMES;
+        double frameRate = 0;
+        Optional<File> jsonFile = Optional.empty();
+
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if (!arg.startsWith("--")) {
+                checkArgument(projectFile == null, "Only one project can be benchmarked at a time");
+                projectFile = new File(arg);
+                continue;
+            }
+
+            checkArgument(i + 1 < args.length, "%s needs a value", arg);
+            final String value = args[++i];
+            switch (arg) {
+                case "--images":
+                    imageDirectory = Optional.of(new File(value));
+                    break;
+                case "--video":
+                    videoFile = Optional.of(new File(value));
+                    break;
+                case "--frames":
+                    frames = parseInt(arg, value);
+                    checkArgument(frames > 0, "There must be at least one frame");
+                    break;
+                case "--warmup":
+                    warmupFrames = parseInt(arg, value);
+                    checkArgument(warmupFrames >= 0, "The number of warm-up frames cannot be negative");
+                    break;
+                case "--rate":
+                    frameRate = parseDouble(arg, value);
+                    checkArgument(frameRate >= 0, "The frame rate cannot be negative");
+                    break;
+                case "--json":
+                    jsonFile = Optional.of(new File(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        checkArgument(projectFile != null, "A project file is required");
+        checkArgument(imageDirectory.isPresent() != videoFile.isPresent(),
+                "Either a directory of images or a video file is required, but not both");
+        return new BenchmarkOptions(projectFile, imageDirectory, videoFile, frames, warmupFrames, frameRate, jsonFile);
+    }
+
+    private static int parseInt(String option, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " needs a whole number, not " + value, e);
+        }
+    }
+
+    private static double parseDouble(String option, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " needs a number, not " + value, e);
+        }
+    }
+
+    public File getProjectFile() {
+        return projectFile;
+    }
+
+    /**
+     * @return A directory of images to replay in place of the project's sources
+     */
+    public Optional<File> getImageDirectory() {
+        return imageDirectory;
+    }
+
+    /**
+     * @return A recorded video to replay in place of the project's sources
+     */
+    public Optional<File> getVideoFile() {
+        return videoFile;
+    }
+
+    /**
+     * @return The number of frames to measure
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return The number of frames to run before measuring, so the JIT compiler and the pools have settled down
+     */
+    public int getWarmupFrames() {
+        return warmupFrames;
+    }
+
+    /**
+     * @return The rate to run frames at, or 0 to run them as fast as possible
+     */
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * @return A file to write the report to as JSON
+     */
+    public Optional<File> getJsonFile() {
+        return jsonFile;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("projectFile", projectFile)
+                .add("imageDirectory", imageDirectory)
+                .add("videoFile", videoFile)
+                .add("frames", frames)
+                .add("warmupFrames", warmupFrames)
+                .add("frameRate", frameRate)
+                .add("jsonFile", jsonFile)
+                .toString();
+    }
+}
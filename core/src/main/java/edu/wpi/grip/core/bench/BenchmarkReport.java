@@ -0,0 +1,217 @@
+package edu.wpi.grip.core.bench;
+
+import com.google.common.collect.ImmutableList;
+import edu.wpi.grip.core.metrics.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The results of running a project as a benchmark: how many frames per second it processed, how long each frame
+ * took, which steps the time went to, and how much memory it needed.
+ */
+public final class BenchmarkReport {
+    private final String projectName;
+    private final long durationNanos;
+    private final long[] sortedLatencies;
+    private final ImmutableList<StepReport> steps;
+    private final long peakHeapBytes;
+    private final long peakNativeBytes;
+
+    /**
+     * The time that one step in the pipeline took to run
+     */
+    public static final class StepReport {
+        private final int index;
+        private final String name;
+        private final LatencyHistogram.Summary wallTime;
+        private final LatencyHistogram.Summary cpuTime;
+
+        public StepReport(int index, String name, LatencyHistogram.Summary wallTime, LatencyHistogram.Summary cpuTime) {
+            this.index = index;
+            this.name = checkNotNull(name, "Name can not be null");
+            this.wallTime = checkNotNull(wallTime, "Wall time can not be null");
+            this.cpuTime = checkNotNull(cpuTime, "CPU time can not be null");
+        }
+
+        /**
+         * @return The position of the step in the pipeline
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram.Summary getWallTime() {
+            return wallTime;
+        }
+
+        public LatencyHistogram.Summary getCpuTime() {
+            return cpuTime;
+        }
+    }
+
+    /**
+     * @param latencies       How long each measured frame took, in nanoseconds
+     * @param peakHeapBytes   The most Java heap that was in use while measuring
+     * @param peakNativeBytes The most native memory that steps and sources were holding while measuring
+     */
+    public BenchmarkReport(String projectName, long durationNanos, long[] latencies, ImmutableList<StepReport> steps,
+                           long peakHeapBytes, long peakNativeBytes) {
+        checkArgument(latencies.length > 0, "At least one frame must be measured");
+        this.projectName = checkNotNull(projectName, "Project name can not be null");
+        this.durationNanos = durationNanos;
+        this.sortedLatencies = latencies.clone();
+        Arrays.sort(this.sortedLatencies);
+        this.steps = checkNotNull(steps, "Steps can not be null");
+        this.peakHeapBytes = peakHeapBytes;
+        this.peakNativeBytes = peakNativeBytes;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public int getFrames() {
+        return sortedLatencies.length;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public double getFramesPerSecond() {
+        return getFrames() / (durationNanos / 1e9);
+    }
+
+    /**
+     * @param fraction A fraction of the frames, such as <code>0.95</code>
+     * @return The time that the given fraction of frames were processed within, in nanoseconds
+     */
+    public long getLatencyPercentile(double fraction) {
+        checkArgument(fraction > 0 && fraction <= 1, "The fraction must be greater than 0 and at most 1");
+        final int rank = (int) Math.ceil(fraction * sortedLatencies.length);
+        return sortedLatencies[Math.max(rank, 1) - 1];
+    }
+
+    public long getMeanLatency() {
+        return (long) Arrays.stream(sortedLatencies).average().getAsDouble();
+    }
+
+    public long getMaxLatency() {
+        return sortedLatencies[sortedLatencies.length - 1];
+    }
+
+    /**
+     * @return The time each step took to run.  Steps keep a sliding window of their times, so for a long benchmark,
+     * this only covers the last {@link LatencyHistogram#DEFAULT_WINDOW_NANOS} nanoseconds.
+     */
+    public ImmutableList<StepReport> getSteps() {
+        return steps;
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public long getPeakNativeBytes() {
+        return peakNativeBytes;
+    }
+
+    /**
+     * @return A human-readable summary of the report
+     */
+    public String toText() {
+        final StringBuilder text = new StringBuilder();
+        text.append("Benchmark of ").append(projectName).append('\n')
+                .append(String.format(Locale.ROOT, "  %d frames in %.2f s (%.2f frames per second)%n",
+                        getFrames(), durationNanos / 1e9, getFramesPerSecond()))
+                .append(String.format(Locale.ROOT, "  Frame time: mean %s, p50 %s, p95 %s, p99 %s, max %s%n",
+                        formatMillis(getMeanLatency()), formatMillis(getLatencyPercentile(0.50)),
+                        formatMillis(getLatencyPercentile(0.95)), formatMillis(getLatencyPercentile(0.99)),
+                        formatMillis(getMaxLatency())))
+                .append(String.format(Locale.ROOT, "  Peak memory: %.1f MB heap, %.1f MB native%n",
+                        peakHeapBytes / 1e6, peakNativeBytes / 1e6))
+                .append("  Steps (mean / p95 wall time, mean CPU time, runs):\n");
+        for (StepReport step : steps) {
+            text.append(String.format(Locale.ROOT, "    %d. %s: %s / %s, %s, %d%n", step.getIndex(), step.getName(),
+                    formatMillis(step.getWallTime().getMean()), formatMillis(step.getWallTime().getP95()),
+                    formatMillis(step.getCpuTime().getMean()), step.getWallTime().getCount()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return The report as a JSON object, with every time in milliseconds
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"project\": ").append(quote(projectName)).append(",\n")
+                .append("  \"frames\": ").append(getFrames()).append(",\n")
+                .append("  \"durationMillis\": ").append(millis(durationNanos)).append(",\n")
+                .append("  \"framesPerSecond\": ").append(String.format(Locale.ROOT, "%.3f", getFramesPerSecond()))
+                .append(",\n")
+                .append("  \"frameTimeMillis\": {")
+                .append("\"mean\": ").append(millis(getMeanLatency()))
+                .append(", \"p50\": ").append(millis(getLatencyPercentile(0.50)))
+                .append(", \"p95\": ").append(millis(getLatencyPercentile(0.95)))
+                .append(", \"p99\": ").append(millis(getLatencyPercentile(0.99)))
+                .append(", \"max\": ").append(millis(getMaxLatency())).append("},\n")
+                .append("  \"peakHeapBytes\": ").append(peakHeapBytes).append(",\n")
+                .append("  \"peakNativeBytes\": ").append(peakNativeBytes).append(",\n")
+                .append("  \"steps\": [");
+        for (int i = 0; i < steps.size(); i++) {
+            final StepReport step = steps.get(i);
+            json.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"index\": ").append(step.getIndex())
+                    .append(", \"name\": ").append(quote(step.getName()))
+                    .append(", \"runs\": ").append(step.getWallTime().getCount())
+                    .append(", \"wallTimeMillis\": ").append(toJson(step.getWallTime()))
+                    .append(", \"cpuTimeMillis\": ").append(toJson(step.getCpuTime()))
+                    .append('}');
+        }
+        json.append(steps.isEmpty() ? "]\n" : "\n  ]\n").append("}\n");
+        return json.toString();
+    }
+
+    private static String toJson(LatencyHistogram.Summary summary) {
+        return "{\"mean\": " + millis(summary.getMean())
+                + ", \"p50\": " + millis(summary.getP50())
+                + ", \"p95\": " + millis(summary.getP95())
+                + ", \"p99\": " + millis(summary.getP99())
+                + ", \"max\": " + millis(summary.getMax()) + "}";
+    }
+
+    private static String quote(String string) {
+        final StringBuilder quoted = new StringBuilder("\"");
+        for (char c : string.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f ms", nanos / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
@@ -0,0 +1,193 @@
+package edu.wpi.grip.core.bench;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Inject;
+import edu.wpi.grip.core.Connection;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.PipelineExecutor;
+import edu.wpi.grip.core.Source;
+import edu.wpi.grip.core.Step;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import edu.wpi.grip.core.events.SourceAddedEvent;
+import edu.wpi.grip.core.events.SourceRemovedEvent;
+import edu.wpi.grip.core.metrics.LatencyHistogram;
+import edu.wpi.grip.core.metrics.NativeMemoryMonitor;
+import edu.wpi.grip.core.metrics.PipelineMetrics;
+import edu.wpi.grip.core.serialization.Project;
+import edu.wpi.grip.core.util.ExceptionWitness;
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a project on recorded frames instead of its real sources, and measures how fast it goes.  This is meant for
+ * finding out whether a coprocessor is fast enough for a project before taking it to a competition.
+ * <p>
+ * The frames are loaded into memory before anything is measured, and the pipeline is run on the calling thread, one
+ * frame at a time, so the results aren't affected by the camera, the disk, or the GUI.
+ */
+public class BenchmarkRunner {
+    private static final Logger logger = Logger.getLogger(BenchmarkRunner.class.getName());
+
+    @Inject
+    private Project project;
+    @Inject
+    private Pipeline pipeline;
+    @Inject
+    private PipelineExecutor pipelineExecutor;
+    @Inject
+    private PipelineMetrics pipelineMetrics;
+    @Inject
+    private NativeMemoryMonitor nativeMemoryMonitor;
+    @Inject
+    private EventBus eventBus;
+    @Inject
+    private Connection.Factory<Object> connectionFactory;
+    @Inject
+    private ExceptionWitness.Factory exceptionWitnessFactory;
+
+    /**
+     * Open the project, replace its sources, and run it.  The operations used by the project must already be in the
+     * palette.
+     */
+    public BenchmarkReport run(BenchmarkOptions options) throws IOException {
+        final List<Mat> frames = options.getImageDirectory().isPresent()
+                ? ReplaySource.loadImages(options.getImageDirectory().get())
+                : ReplaySource.loadVideo(options.getVideoFile().get());
+        logger.log(Level.INFO, "Loaded " + frames.size() + " frames to replay");
+
+        project.open(options.getProjectFile());
+        final ReplaySource replaySource = new ReplaySource(eventBus, exceptionWitnessFactory, frames,
+                options.getFrameRate());
+        replaceSources(replaySource);
+
+        // Nothing is previewed, so like in headless mode, only steps that lead to a published result need to run
+        pipelineExecutor.setDemandDriven(true);
+
+        logger.log(Level.INFO, "Warming up with " + options.getWarmupFrames() + " frames");
+        for (int i = 0; i < options.getWarmupFrames(); i++) {
+            replaySource.nextFrame(System.nanoTime());
+            pipelineExecutor.runPipeline();
+        }
+        pipelineExecutor.awaitPipeline();
+
+        // The timings of each step would otherwise include the warm-up, and drop frames from a run longer than their
+        // usual window, so they start over and keep everything that's measured
+        for (Step step : pipeline.getStepGraph().getSteps()) {
+            step.resetTimings(LatencyHistogram.UNBOUNDED_WINDOW_NANOS);
+        }
+
+        logger.log(Level.INFO, "Measuring " + options.getFrames() + " frames");
+        final List<MemoryPoolMXBean> heapPools = getHeapPools();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        final long[] latencies = new long[options.getFrames()];
+        final long periodNanos = options.getFrameRate() > 0
+                ? (long) (TimeUnit.SECONDS.toNanos(1) / options.getFrameRate())
+                : 0;
+        long peakNativeBytes = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < latencies.length; i++) {
+            if (periodNanos > 0) {
+                // Wait until the time the next frame would arrive from a camera at this rate
+                final long arrival = start + i * periodNanos;
+                for (long now = System.nanoTime(); now < arrival; now = System.nanoTime()) {
+                    LockSupport.parkNanos(arrival - now);
+                }
+            }
+
+            final long frameStart = System.nanoTime();
+            replaySource.nextFrame(frameStart);
+            pipelineExecutor.runPipeline();
+            latencies[i] = System.nanoTime() - frameStart;
+
+            peakNativeBytes = Math.max(peakNativeBytes, getNativeMemoryBytes());
+        }
+        pipelineExecutor.awaitPipeline();
+        final long duration = System.nanoTime() - start;
+
+        return new BenchmarkReport(options.getProjectFile().getName(), duration, latencies, getStepReports(),
+                getPeakHeapBytes(heapPools), peakNativeBytes);
+    }
+
+    /**
+     * Remove every source in the pipeline, and connect whatever they were connected to to the socket with the same
+     * index on the replay source.
+     */
+    @SuppressWarnings("unchecked")
+    private void replaceSources(ReplaySource replaySource) {
+        final OutputSocket<?>[] replaySockets = replaySource.getOutputSockets();
+        final List<Connection> connections = ImmutableList.copyOf(pipeline.getConnections());
+        final Map<InputSocket<Object>, OutputSocket<?>> newConnections = new LinkedHashMap<>();
+
+        for (Source source : pipeline.getSources()) {
+            final List<OutputSocket> sourceSockets = Arrays.asList(source.getOutputSockets());
+            for (Connection connection : connections) {
+                final int index = sourceSockets.indexOf(connection.getOutputSocket());
+                if (index < 0) {
+                    continue;
+                }
+                if (index < replaySockets.length) {
+                    newConnections.put(connection.getInputSocket(), replaySockets[index]);
+                } else {
+                    logger.log(Level.WARNING, "The " + sourceSockets.get(index).getSocketHint().getIdentifier()
+                            + " output of " + source.getName() + " can't be replayed, so it won't be connected");
+                }
+            }
+            eventBus.post(new SourceRemovedEvent(source));
+        }
+
+        // The replay source has to be in the pipeline before anything can be connected to it
+        eventBus.post(new SourceAddedEvent(replaySource));
+        newConnections.forEach((inputSocket, outputSocket) ->
+                eventBus.post(new ConnectionAddedEvent(connectionFactory.create(outputSocket, inputSocket))));
+    }
+
+    private ImmutableList<BenchmarkReport.StepReport> getStepReports() {
+        final ImmutableList.Builder<BenchmarkReport.StepReport> steps = ImmutableList.builder();
+        int index = 0;
+        for (Map.Entry<Step, PipelineMetrics.StepTiming> entry : pipelineMetrics.getStepTimings().entrySet()) {
+            steps.add(new BenchmarkReport.StepReport(index++, entry.getKey().getOperation().getName(),
+                    entry.getValue().getWallTime(), entry.getValue().getCpuTime()));
+        }
+        return steps.build();
+    }
+
+    private long getNativeMemoryBytes() {
+        return nativeMemoryMonitor.getStepUsage().values().stream().mapToLong(Long::longValue).sum()
+                + nativeMemoryMonitor.getSourceUsage().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static List<MemoryPoolMXBean> getHeapPools() {
+        final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                heapPools.add(pool);
+            }
+        }
+        return heapPools;
+    }
+
+    /**
+     * @return The sum of the peak usage of each heap pool.  The pools may have peaked at different times, so this is
+     * an upper bound on the real peak.
+     */
+    private static long getPeakHeapBytes(List<MemoryPoolMXBean> heapPools) {
+        return heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+}
@@ -0,0 +1,170 @@
+package edu.wpi.grip.core.bench;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+import edu.wpi.grip.core.FrameInfo;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.SocketHint;
+import edu.wpi.grip.core.SocketHints;
+import edu.wpi.grip.core.Source;
+import edu.wpi.grip.core.util.ExceptionWitness;
+import edu.wpi.grip.core.util.ImageLoadingUtility;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.FrameGrabber;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.bytedeco.javacv.OpenCVFrameGrabber;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A source that plays back frames that were loaded ahead of time, one frame per call to {@link #nextFrame(long)}, so a
+ * benchmark isn't limited by a camera or the disk.
+ * <p>
+ * The outputs match the first outputs of a {@link edu.wpi.grip.core.sources.CameraSource}, so connections from a
+ * camera or image source can be moved to the same socket on this source.
+ */
+public class ReplaySource extends Source {
+    private static final Logger logger = Logger.getLogger(ReplaySource.class.getName());
+
+    private final SocketHint<Mat> imageOutputHint = SocketHints.Outputs.createMatSocketHint("Image");
+    private final SocketHint<Number> frameRateOutputHint = SocketHints.createNumberSocketHint("Frame Rate", 0);
+    private final OutputSocket<Mat> imageOutputSocket;
+    private final OutputSocket<Number> frameRateOutputSocket;
+
+    private final ImmutableList<Mat> frames;
+    private final double frameRate;
+    private volatile long sequenceNumber = 0;
+    private volatile long captureNanos;
+    private long publishedSequenceNumber = 0;
+
+    /**
+     * @param frames    The frames to play back.  After the last one, playback starts over from the first.
+     * @param frameRate The rate that frames are played back at, or 0 if they're played back as fast as possible
+     */
+    public ReplaySource(EventBus eventBus, ExceptionWitness.Factory exceptionWitnessFactory, List<Mat> frames,
+                        double frameRate) {
+        super(exceptionWitnessFactory);
+        checkNotNull(frames, "Frames can not be null");
+        checkArgument(!frames.isEmpty(), "There must be at least one frame to play back");
+        this.frames = ImmutableList.copyOf(frames);
+        this.frameRate = frameRate;
+        this.imageOutputSocket = new OutputSocket<>(eventBus, imageOutputHint);
+        this.frameRateOutputSocket = new OutputSocket<>(eventBus, frameRateOutputHint);
+    }
+
+    /**
+     * Load every image in a directory, in order of their file names.  Files that aren't images are skipped.
+     *
+     * @throws IOException If the directory doesn't contain any images
+     */
+    public static List<Mat> loadImages(File directory) throws IOException {
+        final File[] files = directory.listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException("Could not list the files in " + directory);
+        }
+        Arrays.sort(files);
+
+        final ImmutableList.Builder<Mat> images = ImmutableList.builder();
+        for (File file : files) {
+            final Mat image = new Mat();
+            try {
+                ImageLoadingUtility.loadImage(file.getPath(), image);
+                images.add(image);
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Skipping " + file + " since it isn't an image", e);
+            }
+        }
+
+        final List<Mat> result = images.build();
+        if (result.isEmpty()) {
+            throw new IOException("There are no images in " + directory);
+        }
+        return result;
+    }
+
+    /**
+     * Decode every frame of a recorded video file.  The whole video is kept in memory, so it should be short.
+     *
+     * @throws IOException If the video can't be read, or doesn't have any frames
+     */
+    public static List<Mat> loadVideo(File file) throws IOException {
+        final OpenCVFrameGrabber grabber = new OpenCVFrameGrabber(file);
+        final OpenCVFrameConverter.ToMat convertToMat = new OpenCVFrameConverter.ToMat();
+        final ImmutableList.Builder<Mat> frames = ImmutableList.builder();
+        try {
+            grabber.start();
+            try {
+                Frame frame;
+                while ((frame = grabber.grab()) != null) {
+                    // The converter reuses the same Mat for every frame, so each one has to be copied
+                    frames.add(convertToMat.convert(frame).clone());
+                }
+            } finally {
+                grabber.release();
+            }
+        } catch (FrameGrabber.Exception e) {
+            throw new IOException("Could not read " + file, e);
+        }
+
+        final List<Mat> result = frames.build();
+        if (result.isEmpty()) {
+            throw new IOException("There are no frames in " + file);
+        }
+        return result;
+    }
+
+    /**
+     * Move on to the next frame.  Like a camera, the frame is published the next time the pipeline runs.
+     *
+     * @param captureNanos The value of {@link System#nanoTime()} that the frame should be treated as being captured at
+     */
+    public void nextFrame(long captureNanos) {
+        this.captureNanos = captureNanos;
+        this.sequenceNumber++;
+    }
+
+    @Override
+    public String getName() {
+        return "Replay";
+    }
+
+    @Override
+    protected OutputSocket[] createOutputSockets() {
+        return new OutputSocket[]{imageOutputSocket, frameRateOutputSocket};
+    }
+
+    @Override
+    public Properties getProperties() {
+        return new Properties();
+    }
+
+    @Override
+    public void initialize() {
+        /* no op */
+    }
+
+    @Override
+    public void updateOutputSockets() {
+        final long sequenceNumber = this.sequenceNumber;
+        if (sequenceNumber == publishedSequenceNumber) {
+            return;
+        }
+        publishedSequenceNumber = sequenceNumber;
+
+        final Mat frame = frames.get((int) ((sequenceNumber - 1) % frames.size()));
+        imageOutputSocket.setFrameInfo(Optional.of(new FrameInfo(sequenceNumber, captureNanos)));
+        imageOutputSocket.setValue(frame);
+        frameRateOutputSocket.setValue(frameRate);
+    }
+}
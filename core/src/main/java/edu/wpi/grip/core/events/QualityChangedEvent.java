@@ -0,0 +1,41 @@
+package edu.wpi.grip.core.events;
+
+import com.google.common.base.MoreObjects;
+import edu.wpi.grip.core.QualityController;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * This event is posted by the {@link QualityController} when it changes the quality of processing to keep up with the
+ * target frame rate.
+ */
+public class QualityChangedEvent {
+    private final double scaleFactor;
+    private final boolean skippingUnusedSteps;
+
+    /**
+     * @param scaleFactor         How much further than the project's processing scale images from sources are shrunk
+     * @param skippingUnusedSteps If true, steps whose results aren't used aren't being run
+     */
+    public QualityChangedEvent(double scaleFactor, boolean skippingUnusedSteps) {
+        checkArgument(scaleFactor > 0 && scaleFactor <= 1, "The scale factor must be more than 0 and at most 1");
+        this.scaleFactor = scaleFactor;
+        this.skippingUnusedSteps = skippingUnusedSteps;
+    }
+
+    public double getScaleFactor() {
+        return scaleFactor;
+    }
+
+    public boolean isSkippingUnusedSteps() {
+        return skippingUnusedSteps;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("scaleFactor", scaleFactor)
+                .add("skippingUnusedSteps", skippingUnusedSteps)
+                .toString();
+    }
+}
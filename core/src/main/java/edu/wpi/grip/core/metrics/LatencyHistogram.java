@@ -0,0 +1,213 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A histogram of durations over a sliding window of time.
+ * <p>
+ * Durations are put in fixed, logarithmically sized buckets, with eight buckets for every power of two nanoseconds,
+ * so each percentile is accurate to within about 12%.  The window is split into a few slices, and the oldest slice is
+ * cleared as time moves on, so a summary reflects roughly the last {@link #getWindowNanos()} nanoseconds.
+ * <p>
+ * All of the storage is allocated up front, so {@link #record} never allocates.  It's meant to be called on every
+ * frame.
+ */
+public class LatencyHistogram {
+    public static final long DEFAULT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * A window so long that nothing recorded in it ever expires, for measuring every run over a period of time
+     */
+    public static final long UNBOUNDED_WINDOW_NANOS = Long.MAX_VALUE;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final int SLICES = 5;
+
+    private final long sliceNanos;
+    private final long[][] counts = new long[SLICES][BUCKETS];
+    private final long[] sliceCounts = new long[SLICES];
+    private final long[] sliceSums = new long[SLICES];
+    private final long[] sliceMaxes = new long[SLICES];
+    private final long[] sliceEpochs = new long[SLICES];
+
+    /**
+     * A summary of the durations recorded during the window.  All times are in nanoseconds.
+     */
+    public static final class Summary {
+        public static final Summary EMPTY = new Summary(0, 0, 0, 0, 0, 0);
+
+        private final long count;
+        private final long mean;
+        private final long p50;
+        private final long p95;
+        private final long p99;
+        private final long max;
+
+        private Summary(long count, long mean, long p50, long p95, long p99, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP95() {
+            return p95;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("count", count)
+                    .add("mean", mean)
+                    .add("p50", p50)
+                    .add("p95", p95)
+                    .add("p99", p99)
+                    .add("max", max)
+                    .toString();
+        }
+    }
+
+    public LatencyHistogram() {
+        this(DEFAULT_WINDOW_NANOS);
+    }
+
+    /**
+     * @param windowNanos About how far back in time a {@link #summarize} includes
+     */
+    public LatencyHistogram(long windowNanos) {
+        checkArgument(windowNanos >= SLICES, "The window is too short");
+        this.sliceNanos = windowNanos / SLICES;
+        Arrays.fill(sliceEpochs, Long.MIN_VALUE);
+    }
+
+    public long getWindowNanos() {
+        return sliceNanos * SLICES;
+    }
+
+    /**
+     * @param durationNanos How long something took.  Negative durations are counted as zero.
+     * @param nowNanos      The current value of {@link System#nanoTime()}
+     */
+    public synchronized void record(long durationNanos, long nowNanos) {
+        final long duration = Math.max(durationNanos, 0);
+        final long epoch = Math.floorDiv(nowNanos, sliceNanos);
+        final int slice = (int) Math.floorMod(epoch, (long) SLICES);
+        if (sliceEpochs[slice] != epoch) {
+            // This slice was last used a whole window ago, so it's out of date
+            Arrays.fill(counts[slice], 0);
+            sliceCounts[slice] = 0;
+            sliceSums[slice] = 0;
+            sliceMaxes[slice] = 0;
+            sliceEpochs[slice] = epoch;
+        }
+        counts[slice][bucketOf(duration)]++;
+        sliceCounts[slice]++;
+        sliceSums[slice] += duration;
+        sliceMaxes[slice] = Math.max(sliceMaxes[slice], duration);
+    }
+
+    /**
+     * @param nowNanos The current value of {@link System#nanoTime()}
+     * @return A summary of the durations recorded within the window
+     */
+    public synchronized Summary summarize(long nowNanos) {
+        final long epoch = Math.floorDiv(nowNanos, sliceNanos);
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (int slice = 0; slice < SLICES; slice++) {
+            if (isInWindow(slice, epoch)) {
+                count += sliceCounts[slice];
+                sum += sliceSums[slice];
+                max = Math.max(max, sliceMaxes[slice]);
+            }
+        }
+        if (count == 0) {
+            return Summary.EMPTY;
+        }
+
+        return new Summary(count, sum / count,
+                Math.min(percentile(epoch, count, 0.50), max),
+                Math.min(percentile(epoch, count, 0.95), max),
+                Math.min(percentile(epoch, count, 0.99), max),
+                max);
+    }
+
+    private boolean isInWindow(int slice, long epoch) {
+        return sliceEpochs[slice] > epoch - SLICES && sliceEpochs[slice] <= epoch;
+    }
+
+    /**
+     * @return The upper bound of the bucket that contains the given fraction of the recorded durations
+     */
+    private long percentile(long epoch, long count, double fraction) {
+        final long target = Math.max(1, (long) Math.ceil(count * fraction));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int slice = 0; slice < SLICES; slice++) {
+                if (isInWindow(slice, epoch)) {
+                    seen += counts[slice][bucket];
+                }
+            }
+            if (seen >= target) {
+                return upperBoundOf(bucket);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKETS} each get their own bucket.  Above that, each power of two is split into
+     * {@link #SUB_BUCKETS} equal parts, using the bits right after the highest one.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The largest value that falls in the given bucket
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = bucket % SUB_BUCKETS;
+        final long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
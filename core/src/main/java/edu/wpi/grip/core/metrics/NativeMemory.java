@@ -0,0 +1,71 @@
+package edu.wpi.grip.core.metrics;
+
+import edu.wpi.grip.core.Socket;
+import edu.wpi.grip.core.operations.composite.ContoursReport;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.MatVector;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Estimates how much native (off-heap) memory is held by the values that GRIP passes around.  Heap profilers can't see
+ * this memory, since it's allocated by OpenCV.
+ * <p>
+ * Only memory that a value owns is counted.  For example, a {@link edu.wpi.grip.core.operations.composite.BlobsReport}
+ * keeps a reference to the image the blobs were found in, but that image belongs to the step that produced it, so it
+ * isn't counted again.
+ */
+public final class NativeMemory {
+
+    private NativeMemory() {
+        /* no op */
+    }
+
+    /**
+     * @param value A value from a socket or a step's data.  This can be a {@link Mat}, a {@link MatVector}, a
+     *              {@link ContoursReport}, or an array, {@link Collection}, or {@link Optional} of those.
+     * @return The number of bytes of native memory held by the value, or 0 if it's some other type.
+     */
+    public static long sizeOf(Object value) {
+        if (value instanceof Mat) {
+            final Mat mat = (Mat) value;
+            return mat.isNull() ? 0 : mat.total() * mat.elemSize();
+        } else if (value instanceof MatVector) {
+            final MatVector matVector = (MatVector) value;
+            long size = 0;
+            for (long i = 0; i < matVector.size(); i++) {
+                size += sizeOf(matVector.get(i));
+            }
+            return size;
+        } else if (value instanceof ContoursReport) {
+            return sizeOf(((ContoursReport) value).getContours());
+        } else if (value instanceof Optional) {
+            return ((Optional<?>) value).map(NativeMemory::sizeOf).orElse(0L);
+        } else if (value instanceof Object[]) {
+            long size = 0;
+            for (Object element : (Object[]) value) {
+                size += sizeOf(element);
+            }
+            return size;
+        } else if (value instanceof Collection) {
+            long size = 0;
+            for (Object element : (Collection<?>) value) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    /**
+     * @return The total native memory held by the current values of the given sockets
+     */
+    public static long sizeOf(Socket<?>... sockets) {
+        long size = 0;
+        for (Socket<?> socket : sockets) {
+            size += sizeOf(socket.getValue());
+        }
+        return size;
+    }
+}
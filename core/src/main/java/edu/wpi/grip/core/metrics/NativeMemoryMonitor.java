@@ -0,0 +1,143 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.Source;
+import edu.wpi.grip.core.Step;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Keeps track of how much native memory each {@link Step} and {@link Source} in the pipeline is holding, so that the
+ * steps that use the most memory on an embedded device can be found.
+ * <p>
+ * The current usage can be read at any time with {@link #getStepUsage()} and {@link #getSourceUsage()}.  Once
+ * {@link #start(long, TimeUnit)} is called, a summary is also logged periodically, including the largest amount each
+ * step has held since then.
+ */
+@Singleton
+public class NativeMemoryMonitor {
+    private static final Logger logger = Logger.getLogger(NativeMemoryMonitor.class.getName());
+
+    /**
+     * How many steps and sources are listed in each log summary
+     */
+    private static final int SUMMARY_LENGTH = 5;
+
+    private final Pipeline pipeline;
+    private final Map<Object, Long> peakUsage = new WeakHashMap<>();
+    private Optional<ScheduledExecutorService> executor = Optional.empty();
+
+    @Inject
+    NativeMemoryMonitor(Pipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * @return The number of bytes of native memory held by each step in the pipeline, in the order that they run
+     */
+    public ImmutableMap<Step, Long> getStepUsage() {
+        final ImmutableMap.Builder<Step, Long> usage = ImmutableMap.builder();
+        // The step graph is an immutable snapshot, so the steps can be read from this thread
+        pipeline.getStepGraph().getSteps()
+                .forEach(step -> usage.put(step, recordPeak(step, step.getNativeMemoryBytes())));
+        return usage.build();
+    }
+
+    /**
+     * @return The number of bytes of native memory held by each source in the pipeline
+     */
+    public ImmutableMap<Source, Long> getSourceUsage() {
+        final ImmutableMap.Builder<Source, Long> usage = ImmutableMap.builder();
+        pipeline.getSources().forEach(source -> usage.put(source, recordPeak(source, source.getNativeMemoryBytes())));
+        return usage.build();
+    }
+
+    /**
+     * @return The largest number of bytes that the given step or source has been seen to hold
+     */
+    public synchronized long getPeakUsage(Object stepOrSource) {
+        return peakUsage.getOrDefault(stepOrSource, 0L);
+    }
+
+    private synchronized long recordPeak(Object stepOrSource, long bytes) {
+        peakUsage.merge(stepOrSource, bytes, Math::max);
+        return bytes;
+    }
+
+    /**
+     * Start logging a summary of native memory use every <code>period</code>.
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        checkState(!executor.isPresent(), "The monitor is already started");
+        checkArgument(period > 0, "The period must be positive");
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Native Memory Monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::logSummary, period, period, unit);
+        this.executor = Optional.of(executor);
+    }
+
+    public synchronized void stop() {
+        executor.ifPresent(ScheduledExecutorService::shutdownNow);
+        executor = Optional.empty();
+    }
+
+    /**
+     * Log the total native memory held by the pipeline, along with the steps and sources that hold the most
+     */
+    public void logSummary() {
+        try {
+            final Map<Step, Long> stepUsage = getStepUsage();
+            final Map<Source, Long> sourceUsage = getSourceUsage();
+            final long total = stepUsage.values().stream().mapToLong(Long::longValue).sum()
+                    + sourceUsage.values().stream().mapToLong(Long::longValue).sum();
+
+            final StringBuilder summary = new StringBuilder("Native memory held by the pipeline: ")
+                    .append(formatBytes(total));
+            sourceUsage.entrySet().stream()
+                    .sorted(Map.Entry.<Source, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(SUMMARY_LENGTH)
+                    .forEach(entry -> appendLine(summary, entry.getKey().getName(), entry.getKey(), entry.getValue()));
+            stepUsage.entrySet().stream()
+                    .sorted(Map.Entry.<Step, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(SUMMARY_LENGTH)
+                    .forEach(entry -> appendLine(summary, entry.getKey().getOperation().getName(), entry.getKey(),
+                            entry.getValue()));
+            logger.log(Level.INFO, summary.toString());
+        } catch (RuntimeException e) {
+            // Don't let a problem reading one step stop future summaries from being logged
+            logger.log(Level.WARNING, "Could not summarize native memory use", e);
+        }
+    }
+
+    private void appendLine(StringBuilder summary, String name, Object stepOrSource, long bytes) {
+        summary.append("\n    ").append(name).append(": ").append(formatBytes(bytes))
+                .append(" (peak ").append(formatBytes(getPeakUsage(stepOrSource))).append(')');
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        } else {
+            return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        }
+    }
+}
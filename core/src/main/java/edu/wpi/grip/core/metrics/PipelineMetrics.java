@@ -0,0 +1,178 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.QualityController;
+import edu.wpi.grip.core.Step;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Reports how long each {@link Step} in the pipeline has been taking to run, so the step that's costing frames can be
+ * found without attaching a profiler.
+ * <p>
+ * Both the GUI and headless mode can query this at any time.  Once {@link #start(long, TimeUnit)} is called, a summary
+ * of the slowest steps is also logged periodically, along with any changes the {@link QualityController} has made.
+ */
+@Singleton
+public class PipelineMetrics {
+    private static final Logger logger = Logger.getLogger(PipelineMetrics.class.getName());
+
+    /**
+     * How many steps are listed in each log summary
+     */
+    private static final int SUMMARY_LENGTH = 5;
+
+    private final Pipeline pipeline;
+    private final QualityController qualityController;
+    private Optional<ScheduledExecutorService> executor = Optional.empty();
+
+    /**
+     * The wall-clock and CPU time that one step took to run over the last few seconds, and how old its frames were
+     * when it finished
+     */
+    public static final class StepTiming {
+        private final LatencyHistogram.Summary wallTime;
+        private final LatencyHistogram.Summary cpuTime;
+        private final LatencyHistogram.Summary frameLatency;
+
+        StepTiming(LatencyHistogram.Summary wallTime, LatencyHistogram.Summary cpuTime,
+                   LatencyHistogram.Summary frameLatency) {
+            this.wallTime = wallTime;
+            this.cpuTime = cpuTime;
+            this.frameLatency = frameLatency;
+        }
+
+        public LatencyHistogram.Summary getWallTime() {
+            return wallTime;
+        }
+
+        public LatencyHistogram.Summary getCpuTime() {
+            return cpuTime;
+        }
+
+        /**
+         * @see Step#getFrameLatency()
+         */
+        public LatencyHistogram.Summary getFrameLatency() {
+            return frameLatency;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("wallTime", wallTime)
+                    .add("cpuTime", cpuTime)
+                    .add("frameLatency", frameLatency)
+                    .toString();
+        }
+    }
+
+    @Inject
+    PipelineMetrics(Pipeline pipeline, QualityController qualityController) {
+        this.pipeline = pipeline;
+        this.qualityController = qualityController;
+    }
+
+    /**
+     * @return The recent timing of every step in the pipeline, in the order that they run
+     */
+    public ImmutableMap<Step, StepTiming> getStepTimings() {
+        final long now = System.nanoTime();
+        final ImmutableMap.Builder<Step, StepTiming> timings = ImmutableMap.builder();
+        for (Step step : pipeline.getStepGraph().getSteps()) {
+            timings.put(step, new StepTiming(step.getWallTime().summarize(now), step.getCpuTime().summarize(now),
+                    step.getFrameLatency().summarize(now)));
+        }
+        return timings.build();
+    }
+
+    /**
+     * Start logging a summary of the slowest steps every <code>period</code>.
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        checkState(!executor.isPresent(), "The metrics are already being logged");
+        checkArgument(period > 0, "The period must be positive");
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Pipeline Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::logSummary, period, period, unit);
+        this.executor = Optional.of(executor);
+    }
+
+    public synchronized void stop() {
+        executor.ifPresent(ScheduledExecutorService::shutdownNow);
+        executor = Optional.empty();
+    }
+
+    /**
+     * Log the steps that took the most time recently, by their 95th percentile wall-clock time, and the
+     * capture-to-publish latency of each step that publishes its results
+     */
+    public void logSummary() {
+        try {
+            final Map<Step, StepTiming> stepTimings = getStepTimings();
+            final StringBuilder summary = new StringBuilder("Slowest steps (p50 / p95 / p99 / max wall time, "
+                    + "mean CPU time, runs):");
+            stepTimings.entrySet().stream()
+                    .filter(entry -> entry.getValue().getWallTime().getCount() > 0)
+                    .sorted(Map.Entry.<Step, StepTiming>comparingByValue(
+                            Comparator.comparingLong(timing -> -timing.getWallTime().getP95())))
+                    .limit(SUMMARY_LENGTH)
+                    .forEach(entry -> {
+                        final LatencyHistogram.Summary wallTime = entry.getValue().getWallTime();
+                        summary.append("\n    ").append(entry.getKey().getOperation().getName()).append(": ")
+                                .append(formatMillis(wallTime.getP50())).append(" / ")
+                                .append(formatMillis(wallTime.getP95())).append(" / ")
+                                .append(formatMillis(wallTime.getP99())).append(" / ")
+                                .append(formatMillis(wallTime.getMax())).append(", ")
+                                .append(formatMillis(entry.getValue().getCpuTime().getMean())).append(", ")
+                                .append(wallTime.getCount());
+                    });
+
+            // Steps with no outputs are sinks, like publishing to NetworkTables
+            stepTimings.entrySet().stream()
+                    .filter(entry -> entry.getKey().getOutputSockets().length == 0)
+                    .filter(entry -> entry.getValue().getFrameLatency().getCount() > 0)
+                    .forEach(entry -> {
+                        final LatencyHistogram.Summary latency = entry.getValue().getFrameLatency();
+                        summary.append("\n    Capture-to-publish latency of ")
+                                .append(entry.getKey().getOperation().getName()).append(": ")
+                                .append(formatMillis(latency.getP50())).append(" / ")
+                                .append(formatMillis(latency.getP95())).append(" / ")
+                                .append(formatMillis(latency.getP99())).append(" / ")
+                                .append(formatMillis(latency.getMax()));
+                    });
+
+            if (qualityController.getAdjustmentCount() > 0) {
+                summary.append(String.format("\n    Quality lowered by %d levels (images shrunk by a further %.3f%s), "
+                                + "%d adjustments so far", qualityController.getLevel(),
+                        qualityController.getScaleFactor(),
+                        qualityController.isSkippingUnusedSteps() ? ", unused steps skipped" : "",
+                        qualityController.getAdjustmentCount()));
+            }
+            logger.log(Level.INFO, summary.toString());
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not summarize pipeline metrics", e);
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2f ms", nanos / 1e6);
+    }
+}
@@ -27,6 +27,7 @@ public final class Operations {
         eventBus.post(new OperationAddedEvent(new FindLinesOperation()));
         eventBus.post(new OperationAddedEvent(new FilterLinesOperation()));
         eventBus.post(new OperationAddedEvent(new MaskOperation()));
+        eventBus.post(new OperationAddedEvent(new RegionOfInterestOperation()));
         eventBus.post(new OperationAddedEvent(new MinMaxLoc()));
         eventBus.post(new OperationAddedEvent(new NewPointOperation()));
         eventBus.post(new OperationAddedEvent(new NewSizeOperation()));
@@ -2,6 +2,7 @@ package edu.wpi.grip.core.operations.composite;
 
 import com.google.common.base.MoreObjects;
 import edu.wpi.grip.core.NoSocketTypeLabel;
+import edu.wpi.grip.core.Region;
 import edu.wpi.grip.core.operations.networktables.NTPublishable;
 import edu.wpi.grip.core.operations.networktables.NTValue;
 
@@ -17,6 +18,7 @@ import static org.bytedeco.javacpp.opencv_core.Mat;
 public class BlobsReport implements NTPublishable {
     private final Mat input;
     private final List<Blob> blobs;
+    private final Region region;
 
     public static class Blob {
         public final double x, y, size;
@@ -45,8 +47,16 @@ public class BlobsReport implements NTPublishable {
     }
 
     public BlobsReport(Mat input, List<Blob> blobs) {
+        this(input, blobs, Region.ofFrame(input.cols(), input.rows()));
+    }
+
+    /**
+     * @param region Where the input image is in the full frame.  The blobs are in the coordinates of the full frame.
+     */
+    public BlobsReport(Mat input, List<Blob> blobs, Region region) {
         this.input = input;
         this.blobs = blobs;
+        this.region = region;
     }
 
     public List<Blob> getBlobs() {
@@ -60,6 +70,14 @@ public class BlobsReport implements NTPublishable {
         return this.input;
     }
 
+    /**
+     * @return Where the input image is in the full frame.  To draw the blobs on the input image, they have to be moved
+     * by the position of the region.
+     */
+    public Region getRegion() {
+        return this.region;
+    }
+
     @NTValue(key = "x")
     public double[] getX() {
         final double[] x = new double[blobs.size()];
@@ -6,13 +6,18 @@ import edu.wpi.grip.core.*;
 import java.io.InputStream;
 import java.util.Optional;
 
+import static org.bytedeco.javacpp.opencv_core.CV_MAKETYPE;
+import static org.bytedeco.javacpp.opencv_core.CV_MAT_CN;
+import static org.bytedeco.javacpp.opencv_core.CV_MAT_DEPTH;
 import static org.bytedeco.javacpp.opencv_core.Mat;
 import static org.bytedeco.javacpp.opencv_imgproc.*;
 
 /**
  * An {@link Operation} that converts a color image into shades of gray
  */
-public class DesaturateOperation implements Operation {
+public class DesaturateOperation implements PixelwiseOperation {
+
+    private static final int[] PIXELWISE_INPUT_INDEXES = {0};
 
     private final SocketHint<Mat> inputHint = SocketHints.Inputs.createMatSocketHint("Input", false);
     private final SocketHint<Mat> outputHint = SocketHints.Outputs.createMatSocketHint("Output");
@@ -71,4 +76,42 @@ public class DesaturateOperation implements Operation {
 
         outputSocket.setValue(output);
     }
+
+    @Override
+    public int[] getPixelwiseInputIndexes() {
+        return PIXELWISE_INPUT_INDEXES;
+    }
+
+    @Override
+    public int prepareBands(InputSocket<?>[] inputs, int rows, int cols, int[] imageTypes, Optional<?> data,
+                            MatPool matPool) {
+        switch (CV_MAT_CN(imageTypes[0])) {
+            case 1:
+                return imageTypes[0];
+            case 3:
+            case 4:
+                return CV_MAKETYPE(CV_MAT_DEPTH(imageTypes[0]), 1);
+            default:
+                throw new IllegalArgumentException("Input to desaturate must have 1, 3, or 4 channels");
+        }
+    }
+
+    @Override
+    public void performBand(InputSocket<?>[] inputs, Mat[] images, Mat output, int startRow, Optional<?> data) {
+        final Mat input = images[0];
+        switch (input.channels()) {
+            case 1:
+                // The band can't just be passed through like in perform, since the output is written in place
+                input.copyTo(output);
+                break;
+
+            case 3:
+                cvtColor(input, output, COLOR_BGR2GRAY);
+                break;
+
+            default:
+                cvtColor(input, output, COLOR_BGRA2GRAY);
+                break;
+        }
+    }
 }
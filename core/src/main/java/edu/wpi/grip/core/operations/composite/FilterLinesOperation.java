@@ -69,6 +69,7 @@ public class FilterLinesOperation implements Operation {
                         || (line.angle() + 180.0 >= minAngle && line.angle() + 180.0 <= maxAngle))
                 .collect(Collectors.toList());
 
-        linesOutputSocket.setValue(new LinesReport(inputLines.getLineSegmentDetector(), inputLines.getInput(), lines));
+        linesOutputSocket.setValue(new LinesReport(inputLines.getLineSegmentDetector(), inputLines.getInput(), lines,
+                inputLines.getRegion()));
     }
 }
@@ -81,12 +81,15 @@ public class FindBlobsOperation implements Operation {
         final KeyPointVector keyPointVector = new KeyPointVector();
         blobDetector.detect(input, keyPointVector);
 
+        // If the input is a region of a bigger frame, the blobs are moved to where they are in the whole frame
+        final Region region = Region.forImage(inputs[0], input);
         final List<BlobsReport.Blob> blobs = new ArrayList<>();
         for (int i = 0; i < keyPointVector.size(); i++) {
             final KeyPoint keyPoint = keyPointVector.get(i);
-            blobs.add(new BlobsReport.Blob(keyPoint.pt().x(), keyPoint.pt().y(), keyPoint.size()));
+            blobs.add(new BlobsReport.Blob(region.toFrameX(keyPoint.pt().x()), region.toFrameY(keyPoint.pt().y()),
+                    region.toFrameLength(keyPoint.size())));
         }
 
-        ((OutputSocket<BlobsReport>) outputs[0]).setValue(new BlobsReport(input, blobs));
+        ((OutputSocket<BlobsReport>) outputs[0]).setValue(new BlobsReport(input, blobs, region));
     }
 }
@@ -2,6 +2,7 @@ package edu.wpi.grip.core.operations.composite;
 
 import com.google.common.eventbus.EventBus;
 import edu.wpi.grip.core.*;
+import org.bytedeco.javacpp.indexer.IntIndexer;
 
 import java.io.InputStream;
 import java.util.Optional;
@@ -73,11 +74,32 @@ public class FindContoursOperation implements Operation {
         // OpenCV has a few different things it can return from findContours, but for now we only use EXTERNAL and LIST.
         // The other ones involve hierarchies of contours, which might be useful in some situations, but probably only
         // when processing the contours manually in code (so, not in a graphical pipeline).
+        // If the input is a region of a bigger frame, the contours are moved to where they are in the whole frame
+        final Region region = Region.forImage(inputs[0], input);
         MatVector contours = new MatVector();
-        findContours(tmp, contours, externalOnly ? CV_RETR_EXTERNAL : CV_RETR_LIST,
-                CV_CHAIN_APPROX_TC89_KCOS);
+        if (region.isFullScale()) {
+            findContours(tmp, contours, externalOnly ? CV_RETR_EXTERNAL : CV_RETR_LIST,
+                    CV_CHAIN_APPROX_TC89_KCOS, new Point(region.getX(), region.getY()));
+        } else {
+            findContours(tmp, contours, externalOnly ? CV_RETR_EXTERNAL : CV_RETR_LIST, CV_CHAIN_APPROX_TC89_KCOS);
+            for (int i = 0; i < contours.size(); i++) {
+                toFrameCoordinates(contours.get(i), region);
+            }
+        }
 
         final OutputSocket<ContoursReport> contoursSocket = (OutputSocket<ContoursReport>) outputs[0];
-        contoursSocket.setValue(new ContoursReport(contours, input.rows(), input.cols()));
+        contoursSocket.setValue(new ContoursReport(contours, region.getFrameHeight(), region.getFrameWidth()));
+    }
+
+    /**
+     * Move and scale the points of a contour found in a shrunk image to where they are in the full frame
+     */
+    private static void toFrameCoordinates(Mat contour, Region region) {
+        final IntIndexer indexer = contour.createIndexer();
+        for (int i = 0; i < contour.rows(); i++) {
+            indexer.put(i, 0, 0, (int) Math.round(region.toFrameX(indexer.get(i, 0, 0))));
+            indexer.put(i, 0, 1, (int) Math.round(region.toFrameY(indexer.get(i, 0, 1))));
+        }
+        indexer.release();
     }
 }
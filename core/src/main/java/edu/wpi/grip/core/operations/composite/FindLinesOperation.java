@@ -46,9 +46,13 @@ public class FindLinesOperation implements Operation {
         return new OutputSocket<?>[]{new OutputSocket<>(eventBus, linesHint)};
     }
 
+    /**
+     * @return A grayscale copy of the input and the raw line segments, which are kept between frames so that they
+     * don't have to be allocated each time
+     */
     @Override
-    public Optional<Mat> createData() {
-        return Optional.of(new Mat());
+    public Optional<Mat[]> createData() {
+        return Optional.of(new Mat[]{new Mat(), new Mat()});
     }
 
     @Override
@@ -58,28 +62,32 @@ public class FindLinesOperation implements Operation {
         final OutputSocket<LinesReport> linesReportSocket = (OutputSocket<LinesReport>) outputs[0];
         final LineSegmentDetector lsd = linesReportSocket.getValue().get().getLineSegmentDetector();
 
-        final Mat lines = new Mat();
+        final Mat[] dataArray = (Mat[]) data.get();
+        final Mat lines = dataArray[1];
         if (input.channels() == 1) {
             lsd.detect(input, lines);
         } else {
             // The line detector works on a single channel.  If the input is a color image, we can just give the line
             // detector a grayscale version of it
-            final Mat tmp = (Mat) data.get();
+            final Mat tmp = dataArray[0];
             cvtColor(input, tmp, COLOR_BGR2GRAY);
             lsd.detect(tmp, lines);
         }
 
-        // Store the lines in the LinesReport object
+        // Store the lines in the LinesReport object.  If the input is a region of a bigger frame, the lines are moved to
+        // where they are in the whole frame.
+        final Region region = Region.forImage(inputs[0], input);
         List<LinesReport.Line> lineList = new ArrayList<>();
         if (!lines.empty()) {
             final FloatIndexer indexer = lines.<FloatIndexer>createIndexer();
             final float[] tmp = new float[4];
             for (int i = 0; i < lines.rows(); i++) {
                 indexer.get(i, tmp);
-                lineList.add(new LinesReport.Line(tmp[0], tmp[1], tmp[2], tmp[3]));
+                lineList.add(new LinesReport.Line(region.toFrameX(tmp[0]), region.toFrameY(tmp[1]),
+                        region.toFrameX(tmp[2]), region.toFrameY(tmp[3])));
             }
         }
 
-        linesReportSocket.setValue(new LinesReport(lsd, input, lineList));
+        linesReportSocket.setValue(new LinesReport(lsd, input, lineList, region));
     }
 }
@@ -2,6 +2,7 @@ package edu.wpi.grip.core.operations.composite;
 
 import com.google.common.eventbus.EventBus;
 import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.MatPool;
 import edu.wpi.grip.core.OutputSocket;
 import edu.wpi.grip.core.SocketHint;
 import edu.wpi.grip.core.SocketHints;
@@ -13,6 +14,8 @@ import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.CV_MAT_CN;
 import static org.bytedeco.javacpp.opencv_core.inRange;
 import static org.bytedeco.javacpp.opencv_imgproc.COLOR_BGR2HSV;
 import static org.bytedeco.javacpp.opencv_imgproc.cvtColor;
@@ -59,13 +62,10 @@ public class HSVThresholdOperation extends ThresholdOperation {
 
 
     @Override
-    public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs, Optional<?> data) {
+    public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs, Optional<?> data, MatPool matPool) {
         final Mat[] dataArray = (Mat[]) data.orElseThrow(() -> new IllegalStateException("Data was not provided"));
 
         final Mat input = ((InputSocket<Mat>) inputs[0]).getValue().get();
-        final List<Number> channel1 = ((InputSocket<List<Number>>) inputs[1]).getValue().get();
-        final List<Number> channel2 = ((InputSocket<List<Number>>) inputs[2]).getValue().get();
-        final List<Number> channel3 = ((InputSocket<List<Number>>) inputs[3]).getValue().get();
 
         if (input.channels() != 3) {
             throw new IllegalArgumentException("HSV Threshold needs a 3-channel input");
@@ -74,17 +74,11 @@ public class HSVThresholdOperation extends ThresholdOperation {
         final OutputSocket<Mat> outputSocket = (OutputSocket<Mat>) outputs[0];
         final Mat output = outputSocket.getValue().get();
 
-        final Scalar lowScalar = new Scalar(
-                channel1.get(0).doubleValue(),
-                channel2.get(0).doubleValue(),
-                channel3.get(0).doubleValue(), 0);
-        final Scalar highScalar = new Scalar(
-                channel1.get(1).doubleValue(),
-                channel2.get(1).doubleValue(),
-                channel3.get(1).doubleValue(), 0);
-
-        final Mat low = reallocateMatIfInputSizeOrWidthChanged(dataArray, 0, lowScalar, input);
-        final Mat high = reallocateMatIfInputSizeOrWidthChanged(dataArray, 1, highScalar, input);
+        final Scalar lowScalar = createScalar(inputs, 0);
+        final Scalar highScalar = createScalar(inputs, 1);
+
+        final Mat low = reallocateMatIfInputSizeOrWidthChanged(matPool, dataArray, 0, lowScalar, input);
+        final Mat high = reallocateMatIfInputSizeOrWidthChanged(matPool, dataArray, 1, highScalar, input);
         final Mat hsv = dataArray[2];
 
         try {
@@ -95,4 +89,40 @@ public class HSVThresholdOperation extends ThresholdOperation {
             logger.log(Level.WARNING, e.getMessage(), e);
         }
     }
+
+    @Override
+    public int prepareBands(InputSocket<?>[] inputs, int rows, int cols, int[] imageTypes, Optional<?> data,
+                            MatPool matPool) {
+        final Mat[] dataArray = (Mat[]) data.orElseThrow(() -> new IllegalStateException("Data was not provided"));
+        if (CV_MAT_CN(imageTypes[0]) != 3) {
+            throw new IllegalArgumentException("HSV Threshold needs a 3-channel input");
+        }
+
+        reallocateMatIfSizeOrTypeChanged(matPool, dataArray, 0, createScalar(inputs, 0), rows, cols, imageTypes[0]);
+        reallocateMatIfSizeOrTypeChanged(matPool, dataArray, 1, createScalar(inputs, 1), rows, cols, imageTypes[0]);
+        dataArray[2].create(rows, cols, imageTypes[0]);
+        return CV_8UC1;
+    }
+
+    @Override
+    public void performBand(InputSocket<?>[] inputs, Mat[] images, Mat output, int startRow, Optional<?> data) {
+        final Mat[] dataArray = (Mat[]) data.orElseThrow(() -> new IllegalStateException("Data was not provided"));
+        final Mat input = images[0];
+        final int endRow = startRow + input.rows();
+        // Only the top of the full-size buffer is used, so every band is converted into the same memory
+        final Mat hsv = dataArray[2].rowRange(0, input.rows());
+        cvtColor(input, hsv, COLOR_BGR2HSV);
+        inRange(hsv, dataArray[0].rowRange(startRow, endRow), dataArray[1].rowRange(startRow, endRow), output);
+    }
+
+    /**
+     * @param bound 0 for the lower bound of each range, or 1 for the upper bound
+     */
+    @SuppressWarnings("unchecked")
+    private static Scalar createScalar(InputSocket<?>[] inputs, int bound) {
+        return new Scalar(
+                ((InputSocket<List<Number>>) inputs[1]).getValue().get().get(bound).doubleValue(),
+                ((InputSocket<List<Number>>) inputs[2]).getValue().get().get(bound).doubleValue(),
+                ((InputSocket<List<Number>>) inputs[3]).getValue().get().get(bound).doubleValue(), 0);
+    }
 }
@@ -1,6 +1,7 @@
 package edu.wpi.grip.core.operations.composite;
 
 import edu.wpi.grip.core.NoSocketTypeLabel;
+import edu.wpi.grip.core.Region;
 import edu.wpi.grip.core.operations.networktables.NTPublishable;
 import edu.wpi.grip.core.operations.networktables.NTValue;
 
@@ -24,6 +25,7 @@ public class LinesReport implements NTPublishable {
     private final LineSegmentDetector lsd;
     private final Mat input;
     private final List<Line> lines;
+    private final Region region;
 
     public static class Line {
         public final double x1, y1, x2, y2;
@@ -57,9 +59,17 @@ public class LinesReport implements NTPublishable {
     }
 
     public LinesReport(LineSegmentDetector lsd, Mat input, List<Line> lines) {
+        this(lsd, input, lines, Region.ofFrame(input.cols(), input.rows()));
+    }
+
+    /**
+     * @param region Where the input image is in the full frame.  The lines are in the coordinates of the full frame.
+     */
+    public LinesReport(LineSegmentDetector lsd, Mat input, List<Line> lines, Region region) {
         this.lsd = lsd;
         this.input = input;
         this.lines = lines;
+        this.region = region;
     }
 
     protected LineSegmentDetector getLineSegmentDetector() {
@@ -73,6 +83,14 @@ public class LinesReport implements NTPublishable {
         return this.input;
     }
 
+    /**
+     * @return Where the input image is in the full frame.  To draw the lines on the input image, they have to be moved
+     * by the position of the region.
+     */
+    public Region getRegion() {
+        return this.region;
+    }
+
     public List<Line> getLines() {
         return this.lines;
     }
@@ -12,7 +12,9 @@ import static org.bytedeco.javacpp.opencv_core.bitwise_xor;
 /**
  * An {@link Operation} that masks out an area of interest from an image
  */
-public class MaskOperation implements Operation {
+public class MaskOperation implements PixelwiseOperation {
+
+    private static final int[] PIXELWISE_INPUT_INDEXES = {0, 1};
 
     private final SocketHint<Mat> inputHint = SocketHints.Inputs.createMatSocketHint("Input", false);
     private final SocketHint<Mat> maskHint = SocketHints.Inputs.createMatSocketHint("Mask", false);
@@ -63,4 +65,21 @@ public class MaskOperation implements Operation {
         input.copyTo(output, mask);
         outputSocket.setValue(output);
     }
+
+    @Override
+    public int[] getPixelwiseInputIndexes() {
+        return PIXELWISE_INPUT_INDEXES;
+    }
+
+    @Override
+    public int prepareBands(InputSocket<?>[] inputs, int rows, int cols, int[] imageTypes, Optional<?> data,
+                            MatPool matPool) {
+        return imageTypes[0];
+    }
+
+    @Override
+    public void performBand(InputSocket<?>[] inputs, Mat[] images, Mat output, int startRow, Optional<?> data) {
+        bitwise_xor(output, output, output);
+        images[0].copyTo(output, images[1]);
+    }
 }
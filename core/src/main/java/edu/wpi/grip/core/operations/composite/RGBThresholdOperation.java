@@ -57,13 +57,10 @@ public class RGBThresholdOperation extends ThresholdOperation {
 
     @Override
     @SuppressWarnings("unchecked")
-    public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs, Optional<?> data) {
+    public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs, Optional<?> data, MatPool matPool) {
         final Mat[] dataArray = (Mat[]) data.orElseThrow(() -> new IllegalStateException("Data was not provided"));
 
         final Mat input = ((InputSocket<Mat>) inputs[0]).getValue().get();
-        final List<Number> channel1 = ((InputSocket<List<Number>>) inputs[1]).getValue().get();
-        final List<Number> channel2 = ((InputSocket<List<Number>>) inputs[2]).getValue().get();
-        final List<Number> channel3 = ((InputSocket<List<Number>>) inputs[3]).getValue().get();
 
         if (input.channels() != 3) {
             throw new IllegalArgumentException("RGB Threshold needs a 3-channel input");
@@ -73,18 +70,11 @@ public class RGBThresholdOperation extends ThresholdOperation {
         final Mat output = outputSocket.getValue().get();
 
 
-        final Scalar lowScalar = new Scalar(
-                channel3.get(0).doubleValue(),
-                channel2.get(0).doubleValue(),
-                channel1.get(0).doubleValue(), 0);
+        final Scalar lowScalar = createScalar(inputs, 0);
+        final Scalar highScalar = createScalar(inputs, 1);
 
-        final Scalar highScalar = new Scalar(
-                channel3.get(1).doubleValue(),
-                channel2.get(1).doubleValue(),
-                channel1.get(1).doubleValue(), 0);
-
-        final Mat low = reallocateMatIfInputSizeOrWidthChanged(dataArray, 0, lowScalar, input);
-        final Mat high = reallocateMatIfInputSizeOrWidthChanged(dataArray, 1, highScalar, input);
+        final Mat low = reallocateMatIfInputSizeOrWidthChanged(matPool, dataArray, 0, lowScalar, input);
+        final Mat high = reallocateMatIfInputSizeOrWidthChanged(matPool, dataArray, 1, highScalar, input);
 
         try {
             inRange(input, low, high, output);
@@ -94,4 +84,36 @@ public class RGBThresholdOperation extends ThresholdOperation {
             logger.log(Level.WARNING, e.getMessage(), e);
         }
     }
+
+    @Override
+    public int prepareBands(InputSocket<?>[] inputs, int rows, int cols, int[] imageTypes, Optional<?> data,
+                            MatPool matPool) {
+        final Mat[] dataArray = (Mat[]) data.orElseThrow(() -> new IllegalStateException("Data was not provided"));
+        if (CV_MAT_CN(imageTypes[0]) != 3) {
+            throw new IllegalArgumentException("RGB Threshold needs a 3-channel input");
+        }
+
+        reallocateMatIfSizeOrTypeChanged(matPool, dataArray, 0, createScalar(inputs, 0), rows, cols, imageTypes[0]);
+        reallocateMatIfSizeOrTypeChanged(matPool, dataArray, 1, createScalar(inputs, 1), rows, cols, imageTypes[0]);
+        return CV_8UC1;
+    }
+
+    @Override
+    public void performBand(InputSocket<?>[] inputs, Mat[] images, Mat output, int startRow, Optional<?> data) {
+        final Mat[] dataArray = (Mat[]) data.orElseThrow(() -> new IllegalStateException("Data was not provided"));
+        final Mat input = images[0];
+        final int endRow = startRow + input.rows();
+        inRange(input, dataArray[0].rowRange(startRow, endRow), dataArray[1].rowRange(startRow, endRow), output);
+    }
+
+    /**
+     * @param bound 0 for the lower bound of each range, or 1 for the upper bound
+     */
+    @SuppressWarnings("unchecked")
+    private static Scalar createScalar(InputSocket<?>[] inputs, int bound) {
+        return new Scalar(
+                ((InputSocket<List<Number>>) inputs[3]).getValue().get().get(bound).doubleValue(),
+                ((InputSocket<List<Number>>) inputs[2]).getValue().get().get(bound).doubleValue(),
+                ((InputSocket<List<Number>>) inputs[1]).getValue().get().get(bound).doubleValue(), 0);
+    }
 }
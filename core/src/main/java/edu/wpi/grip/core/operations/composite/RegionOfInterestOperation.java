@@ -0,0 +1,97 @@
+package edu.wpi.grip.core.operations.composite;
+
+import com.google.common.eventbus.EventBus;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Region;
+import edu.wpi.grip.core.SocketHint;
+import edu.wpi.grip.core.SocketHints;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.bytedeco.javacpp.opencv_core.Mat;
+
+/**
+ * An {@link Operation} that limits the rest of the pipeline to part of an image, such as the top half of the frame
+ * if that's the only place a target can appear.
+ * <p>
+ * The output is a view of the region in the input image, so no pixels are copied.  It's tagged with its
+ * {@link Region}, and operations that find things in images (like finding contours, blobs, or lines) use that to
+ * report what they find in the coordinates of the full frame, so nothing after them needs to know about the region.
+ */
+public class RegionOfInterestOperation implements Operation {
+
+    private final SocketHint<Mat> inputHint = SocketHints.Inputs.createMatSocketHint("Input", false);
+    private final SocketHint<List> xHint = SocketHints.Inputs.createNumberListRangeSocketHint("X (%)", 0.0, 100.0);
+    private final SocketHint<List> yHint = SocketHints.Inputs.createNumberListRangeSocketHint("Y (%)", 0.0, 100.0);
+
+    private final SocketHint<Mat> outputHint = SocketHints.Outputs.createMatSocketHint("Output");
+
+    @Override
+    public String getName() {
+        return "Region of Interest";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Only process part of an image, given as percentages of its width and height.";
+    }
+
+    @Override
+    public InputSocket<?>[] createInputSockets(EventBus eventBus) {
+        return new InputSocket<?>[]{
+                new InputSocket<>(eventBus, inputHint),
+                new InputSocket<>(eventBus, xHint),
+                new InputSocket<>(eventBus, yHint),
+        };
+    }
+
+    @Override
+    public OutputSocket<?>[] createOutputSockets(EventBus eventBus) {
+        return new OutputSocket<?>[]{new OutputSocket<>(eventBus, outputHint)};
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs) {
+        final InputSocket<Mat> inputSocket = (InputSocket<Mat>) inputs[0];
+        final Mat input = inputSocket.getValue().get();
+        final List<Number> xRange = ((InputSocket<List<Number>>) inputs[1]).getValue().get();
+        final List<Number> yRange = ((InputSocket<List<Number>>) inputs[2]).getValue().get();
+
+        final OutputSocket<Mat> outputSocket = (OutputSocket<Mat>) outputs[0];
+        final Mat output = outputSocket.getValue().get();
+
+        if (input.empty()) {
+            output.put(input);
+            outputSocket.setValue(output);
+            return;
+        }
+
+        // The region is always at least one pixel, so there's something to process
+        final int left = Math.min(toPixels(xRange.get(0), input.cols()), input.cols() - 1);
+        final int right = Math.max(toPixels(xRange.get(1), input.cols()), left + 1);
+        final int top = Math.min(toPixels(yRange.get(0), input.rows()), input.rows() - 1);
+        final int bottom = Math.max(toPixels(yRange.get(1), input.rows()), top + 1);
+        final Region region = new Region(left, top, right - left, bottom - top, input.cols(), input.rows());
+
+        // The input might already be a region of a bigger frame
+        final Region inputRegion = Region.forImage(inputSocket, input);
+        outputSocket.setRegion(Optional.of(inputRegion.resolve(region)));
+
+        // Moving the edges of a header that shares the input's pixels doesn't allocate anything on each frame
+        output.put(input);
+        output.adjustROI(-top, bottom - input.rows(), -left, right - input.cols());
+        outputSocket.setValue(output);
+    }
+
+    /**
+     * @return The edge of the pixel that a percentage of the given size is at, from 0 to the size
+     */
+    private static int toPixels(Number percent, int size) {
+        final int pixels = (int) Math.round(percent.doubleValue() / 100.0 * size);
+        return Math.max(0, Math.min(pixels, size));
+    }
+}
@@ -1,13 +1,23 @@
 package edu.wpi.grip.core.operations.composite;
 
-import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.MatPool;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.PixelwiseOperation;
 import org.bytedeco.javacpp.opencv_core.Mat;
 import org.bytedeco.javacpp.opencv_core.Scalar;
 
 import java.io.InputStream;
 import java.util.Optional;
 
-public abstract class ThresholdOperation implements Operation {
+public abstract class ThresholdOperation implements PixelwiseOperation {
+
+    private static final int[] PIXELWISE_INPUT_INDEXES = {0};
+
+    /**
+     * The pool used when this operation is performed by a caller that doesn't have one, like a script or test
+     */
+    private final MatPool matPool = new MatPool();
 
     @Override
     public Optional<InputStream> getIcon() {
@@ -19,20 +29,44 @@ public abstract class ThresholdOperation implements Operation {
         return Optional.of(new Mat[]{new Mat(), new Mat(), new Mat()});
     }
 
+    @Override
+    public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs, Optional<?> data) {
+        perform(inputs, outputs, data, matPool);
+    }
+
+    @Override
+    public int[] getPixelwiseInputIndexes() {
+        return PIXELWISE_INPUT_INDEXES;
+    }
+
     /**
+     * @param matPool   The pool to return the old mat to and take a new one from if the input changed
      * @param dataArray The array with the element that should be re-allocated
      * @param index     The index of the data array that should be inspected
      * @param value     The value that should be assigned to the mat regardless of being reallocated
      * @param input     The input matrix that the dataArray element should be compared against
-     * @return Either the old mat with the value assigned or a newly created Matrix.
+     * @return Either the old mat or one from the pool, with the value assigned
+     */
+    protected Mat reallocateMatIfInputSizeOrWidthChanged(final MatPool matPool, final Mat[] dataArray, final int index,
+                                                         final Scalar value, final Mat input) {
+        return reallocateMatIfSizeOrTypeChanged(matPool, dataArray, index, value, input.rows(), input.cols(),
+                input.type());
+    }
+
+    /**
+     * Like {@link #reallocateMatIfInputSizeOrWidthChanged}, for when only the size and type of the input are known,
+     * as in {@link #prepareBands}.
      */
-    protected Mat reallocateMatIfInputSizeOrWidthChanged(final Mat[] dataArray, final int index, final Scalar value, final Mat input) {
-        if (dataArray[index].size().width() != input.size().width()
-                || dataArray[index].size().height() != input.size().height()
-                || dataArray[index].type() != input.type()) {
-            return dataArray[index] = new Mat(input.size(), input.type(), value);
-        } else {
-            return dataArray[index].put(value);
+    protected Mat reallocateMatIfSizeOrTypeChanged(final MatPool matPool, final Mat[] dataArray, final int index,
+                                                   final Scalar value, final int rows, final int cols,
+                                                   final int type) {
+        if (dataArray[index].cols() != cols
+                || dataArray[index].rows() != rows
+                || dataArray[index].type() != type) {
+            // Switching between a few sizes (for example, two cameras) reuses the old buffers instead of allocating
+            matPool.release(dataArray[index]);
+            dataArray[index] = matPool.borrow(rows, cols, type);
         }
+        return dataArray[index].put(value);
     }
 }
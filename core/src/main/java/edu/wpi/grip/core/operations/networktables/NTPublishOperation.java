@@ -23,6 +23,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class NTPublishOperation<T extends NTPublishable> implements Operation {
 
+    /**
+     * The key that the age of the published data is put under, in milliseconds
+     */
+    public static final String LATENCY_KEY = "latency";
+
     private final Class<T> type;
     private final List<Method> ntValueMethods = new ArrayList<>();
 
@@ -58,7 +63,7 @@ public class NTPublishOperation<T extends NTPublishable> implements Operation {
 
     @Override
     public InputSocket<?>[] createInputSockets(EventBus eventBus) {
-        final InputSocket<?>[] sockets = new InputSocket[2 + ntValueMethods.size()];
+        final InputSocket<?>[] sockets = new InputSocket[3 + ntValueMethods.size()];
         int i = 0;
 
         // Create an input for the actual object being published
@@ -76,6 +81,10 @@ public class NTPublishOperation<T extends NTPublishable> implements Operation {
                     SocketHints.createBooleanSocketHint("Publish " + method.getAnnotation(NTValue.class).key(), true));
         }
 
+        // Create a checkbox for publishing how long ago the camera frame that the value came from was captured, so
+        // robot code can compensate for the delay.  This is last since sockets are saved in project files by index.
+        sockets[i++] = new InputSocket<>(eventBus, SocketHints.createBooleanSocketHint("Publish Latency", false));
+
         return sockets;
     }
 
@@ -84,11 +93,23 @@ public class NTPublishOperation<T extends NTPublishable> implements Operation {
         return new OutputSocket<?>[0];
     }
 
+    /**
+     * @return Whether the latency is in the step's subtable.  This starts out true so that a latency left over from
+     * an earlier run is deleted once if the checkbox is off, instead of on every frame.
+     */
     @Override
-    public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs) {
+    public Optional<boolean[]> createData() {
+        return Optional.of(new boolean[]{true});
+    }
+
+    @Override
+    public void perform(InputSocket<?>[] inputs, OutputSocket<?>[] outputs, Optional<?> data) {
+        final boolean[] latencyPublished = (boolean[]) data.orElseThrow(
+                () -> new IllegalStateException("Data was not provided"));
         int i = 0;
 
-        final NTPublishable value = (NTPublishable) inputs[i++].getValue().get();
+        final InputSocket<?> valueSocket = inputs[i++];
+        final NTPublishable value = (NTPublishable) valueSocket.getValue().get();
         final String subtableName = (String) inputs[i++].getValue().get();
 
         if (subtableName.isEmpty()) {
@@ -116,5 +137,15 @@ public class NTPublishOperation<T extends NTPublishable> implements Operation {
         } catch (IllegalAccessException | InvocationTargetException e) {
             Throwables.propagate(e);
         }
+
+        final boolean publishLatency = (Boolean) inputs[i++].getValue().get();
+        final Optional<FrameInfo> frameInfo = valueSocket.getFrameInfo();
+        if (publishLatency && frameInfo.isPresent()) {
+            subtable.putNumber(LATENCY_KEY, frameInfo.get().getAgeNanos() / 1e6);
+            latencyPublished[0] = true;
+        } else if (latencyPublished[0]) {
+            subtable.delete(LATENCY_KEY);
+            latencyPublished[0] = false;
+        }
     }
 }
@@ -14,6 +14,10 @@ import javax.inject.Inject;
  * <p>
  * Settings are serialized using XStream's built-in reflection serialization. The only catch is that a
  * {@link ProjectSettingsChangedEvent} must be posted after new settings are loaded.
+ * <p>
+ * XStream normally creates objects without calling their constructors, so any setting that isn't in an older project
+ * file would be left as 0, false, or null.  Settings are created with their constructor instead, so these settings
+ * keep their default values.
  */
 public class ProjectSettingsConverter extends ReflectionConverter {
 
@@ -24,6 +28,11 @@ public class ProjectSettingsConverter extends ReflectionConverter {
         super(project.xstream.getMapper(), project.xstream.getReflectionProvider(), ProjectSettings.class);
     }
 
+    @Override
+    protected Object instantiateNewInstance(HierarchicalStreamReader reader, UnmarshallingContext context) {
+        return new ProjectSettings();
+    }
+
     @Override
     public Object unmarshal(final HierarchicalStreamReader reader, final UnmarshallingContext context) {
         ProjectSettings settings = (ProjectSettings) super.unmarshal(reader, context);
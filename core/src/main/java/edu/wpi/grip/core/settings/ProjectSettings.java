@@ -12,6 +12,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class ProjectSettings implements Cloneable {
 
+
     @Setting(label = "FRC Team Number", description = "The team number, if used for FRC")
     private int teamNumber = 0;
 
@@ -24,6 +25,34 @@ public class ProjectSettings implements Cloneable {
             "not specified, the hostname is derived from the team number.")
     private String deployAddress = "";
 
+    @Setting(label = "Pipelined Execution", description = "Run each step on its own thread, so that different steps " +
+            "can work on consecutive frames at the same time.  This increases the frame rate of long pipelines at " +
+            "the cost of slightly higher latency.")
+    private boolean pipelinedExecution = false;
+
+    @Setting(label = "Compare Image Contents", description = "Check the pixels of images before running a step, " +
+            "and skip the step if its input images are the same as last time.  This saves time when the images " +
+            "rarely change, like when tuning a pipeline on a still image.")
+    private boolean compareImageContents = false;
+
+    @Setting(label = "Processing Scale", description = "Shrink images from sources to this fraction of their size " +
+            "before processing them, which makes every step faster.  Contours, lines, and blobs are still reported " +
+            "in the coordinates of the full-size image.  1 processes images at their full size.")
+    private double processingScale = 1.0;
+
+    @Setting(label = "Target Frame Rate", description = "If more than 0, the processing quality is lowered " +
+            "automatically when frames take longer than this rate allows, and raised again when there's time to " +
+            "spare.  Every change is logged.")
+    private double targetFrameRate = 0.0;
+
+    @Setting(label = "Minimum Processing Scale", description = "The smallest fraction of their size that images " +
+            "from sources are shrunk to when keeping up with the target frame rate.")
+    private double minimumProcessingScale = 0.25;
+
+    @Setting(label = "Skip Unused Steps Under Load", description = "When keeping up with the target frame rate, " +
+            "first stop running steps whose results aren't published or previewed, before shrinking images.")
+    private boolean skipUnusedSteps = true;
+
     public void setTeamNumber(int teamNumber) {
         checkArgument(teamNumber >= 0, "Team number cannot be negative");
         this.teamNumber = teamNumber;
@@ -50,6 +79,58 @@ public class ProjectSettings implements Cloneable {
         return deployAddress;
     }
 
+    public void setPipelinedExecution(boolean pipelinedExecution) {
+        this.pipelinedExecution = pipelinedExecution;
+    }
+
+    public boolean getPipelinedExecution() {
+        return pipelinedExecution;
+    }
+
+    public void setCompareImageContents(boolean compareImageContents) {
+        this.compareImageContents = compareImageContents;
+    }
+
+    public boolean getCompareImageContents() {
+        return compareImageContents;
+    }
+
+    public void setProcessingScale(double processingScale) {
+        checkArgument(processingScale > 0 && processingScale <= 1, "Processing scale must be more than 0 and at most 1");
+        this.processingScale = processingScale;
+    }
+
+    public double getProcessingScale() {
+        return processingScale;
+    }
+
+    public void setTargetFrameRate(double targetFrameRate) {
+        checkArgument(targetFrameRate >= 0, "Target frame rate cannot be negative");
+        this.targetFrameRate = targetFrameRate;
+    }
+
+    public double getTargetFrameRate() {
+        return targetFrameRate;
+    }
+
+    public void setMinimumProcessingScale(double minimumProcessingScale) {
+        checkArgument(minimumProcessingScale > 0 && minimumProcessingScale <= 1,
+                "Minimum processing scale must be more than 0 and at most 1");
+        this.minimumProcessingScale = minimumProcessingScale;
+    }
+
+    public double getMinimumProcessingScale() {
+        return minimumProcessingScale;
+    }
+
+    public void setSkipUnusedSteps(boolean skipUnusedSteps) {
+        this.skipUnusedSteps = skipUnusedSteps;
+    }
+
+    public boolean getSkipUnusedSteps() {
+        return skipUnusedSteps;
+    }
+
     /**
      * @return The address of the machine that the NetworkTables server is running on.  If
      * {@link #setPublishAddress} is specified, that is returned, otherwise this is based on the team
@@ -77,6 +158,12 @@ public class ProjectSettings implements Cloneable {
                 .add("publishAddress", publishAddress)
                 .add("deployAddress", deployAddress)
                 .add("teamNumber", teamNumber)
+                .add("pipelinedExecution", pipelinedExecution)
+                .add("compareImageContents", compareImageContents)
+                .add("processingScale", processingScale)
+                .add("targetFrameRate", targetFrameRate)
+                .add("minimumProcessingScale", minimumProcessingScale)
+                .add("skipUnusedSteps", skipUnusedSteps)
                 .toString();
     }
 
@@ -27,6 +27,10 @@ import java.util.logging.Logger;
 
 /**
  * Provides a way to generate a constantly updated {@link Mat} from a camera
+ * <p>
+ * Frames are grabbed on their own thread and left in a {@link FrameMailbox}.  The pipeline takes the newest frame
+ * whenever it is ready for one, so a slow pipeline causes frames to be dropped instead of making the camera fall
+ * behind.
  */
 @XStreamAlias(value = "grip:Camera")
 public class CameraSource extends Source implements StartStoppable {
@@ -49,8 +53,12 @@ public class CameraSource extends Source implements StartStoppable {
 
     private final SocketHint<Mat> imageOutputHint = SocketHints.Inputs.createMatSocketHint("Image", true);
     private final SocketHint<Number> frameRateOutputHint = SocketHints.createNumberSocketHint("Frame Rate", 0);
+    private final SocketHint<Number> droppedFramesOutputHint = SocketHints.createNumberSocketHint("Dropped Frames", 0);
     private final OutputSocket<Mat> frameOutputSocket;
     private final OutputSocket<Number> frameRateOutputSocket;
+    private final OutputSocket<Number> droppedFramesOutputSocket;
+    private final FrameMailbox frameMailbox = new FrameMailbox();
+    private volatile double frameRate = 0;
     private final FrameGrabber grabber;
     private Optional<Thread> frameThread;
 
@@ -136,6 +144,7 @@ public class CameraSource extends Source implements StartStoppable {
         this.eventBus = eventBus;
         this.frameOutputSocket = new OutputSocket<>(eventBus, imageOutputHint);
         this.frameRateOutputSocket = new OutputSocket<>(eventBus, frameRateOutputHint);
+        this.droppedFramesOutputSocket = new OutputSocket<>(eventBus, droppedFramesOutputHint);
         this.properties = properties;
 
         final String deviceNumberProperty = properties.getProperty(DEVICE_NUMBER_PROPERTY);
@@ -161,7 +170,22 @@ public class CameraSource extends Source implements StartStoppable {
 
     @Override
     public OutputSocket[] createOutputSockets() {
-        return new OutputSocket[]{frameOutputSocket, frameRateOutputSocket};
+        // New sockets must be added to the end of this array, since sockets are saved in project files by index.
+        return new OutputSocket[]{frameOutputSocket, frameRateOutputSocket, droppedFramesOutputSocket};
+    }
+
+    /**
+     * Publish the newest frame from the camera, if there is one that the pipeline hasn't seen yet.
+     */
+    @Override
+    public void updateOutputSockets() {
+        final Optional<FrameInfo> frameInfo = frameMailbox.take(frameOutputSocket.getValue().get());
+        if (frameInfo.isPresent()) {
+            frameOutputSocket.setFrameInfo(frameInfo);
+            frameOutputSocket.setValue(frameOutputSocket.getValue().get());
+            frameRateOutputSocket.setValue(frameRate);
+            droppedFramesOutputSocket.setValue(frameMailbox.getDroppedFrames());
+        }
     }
 
     @Override
@@ -169,6 +193,11 @@ public class CameraSource extends Source implements StartStoppable {
         return this.properties;
     }
 
+    @Override
+    public long getNativeMemoryBytes() {
+        return super.getNativeMemoryBytes() + frameMailbox.getNativeMemoryBytes();
+    }
+
     @Override
     public void initialize() throws IOException {
         start();
@@ -201,6 +230,11 @@ public class CameraSource extends Source implements StartStoppable {
                         } catch (FrameGrabber.Exception e) {
                             throw new IllegalStateException("Failed to grab image", e);
                         }
+                        // A local camera doesn't say when the frame was exposed, so the time it was handed to us is
+                        // the best estimate.  An IP camera frame is timestamped as soon as it starts arriving.
+                        final long captureTime = grabber instanceof IPCameraFrameGrabber
+                                ? ((IPCameraFrameGrabber) grabber).getFrameArrivalNanos()
+                                : System.nanoTime();
 
                         final Mat frameMat = convertToMat.convert(videoFrame);
 
@@ -209,13 +243,14 @@ public class CameraSource extends Source implements StartStoppable {
                             continue; // Do not update the camera frame.
                         }
 
-                        frameMat.copyTo(frameOutputSocket.getValue().get());
-                        frameOutputSocket.setValue(frameOutputSocket.getValue().get());
-
                         final long thisMoment = System.nanoTime();
                         final long elapsedTime = thisMoment - lastFrame;
-                        if (elapsedTime != 0) frameRateOutputSocket.setValue(1e9 / elapsedTime);
+                        if (elapsedTime != 0) frameRate = 1e9 / elapsedTime;
                         lastFrame = thisMoment;
+
+                        // Never wait for the pipeline here.  If it hasn't taken the last frame yet, it is replaced.
+                        frameMailbox.offer(frameMat, captureTime);
+                        notifyPendingUpdate();
                         getExceptionWitness().clearException();
                     }
                 } finally {
@@ -227,6 +262,7 @@ public class CameraSource extends Source implements StartStoppable {
                     // If this thread was interrupted than exit without doing this cleanup step
                     if (!Thread.currentThread().isInterrupted()) {
                         eventBus.post(new StartedStoppedEvent(this));
+                        frameRate = 0;
                         frameRateOutputSocket.setValue(0);
                     }
                 }
@@ -297,6 +333,7 @@ public class CameraSource extends Source implements StartStoppable {
             }
         }
         eventBus.post(new StartedStoppedEvent(this));
+        frameRate = 0;
         frameRateOutputSocket.setValue(0);
     }
 
@@ -0,0 +1,106 @@
+package edu.wpi.grip.core.sources;
+
+import edu.wpi.grip.core.FrameInfo;
+import edu.wpi.grip.core.metrics.NativeMemory;
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A single-slot mailbox that sits between a thread producing frames (such as a camera) and the pipeline.
+ * <p>
+ * The producer never waits for the pipeline.  Each new frame overwrites the one in the slot, so when the pipeline
+ * can't keep up it always gets the newest frame instead of working through a backlog of stale ones.  Every frame that
+ * is overwritten before the pipeline takes it is counted as a dropped frame.
+ * <p>
+ * A frame is only copied once, by the producer, into a buffer that only it uses.  The lock is then held just long
+ * enough to swap that buffer with the slot, and taking a frame swaps the slot with the destination, so neither side
+ * ever waits for the other to copy a whole frame.
+ */
+public class FrameMailbox {
+    /**
+     * The buffer that the producer copies each new frame into.  This is guarded by its own monitor, so producers
+     * only wait for each other.
+     */
+    private final Mat pending = new Mat();
+    private final Mat slot = new Mat();
+    private final Mat swapHeader = new Mat();
+    private boolean full = false;
+    private long droppedFrames = 0;
+    private long sequenceNumber = 0;
+    private long captureNanos = 0;
+
+    /**
+     * Copy a new frame into the mailbox, replacing the frame that is waiting there if the pipeline hasn't taken it
+     * yet.
+     *
+     * @param frame        The newest frame from the producer
+     * @param captureNanos The value of {@link System#nanoTime()} when the frame was captured
+     */
+    public void offer(Mat frame, long captureNanos) {
+        checkNotNull(frame, "Frame can not be null");
+        synchronized (pending) {
+            frame.copyTo(pending);
+            synchronized (this) {
+                if (full) {
+                    droppedFrames++;
+                }
+                swap(pending, slot);
+                full = true;
+                sequenceNumber++;
+                this.captureNanos = captureNanos;
+            }
+        }
+    }
+
+    /**
+     * Move the waiting frame (if there is one) into the destination and empty the mailbox.  No pixels are copied: the
+     * destination takes the slot's buffer, and its old buffer is reused for a later frame.
+     *
+     * @param destination The Mat to move the frame into.  This is usually the value of a source's output socket.
+     * @return The sequence number and capture time of the frame, or empty if there was no new frame to take
+     */
+    public synchronized Optional<FrameInfo> take(Mat destination) {
+        checkNotNull(destination, "Destination can not be null");
+        if (!full) {
+            return Optional.empty();
+        }
+        swap(slot, destination);
+        full = false;
+        return Optional.of(new FrameInfo(sequenceNumber, captureNanos));
+    }
+
+    /**
+     * Swap the buffers that two Mat headers point to
+     */
+    private void swap(Mat a, Mat b) {
+        swapHeader.put(a);
+        a.put(b);
+        b.put(swapHeader);
+        swapHeader.release();
+    }
+
+    public long getNativeMemoryBytes() {
+        synchronized (pending) {
+            synchronized (this) {
+                return NativeMemory.sizeOf(pending) + NativeMemory.sizeOf(slot);
+            }
+        }
+    }
+
+    /**
+     * @return true if there is a frame waiting to be taken
+     */
+    public synchronized boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return The total number of frames that were overwritten before they could be taken
+     */
+    public synchronized long getDroppedFrames() {
+        return droppedFrames;
+    }
+}
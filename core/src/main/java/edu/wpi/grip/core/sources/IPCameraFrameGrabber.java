@@ -78,6 +78,7 @@ public class IPCameraFrameGrabber extends FrameGrabber {
     private String boundryKey;
     private IplImage decoded = null;
     private FrameConverter<IplImage> converter = new OpenCVFrameConverter.ToIplImage();
+    private volatile long frameArrivalNanos = 0;
 
     public IPCameraFrameGrabber(String urlstr) throws MalformedURLException {
         url = new URL(urlstr);
@@ -144,6 +145,13 @@ public class IPCameraFrameGrabber extends FrameGrabber {
         }
     }
 
+    /**
+     * @return The value of {@link System#nanoTime()} when the last frame that was grabbed started arriving
+     */
+    public long getFrameArrivalNanos() {
+        return frameArrivalNanos;
+    }
+
     public BufferedImage grabBufferedImage() throws IOException {
         BufferedImage bi = ImageIO.read(new ByteArrayInputStream(readImage()));
         return bi;
@@ -168,6 +176,10 @@ public class IPCameraFrameGrabber extends FrameGrabber {
                 }
             }
         }
+        // The part header is sent right before the image, so this is the closest thing to a capture time that an
+        // MJPEG stream gives us.
+        frameArrivalNanos = System.nanoTime();
+
         // find embedded jpeg in stream
         String subheader = sb.toString();
         //log.debug(subheader);
@@ -140,19 +140,36 @@ public final class MultiImageFileSource extends Source implements PreviousNext {
     }
 
     /**
-     * Assigns the output socket to the next image. (Wraps around)
+     * Moves to the next image. (Wraps around)
+     * The output socket is assigned the next time the pipeline runs, so steps never see a new image part way through
+     * a pass.
      */
     @Override
     public final void next() {
-        outputSocket.setValue(addIndexAndGetImageByOffset(+1));
+        addIndexAndGetImageByOffset(+1);
+        notifyPendingUpdate();
     }
 
     /**
-     * Assigns the output socket to the previous image. (Wraps around)
+     * Moves to the previous image. (Wraps around)
+     * The output socket is assigned the next time the pipeline runs, so steps never see a new image part way through
+     * a pass.
      */
     @Override
     public final void previous() {
-        outputSocket.setValue(addIndexAndGetImageByOffset(-1));
+        addIndexAndGetImageByOffset(-1);
+        notifyPendingUpdate();
+    }
+
+    /**
+     * Assigns the output socket to the current image, if it has changed.
+     */
+    @Override
+    public void updateOutputSockets() {
+        final Mat image = addIndexAndGetImageByOffset(0);
+        if (outputSocket.getValue().orElse(null) != image) {
+            outputSocket.setValue(image);
+        }
     }
 
     private static String getPathProperty(int index) {
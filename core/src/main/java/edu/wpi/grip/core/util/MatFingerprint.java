@@ -0,0 +1,59 @@
+package edu.wpi.grip.core.util;
+
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Computes a 64-bit hash of the contents of a {@link Mat}.  This is a single pass over the pixels that doesn't copy the
+ * image, which is much cheaper than almost any operation, so it can be used to tell whether an image has really changed
+ * before doing anything expensive with it.
+ */
+public final class MatFingerprint {
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private MatFingerprint() {
+        /* no op */
+    }
+
+    /**
+     * @return A hash of the size, type, and pixels of the given image.  Two images with the same fingerprint almost
+     * certainly have the same contents.
+     */
+    public static long of(Mat mat) {
+        checkNotNull(mat, "Mat can not be null");
+        long hash = mix(mix(mix(17, mat.rows()), mat.cols()), mat.type());
+        if (mat.empty()) {
+            return hash;
+        }
+
+        final int rowBytes = (int) (mat.cols() * mat.elemSize());
+        if (mat.isContinuous()) {
+            return hashBuffer(hash, mat.data().capacity(rowBytes * mat.rows()).asByteBuffer());
+        }
+
+        // A sub-matrix has gaps between its rows, so each row has to be hashed separately
+        for (int row = 0; row < mat.rows(); row++) {
+            final BytePointer rowPointer = mat.ptr(row);
+            hash = hashBuffer(hash, rowPointer.capacity(rowBytes).asByteBuffer());
+        }
+        return hash;
+    }
+
+    private static long hashBuffer(long hash, ByteBuffer buffer) {
+        while (buffer.remaining() >= Long.BYTES) {
+            hash = mix(hash, buffer.getLong());
+        }
+        while (buffer.hasRemaining()) {
+            hash = mix(hash, buffer.get());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * MULTIPLIER;
+    }
+}
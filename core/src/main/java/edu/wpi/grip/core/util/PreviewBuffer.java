@@ -0,0 +1,112 @@
+package edu.wpi.grip.core.util;
+
+import edu.wpi.grip.core.Socket;
+import org.bytedeco.javacpp.opencv_core.Mat;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A copy of the image in a socket that a preview owns, so the GUI never reads a {@link Mat} that the pipeline might be
+ * writing into or reallocating at the same time.
+ * <p>
+ * The thread that posts {@link edu.wpi.grip.core.events.SocketChangedEvent SocketChangedEvents} calls
+ * {@link #update(Socket.Snapshot)} to copy the image, and the thread that draws the preview calls {@link #read()} to
+ * get the newest copy.  There are three copies, so neither thread ever waits for the other to finish with one: one
+ * being written, one that's ready to be read, and one that's being drawn.
+ *
+ * @param <T> The type of value in the socket
+ */
+public final class PreviewBuffer<T> {
+
+    /**
+     * One copy of a value.  The image is owned by the preview, but the value itself isn't copied, so only the parts of
+     * it that the pipeline never changes (like the lines in a {@link edu.wpi.grip.core.operations.composite.LinesReport})
+     * should be read.
+     *
+     * @param <T> The type of value in the socket
+     */
+    public static final class Frame<T> {
+        private Optional<T> value = Optional.empty();
+        private final Mat image = new Mat();
+
+        private Frame() {
+            /* no op */
+        }
+
+        public Optional<T> getValue() {
+            return value;
+        }
+
+        /**
+         * @return The copy of the image, or an empty Mat if there isn't one
+         */
+        public Mat getImage() {
+            return image;
+        }
+    }
+
+    private final Function<? super T, Mat> imageOf;
+
+    private Frame<T> writing = new Frame<>();
+    private Frame<T> ready = new Frame<>();
+    private Frame<T> drawing = new Frame<>();
+    private boolean readyIsNew = false;
+
+    /**
+     * @param imageOf Gets the image to copy out of a value, like the input image of a report
+     */
+    public PreviewBuffer(Function<? super T, Mat> imageOf) {
+        this.imageOf = checkNotNull(imageOf, "imageOf can not be null");
+    }
+
+    /**
+     * Copy the value in a snapshot of a socket.  This should be called from a subscriber to
+     * {@link edu.wpi.grip.core.events.SocketChangedEvent SocketChangedEvents}, since the
+     * {@link edu.wpi.grip.core.PipelineExecutor} keeps the steps that write the socket's image from running while
+     * those are posted.  If the value was replaced before or while it was copied, the copy is thrown away, and the next
+     * event will bring the new value.
+     *
+     * @return true if there's a new copy to {@link #read()}
+     */
+    public boolean update(Socket.Snapshot<T> snapshot) {
+        if (!snapshot.isCurrent()) {
+            return false;
+        }
+
+        final Optional<T> value = snapshot.getValue();
+        if (value.isPresent()) {
+            imageOf.apply(value.get()).copyTo(writing.image);
+        } else {
+            writing.image.release();
+        }
+        if (!snapshot.isCurrent()) {
+            return false;
+        }
+        writing.value = value;
+
+        synchronized (this) {
+            final Frame<T> written = writing;
+            writing = ready;
+            ready = written;
+            readyIsNew = true;
+        }
+        return true;
+    }
+
+    /**
+     * @return The newest copy.  It isn't changed until the next time this is called, so only the thread that draws the
+     * preview should call this.
+     */
+    public synchronized Frame<T> read() {
+        if (readyIsNew) {
+            final Frame<T> newest = ready;
+            ready = drawing;
+            drawing = newest;
+            readyIsNew = false;
+        }
+        return drawing;
+    }
+}
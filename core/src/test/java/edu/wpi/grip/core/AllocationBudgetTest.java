@@ -0,0 +1,232 @@
+package edu.wpi.grip.core;
+
+import com.google.common.eventbus.EventBus;
+import edu.wpi.grip.core.operations.composite.BlurOperation;
+import edu.wpi.grip.core.operations.composite.ContoursReport;
+import edu.wpi.grip.core.operations.composite.ConvexHullsOperation;
+import edu.wpi.grip.core.operations.composite.DesaturateOperation;
+import edu.wpi.grip.core.operations.composite.FilterContoursOperation;
+import edu.wpi.grip.core.operations.composite.FilterLinesOperation;
+import edu.wpi.grip.core.operations.composite.FindBlobsOperation;
+import edu.wpi.grip.core.operations.composite.FindContoursOperation;
+import edu.wpi.grip.core.operations.composite.FindLinesOperation;
+import edu.wpi.grip.core.operations.composite.HSLThresholdOperation;
+import edu.wpi.grip.core.operations.composite.HSVThresholdOperation;
+import edu.wpi.grip.core.operations.composite.LinesReport;
+import edu.wpi.grip.core.operations.composite.MaskOperation;
+import edu.wpi.grip.core.operations.composite.RGBThresholdOperation;
+import edu.wpi.grip.core.operations.composite.RegionOfInterestOperation;
+import edu.wpi.grip.core.operations.opencv.MatFieldAccessor;
+import edu.wpi.grip.core.operations.opencv.MinMaxLoc;
+import edu.wpi.grip.core.operations.opencv.NewPointOperation;
+import edu.wpi.grip.core.operations.opencv.NewSizeOperation;
+import edu.wpi.grip.core.util.ImageLoadingUtility;
+import edu.wpi.grip.core.util.MockExceptionWitness;
+import edu.wpi.grip.util.AllocationMeter;
+import edu.wpi.grip.util.Files;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.bytedeco.javacpp.opencv_core.inRange;
+import static org.bytedeco.javacpp.opencv_imgproc.COLOR_BGR2GRAY;
+import static org.bytedeco.javacpp.opencv_imgproc.cvtColor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Makes sure that each built-in operation keeps allocating about the same amount of memory once it has warmed up.
+ * <p>
+ * Every frame that the pipeline runs, each step runs again, so anything a step allocates is allocated many times a
+ * second.  On a small device like the roboRIO, that means long garbage collection pauses, and native memory that's
+ * only freed when the garbage collector gets around to it.  Each operation here has a budget of heap bytes per frame.
+ * If a change makes an operation go over its budget, either the change should be fixed, or, if the extra allocation
+ * is really needed, the budget should be raised.  When an operation gets better, its budget should be lowered, so it
+ * can't get worse again without anyone noticing.
+ * <p>
+ * Native memory is checked too.  Once an operation has warmed up, it shouldn't need any new Mats from the
+ * {@link MatPool}, and the native memory held by its step shouldn't grow.
+ */
+public class AllocationBudgetTest {
+    private static final int WARMUP_FRAMES = 200;
+    private static final int MEASURED_FRAMES = 100;
+
+    private EventBus eventBus;
+    private MatPool matPool;
+    private Step.Factory stepFactory;
+    private Mat image;
+    private Mat gray;
+    private Mat binary;
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue("This JVM can't measure allocations", AllocationMeter.isSupported());
+
+        eventBus = new EventBus();
+        matPool = new MatPool();
+        stepFactory = new Step.Factory(eventBus, origin -> new MockExceptionWitness(eventBus, origin), matPool);
+
+        image = new Mat();
+        ImageLoadingUtility.loadImage(Files.gompeiJpegFile.file.getPath(), image);
+        gray = new Mat();
+        cvtColor(image, gray, COLOR_BGR2GRAY);
+        binary = new Mat();
+        inRange(image, new Mat(1, 1, image.type(), new Scalar(0, 0, 0, 0)),
+                new Mat(1, 1, image.type(), new Scalar(128, 128, 128, 0)), binary);
+    }
+
+    @Test
+    public void testBlur() {
+        assertWithinBudget(new BlurOperation(), 512, image, 2, 3.0);
+    }
+
+    @Test
+    public void testDesaturate() {
+        assertWithinBudget(new DesaturateOperation(), 256, image);
+    }
+
+    @Test
+    public void testRGBThreshold() {
+        assertWithinBudget(new RGBThresholdOperation(), 512, image);
+    }
+
+    @Test
+    public void testHSVThreshold() {
+        assertWithinBudget(new HSVThresholdOperation(), 512, image);
+    }
+
+    @Test
+    public void testHSLThreshold() {
+        assertWithinBudget(new HSLThresholdOperation(), 512, image);
+    }
+
+    @Test
+    public void testFindContours() {
+        assertWithinBudget(new FindContoursOperation(), 512, binary);
+    }
+
+    // The report operations allocate Java arrays for each contour or line, so their budgets depend on the test image
+    @Test
+    public void testFilterContours() {
+        assertWithinBudget(new FilterContoursOperation(), 100_000, findContours());
+    }
+
+    @Test
+    public void testConvexHulls() {
+        assertWithinBudget(new ConvexHullsOperation(), 64_000, findContours());
+    }
+
+    @Test
+    public void testFindBlobs() {
+        assumeTrue("The blob detector isn't available on this platform", isBlobDetectorAvailable());
+        assertWithinBudget(new FindBlobsOperation(), 16_000, image);
+    }
+
+    @Test
+    public void testFindLines() {
+        assertWithinBudget(new FindLinesOperation(), 40_000, image);
+    }
+
+    @Test
+    public void testFilterLines() {
+        assertWithinBudget(new FilterLinesOperation(), 2_000, findLines());
+    }
+
+    @Test
+    public void testMask() {
+        assertWithinBudget(new MaskOperation(), 256, image, 1, binary);
+    }
+
+    @Test
+    public void testRegionOfInterest() {
+        assertWithinBudget(new RegionOfInterestOperation(), 384, image,
+                1, Arrays.asList(25.0, 75.0), 2, Arrays.asList(0.0, 50.0));
+    }
+
+    @Test
+    public void testMinMaxLoc() {
+        assertWithinBudget(new MinMaxLoc(), 768, gray);
+    }
+
+    @Test
+    public void testNewPoint() {
+        assertWithinBudget(new NewPointOperation(), 64, 1.0);
+    }
+
+    @Test
+    public void testNewSize() {
+        assertWithinBudget(new NewSizeOperation(), 64, 1.0);
+    }
+
+    @Test
+    public void testMatFieldAccessor() {
+        assertWithinBudget(new MatFieldAccessor(), 1_280, image);
+    }
+
+    /**
+     * Run an operation until it has warmed up, then make sure it stays within its budget.
+     *
+     * @param budgetBytes   The most heap that the operation may allocate each frame, including what the step and
+     *                      sockets allocate to run it
+     * @param input         The value of the first input.  It's set again before every frame, like a new camera frame.
+     * @param otherInputs   Pairs of input indexes and values for any other inputs that shouldn't keep their defaults
+     */
+    @SuppressWarnings("unchecked")
+    private void assertWithinBudget(Operation operation, long budgetBytes, Object input, Object... otherInputs) {
+        final Step step = stepFactory.create(operation);
+        final InputSocket<Object> firstInput = (InputSocket<Object>) step.getInputSockets()[0];
+        firstInput.setValue(input);
+        for (int i = 0; i < otherInputs.length; i += 2) {
+            ((InputSocket<Object>) step.getInputSockets()[(Integer) otherInputs[i]]).setValue(otherInputs[i + 1]);
+        }
+
+        final Runnable frame = () -> {
+            firstInput.setValue(input);
+            step.runPerformIfPossible();
+        };
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame.run();
+        }
+
+        final long nativeBytes = step.getNativeMemoryBytes();
+        final long poolMisses = matPool.getMisses();
+        final long bytesPerFrame = AllocationMeter.measure(MEASURED_FRAMES, frame);
+
+        assertTrue(operation.getName() + " allocated " + bytesPerFrame + " bytes of heap per frame, which is over its "
+                + "budget of " + budgetBytes + " bytes", bytesPerFrame <= budgetBytes);
+        assertEquals(operation.getName() + " needed new Mats from the pool after warming up",
+                poolMisses, matPool.getMisses());
+        assertEquals(operation.getName() + " is holding more native memory after warming up",
+                nativeBytes, step.getNativeMemoryBytes());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ContoursReport findContours() {
+        final Step step = stepFactory.create(new FindContoursOperation());
+        ((InputSocket<Mat>) step.getInputSockets()[0]).setValue(binary);
+        step.runPerformIfPossible();
+        return (ContoursReport) step.getOutputSockets()[0].getValue().get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private LinesReport findLines() {
+        final Step step = stepFactory.create(new FindLinesOperation());
+        ((InputSocket<Mat>) step.getInputSockets()[0]).setValue(image);
+        step.runPerformIfPossible();
+        return (LinesReport) step.getOutputSockets()[0].getValue().get();
+    }
+
+    private static boolean isBlobDetectorAvailable() {
+        try {
+            Class.forName("org.bytedeco.javacpp.opencv_features2d$SimpleBlobDetector$Params");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package edu.wpi.grip.core;
 
 import com.google.common.eventbus.EventBus;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
 import edu.wpi.grip.core.events.ConnectionRemovedEvent;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Optional;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class ConnectionTest {
     private static final Number testValue = Double.valueOf(12345.6789);
@@ -38,6 +42,7 @@ public class ConnectionTest {
     public void testInputSocketChanges() {
         final Connection<Number> connection = new Connection(eventBus, new MockPipeline(), foo, bar);
         eventBus.register(connection);
+        eventBus.post(new ConnectionAddedEvent(connection));
 
         foo.setValue(testValue);
         assertEquals(testValue, bar.getValue().get());
@@ -45,6 +50,21 @@ public class ConnectionTest {
         eventBus.unregister(connection);
     }
 
+    @Test
+    public void testInputSocketGetsFrameInfoWhenConnected() {
+        final FrameInfo frameInfo = new FrameInfo(3, System.nanoTime());
+        foo.setFrameInfo(Optional.of(frameInfo));
+        foo.setValue(testValue);
+
+        final Connection<Number> connection = new Connection<>(eventBus, new MockPipeline(), foo, bar);
+        eventBus.register(connection);
+        eventBus.post(new ConnectionAddedEvent(connection));
+
+        assertSame("The frame info should be copied along with the value", frameInfo, bar.getFrameInfo().get());
+
+        eventBus.unregister(connection);
+    }
+
     @Test
     public void testInputSocketResets() {
         final Connection<Number> connection = new Connection<>(eventBus, new MockPipeline(), foo, bar);
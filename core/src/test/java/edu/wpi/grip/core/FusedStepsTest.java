@@ -0,0 +1,167 @@
+package edu.wpi.grip.core;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import edu.wpi.grip.core.operations.composite.DesaturateOperation;
+import edu.wpi.grip.core.operations.composite.HSVThresholdOperation;
+import edu.wpi.grip.core.operations.composite.MaskOperation;
+import edu.wpi.grip.core.util.ImageLoadingUtility;
+import edu.wpi.grip.util.Files;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.bytedeco.javacpp.opencv_core.NORM_INF;
+import static org.bytedeco.javacpp.opencv_core.countNonZero;
+import static org.bytedeco.javacpp.opencv_core.norm;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FusedStepsTest {
+    private EventBus eventBus;
+    private Pipeline pipeline;
+    private PipelineExecutor pipelineExecutor;
+    private Step.Factory stepFactory;
+    private Mat image;
+
+    private Step threshold;
+    private Step mask;
+    private Step desaturate;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        eventBus = injector.getInstance(EventBus.class);
+        pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
+        stepFactory = injector.getInstance(Step.Factory.class);
+
+        image = new Mat();
+        ImageLoadingUtility.loadImage(Files.gompeiJpegFile.file.getPath(), image);
+
+        // Threshold the image, use that to mask the image, and make the result gray
+        threshold = stepFactory.create(new HSVThresholdOperation());
+        mask = stepFactory.create(new MaskOperation());
+        desaturate = stepFactory.create(new DesaturateOperation());
+        pipeline.addStep(threshold);
+        pipeline.addStep(mask);
+        pipeline.addStep(desaturate);
+        connect((OutputSocket<Mat>) threshold.getOutputSockets()[0], (InputSocket<Mat>) mask.getInputSockets()[1]);
+        connect((OutputSocket<Mat>) mask.getOutputSockets()[0], (InputSocket<Mat>) desaturate.getInputSockets()[0]);
+
+        ((InputSocket<Mat>) threshold.getInputSockets()[0]).setValue(image);
+        ((InputSocket<Object>) threshold.getInputSockets()[1]).setValue(Arrays.asList(0.0, 90.0));
+        ((InputSocket<Object>) threshold.getInputSockets()[2]).setValue(Arrays.asList(0.0, 255.0));
+        ((InputSocket<Object>) threshold.getInputSockets()[3]).setValue(Arrays.asList(50.0, 255.0));
+        ((InputSocket<Mat>) mask.getInputSockets()[0]).setValue(image);
+    }
+
+    private void connect(OutputSocket<Mat> outputSocket, InputSocket<Mat> inputSocket) {
+        final Connection<Mat> connection = new Connection<>(eventBus, pipeline, outputSocket, inputSocket);
+        eventBus.register(connection);
+        eventBus.post(new ConnectionAddedEvent(connection));
+    }
+
+    private Mat getOutput(Step step) {
+        return (Mat) step.getOutputSockets()[0].getValue().get();
+    }
+
+    private static void assertSameImage(Mat expected, Mat actual) {
+        assertEquals("Rows", expected.rows(), actual.rows());
+        assertEquals("Columns", expected.cols(), actual.cols());
+        assertEquals("Type", expected.type(), actual.type());
+        assertEquals("Pixels", 0.0, norm(expected, actual, NORM_INF, new Mat()), 0.0);
+    }
+
+    @Test
+    public void testChainIsPlannedAsOneGroup() {
+        final Map<Step, FusedSteps> plan = FusedSteps.plan(pipeline.getStepGraph());
+
+        assertEquals(3, plan.size());
+        assertSame("Every step should be in the same group", plan.get(threshold), plan.get(desaturate));
+        assertEquals(Arrays.asList(threshold, mask, desaturate), plan.get(mask).getSteps());
+        assertSame(desaturate, plan.get(mask).getTail());
+    }
+
+    @Test
+    public void testPreviewedStepIsNotFused() {
+        mask.getOutputSockets()[0].setPreviewed(true);
+
+        final Map<Step, FusedSteps> plan = FusedSteps.plan(pipeline.getStepGraph());
+
+        assertSame(mask, plan.get(threshold).getTail());
+        assertFalse("The step after a previewed step should not be fused", plan.containsKey(desaturate));
+    }
+
+    @Test
+    public void testFusedResultIsTheSameAsRunningEachStep() {
+        pipelineExecutor.setFusionEnabled(false);
+        pipelineExecutor.runPipeline();
+        final Mat expected = getOutput(desaturate).clone();
+        assertTrue("The threshold should let some of the image through", countNonZero(expected) > 0);
+
+        pipelineExecutor.setFusionEnabled(true);
+        pipelineExecutor.runPipeline();
+
+        assertSameImage(expected, getOutput(desaturate));
+    }
+
+    @Test
+    public void testIntermediateResultsAreNotStored() {
+        pipelineExecutor.runPipeline();
+
+        assertFalse("The fused result should be set", getOutput(desaturate).empty());
+        assertTrue("The threshold shouldn't have written a full-size image", getOutput(threshold).empty());
+        assertTrue("The mask shouldn't have written a full-size image", getOutput(mask).empty());
+    }
+
+    @Test
+    public void testIntermediateResultIsStoredOncePreviewed() {
+        pipelineExecutor.runPipeline();
+        mask.getOutputSockets()[0].setPreviewed(true);
+        pipelineExecutor.runPipeline();
+        final Mat previewed = getOutput(mask).clone();
+
+        pipelineExecutor.setFusionEnabled(false);
+        pipelineExecutor.runPipeline();
+
+        assertFalse("The previewed result should be set", previewed.empty());
+        assertSameImage(getOutput(mask), previewed);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGroupIsNotRunAgainUntilAnInputChanges() {
+        final FusedSteps group = FusedSteps.plan(pipeline.getStepGraph()).get(threshold);
+
+        assertTrue(group.run(false));
+        assertTrue(group.run(false));
+        assertEquals("The group should only run once with the same inputs",
+                1, desaturate.getWallTime().summarize(System.nanoTime()).getCount());
+
+        ((InputSocket<Object>) threshold.getInputSockets()[3]).setValue(Arrays.asList(100.0, 255.0));
+        assertTrue(group.run(false));
+        assertEquals("The group should run again once an input changes",
+                2, desaturate.getWallTime().summarize(System.nanoTime()).getCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStepsRunSeparatelyWhenImagesAreDifferentSizes() {
+        final Mat smallImage = image.rowRange(0, image.rows() / 2).clone();
+        ((InputSocket<Mat>) mask.getInputSockets()[0]).setValue(smallImage);
+
+        pipelineExecutor.runPipeline();
+
+        assertFalse("The threshold should have run on its own", getOutput(threshold).empty());
+    }
+}
@@ -0,0 +1,84 @@
+package edu.wpi.grip.core;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MatPoolTest {
+
+    @Test
+    public void testBorrowedMatHasRequestedShape() {
+        final Mat mat = new MatPool().borrow(20, 10, CV_8UC3);
+        assertEquals(20, mat.rows());
+        assertEquals(10, mat.cols());
+        assertEquals(CV_8UC3, mat.type());
+    }
+
+    @Test
+    public void testReleasedMatIsReused() {
+        final MatPool pool = new MatPool();
+        final Mat mat = pool.borrow(10, 10, CV_8UC1);
+        pool.release(mat);
+        assertEquals(100, pool.getIdleBytes());
+
+        assertSame(mat, pool.borrow(10, 10, CV_8UC1));
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertEquals(0, pool.getIdleBytes());
+    }
+
+    @Test
+    public void testMatOfDifferentShapeIsNotReused() {
+        final MatPool pool = new MatPool();
+        final Mat mat = pool.borrow(10, 10, CV_8UC1);
+        pool.release(mat);
+
+        assertNotSame(mat, pool.borrow(10, 10, CV_8UC3));
+        assertNotSame(mat, pool.borrow(10, 20, CV_8UC1));
+        assertEquals(0, pool.getHits());
+    }
+
+    @Test
+    public void testPoolDoesNotGoOverCapacity() {
+        final MatPool pool = new MatPool(150);
+        pool.release(new Mat(10, 10, CV_8UC1));
+        pool.release(new Mat(10, 10, CV_8UC1));
+        assertEquals(100, pool.getIdleBytes());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedShapeIsEvicted() {
+        final MatPool pool = new MatPool(200);
+        final Mat square = new Mat(10, 10, CV_8UC1);
+        pool.release(square);
+        pool.release(new Mat(1, 100, CV_8UC1));
+
+        // Using the square shape makes the row shape the least recently used one
+        pool.release(pool.borrow(10, 10, CV_8UC1));
+        pool.release(new Mat(2, 50, CV_8UC1));
+        assertEquals(200, pool.getIdleBytes());
+
+        assertSame(square, pool.borrow(10, 10, CV_8UC1));
+        pool.borrow(1, 100, CV_8UC1);
+        assertEquals("The least recently used shape should have been evicted", 1, pool.getMisses());
+    }
+
+    @Test
+    public void testEmptyMatIsNotPooled() {
+        final MatPool pool = new MatPool();
+        pool.release(new Mat());
+        assertEquals(0, pool.getIdleBytes());
+    }
+
+    @Test
+    public void testMatLargerThanCapacityIsNotPooled() {
+        final MatPool pool = new MatPool(10);
+        pool.release(new Mat(10, 10, CV_8UC1));
+        assertEquals(0, pool.getIdleBytes());
+    }
+}
@@ -8,11 +8,11 @@ import java.util.Optional;
 public class MockStep extends Step {
 
     public MockStep() {
-        super(null, new InputSocket[0], new OutputSocket[0], Optional.empty(), origin -> null);
+        super(null, new InputSocket[0], new OutputSocket[0], Optional.empty(), new MatPool(), origin -> null);
     }
 
     public static Step createMockStepWithOperation() {
         final EventBus eventBus = new EventBus();
-        return new Step.Factory(eventBus, origin -> new MockExceptionWitness(eventBus, origin)).create(new MockOperation());
+        return new Step.Factory(eventBus, origin -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(new MockOperation());
     }
 }
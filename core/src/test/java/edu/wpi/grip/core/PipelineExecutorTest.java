@@ -0,0 +1,625 @@
+package edu.wpi.grip.core;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import edu.wpi.grip.core.events.ProjectSettingsChangedEvent;
+import edu.wpi.grip.core.events.SocketChangedEvent;
+import edu.wpi.grip.core.events.SourceAddedEvent;
+import edu.wpi.grip.core.events.UnexpectedThrowableEvent;
+import edu.wpi.grip.core.settings.ProjectSettings;
+import net.jodah.concurrentunit.Waiter;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineExecutorTest {
+    private EventBus eventBus;
+    private Pipeline pipeline;
+    private PipelineExecutor pipelineExecutor;
+    private Step.Factory stepFactory;
+    private AtomicInteger performCount;
+    private Operation countingAddition;
+
+    @Before
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        eventBus = injector.getInstance(EventBus.class);
+        pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
+        stepFactory = injector.getInstance(Step.Factory.class);
+
+        performCount = new AtomicInteger();
+        countingAddition = new AdditionOperation() {
+            @Override
+            public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                performCount.incrementAndGet();
+                super.perform(inputs, outputs);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        pipelineExecutor.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStepIsNotPerformedOnTheCallingThread() {
+        final Step step = stepFactory.create(countingAddition);
+        pipeline.addStep(step);
+        performCount.set(0);
+
+        ((InputSocket<Number>) step.getInputSockets()[0]).setValue(1.0);
+
+        assertEquals("The step should not run until the pipeline runs", 0, performCount.get());
+        pipelineExecutor.runPipeline();
+        assertEquals(1, performCount.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStepWithSeveralChangedInputsIsPerformedOnce() {
+        final Step step = stepFactory.create(countingAddition);
+        pipeline.addStep(step);
+        performCount.set(0);
+
+        ((InputSocket<Number>) step.getInputSockets()[0]).setValue(1.0);
+        ((InputSocket<Number>) step.getInputSockets()[1]).setValue(2.0);
+        pipelineExecutor.runPipeline();
+        pipelineExecutor.runPipeline();
+
+        assertEquals("The step should only run once for both changes", 1, performCount.get());
+        assertEquals((Double) 3.0, step.getOutputSockets()[0].getValue().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInputsFromTheSameUpstreamStepAreCoalesced() {
+        // An operation with two outputs that always add up to zero
+        final Operation plusMinus = new AdditionOperation() {
+            @Override
+            public OutputSocket[] createOutputSockets(EventBus eventBus) {
+                return new OutputSocket[]{
+                        new OutputSocket<>(eventBus, SocketHints.Outputs.createNumberSocketHint("plus", 0.0)),
+                        new OutputSocket<>(eventBus, SocketHints.Outputs.createNumberSocketHint("minus", 0.0))
+                };
+            }
+
+            @Override
+            public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                final double value = ((InputSocket<Number>) inputs[0]).getValue().get().doubleValue();
+                outputs[0].setValue(value);
+                outputs[1].setValue(-value);
+            }
+        };
+        final AtomicInteger mismatchedPerforms = new AtomicInteger();
+        final Operation checkedAddition = new AdditionOperation() {
+            @Override
+            public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                performCount.incrementAndGet();
+                super.perform(inputs, outputs);
+                if (((Number) outputs[0].getValue().get()).doubleValue() != 0.0) {
+                    mismatchedPerforms.incrementAndGet();
+                }
+            }
+        };
+
+        final Step upstream = stepFactory.create(plusMinus);
+        final Step downstream = stepFactory.create(checkedAddition);
+        pipeline.addStep(upstream);
+        pipeline.addStep(downstream);
+        for (int i = 0; i < 2; i++) {
+            final Connection<Number> connection = new Connection<>(eventBus, pipeline,
+                    (OutputSocket<Number>) upstream.getOutputSockets()[i],
+                    (InputSocket<Number>) downstream.getInputSockets()[i]);
+            eventBus.register(connection);
+            eventBus.post(new ConnectionAddedEvent(connection));
+        }
+        pipelineExecutor.runPipeline();
+        performCount.set(0);
+
+        for (double value = 1; value <= 3; value++) {
+            ((InputSocket<Number>) upstream.getInputSockets()[0]).setValue(value);
+            pipelineExecutor.runPipeline();
+        }
+
+        assertEquals("The downstream step should run once per pass", 3, performCount.get());
+        assertEquals("The downstream step should never run with inputs from different passes",
+                0, mismatchedPerforms.get());
+    }
+
+    @Test
+    public void testNewStepIsPerformedWhenAdded() {
+        final Step step = stepFactory.create(countingAddition);
+        assertEquals("The step should not run when it is created", 0, performCount.get());
+
+        pipeline.addStep(step);
+        pipelineExecutor.runPipeline();
+
+        assertEquals("The step should run once it is added to the pipeline", 1, performCount.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConnectedStepsArePerformedInOnePass() {
+        final Step step1 = stepFactory.create(countingAddition);
+        final Step step2 = stepFactory.create(countingAddition);
+        pipeline.addStep(step1);
+        pipeline.addStep(step2);
+        final Connection<Number> connection = new Connection<>(eventBus, pipeline,
+                (OutputSocket<Number>) step1.getOutputSockets()[0],
+                (InputSocket<Number>) step2.getInputSockets()[0]);
+        eventBus.register(connection);
+        eventBus.post(new ConnectionAddedEvent(connection));
+        pipelineExecutor.runPipeline();
+        performCount.set(0);
+
+        ((InputSocket<Number>) step1.getInputSockets()[0]).setValue(1.0);
+        ((InputSocket<Number>) step1.getInputSockets()[1]).setValue(2.0);
+        ((InputSocket<Number>) step2.getInputSockets()[1]).setValue(3.0);
+        pipelineExecutor.runPipeline();
+
+        assertEquals("Each step should run exactly once", 2, performCount.get());
+        assertEquals((Double) 6.0, step2.getOutputSockets()[0].getValue().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIndependentBranchesRunConcurrently() {
+        Assume.assumeTrue("Branches can only run at the same time with more than one processor",
+                Runtime.getRuntime().availableProcessors() > 1);
+
+        // Each branch waits for the other one to start.  If the branches ran one after the other, this would time out.
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final AtomicBoolean waitForBranches = new AtomicBoolean(false);
+        final Operation waitForOtherBranch = new AdditionOperation() {
+            @Override
+            public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                try {
+                    if (waitForBranches.get()) barrier.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("The other branch did not run at the same time", e);
+                }
+                super.perform(inputs, outputs);
+            }
+        };
+
+        final Step root = stepFactory.create(countingAddition);
+        final Step left = stepFactory.create(waitForOtherBranch);
+        final Step right = stepFactory.create(waitForOtherBranch);
+        pipeline.addStep(root);
+        pipeline.addStep(left);
+        pipeline.addStep(right);
+        for (Step branch : new Step[]{left, right}) {
+            final Connection<Number> connection = new Connection<>(eventBus, pipeline,
+                    (OutputSocket<Number>) root.getOutputSockets()[0],
+                    (InputSocket<Number>) branch.getInputSockets()[0]);
+            eventBus.register(connection);
+            eventBus.post(new ConnectionAddedEvent(connection));
+        }
+        ((InputSocket<Number>) left.getInputSockets()[1]).setValue(10.0);
+        ((InputSocket<Number>) right.getInputSockets()[1]).setValue(20.0);
+
+        pipelineExecutor.runPipeline();
+
+        waitForBranches.set(true);
+        ((InputSocket<Number>) root.getInputSockets()[0]).setValue(1.0);
+        pipelineExecutor.runPipeline();
+
+        assertEquals((Double) 11.0, left.getOutputSockets()[0].getValue().get());
+        assertEquals((Double) 21.0, right.getOutputSockets()[0].getValue().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWorkerThreadRunsChangedSteps() throws Exception {
+        final Step step = stepFactory.create(countingAddition);
+        final OutputSocket<Number> sum = (OutputSocket<Number>) step.getOutputSockets()[0];
+        pipeline.addStep(step);
+        final Thread testThread = Thread.currentThread();
+
+        final Waiter waiter = new Waiter();
+        final Object listener = new Object() {
+            @Subscribe
+            public void onSocketChanged(SocketChangedEvent event) {
+                if (event.getSocket() == sum && sum.getValue().get().doubleValue() == 3.0) {
+                    waiter.assertFalse(Thread.currentThread() == testThread);
+                    waiter.resume();
+                }
+            }
+        };
+        eventBus.register(listener);
+
+        pipelineExecutor.start();
+        assertTrue(pipelineExecutor.isStarted());
+        ((InputSocket<Number>) step.getInputSockets()[0]).setValue(1.0);
+        ((InputSocket<Number>) step.getInputSockets()[1]).setValue(2.0);
+        waiter.await(1000);
+
+        pipelineExecutor.stop();
+        assertFalse(pipelineExecutor.isStarted());
+        eventBus.unregister(listener);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWorkerThreadSurvivesAFailedPass() throws Exception {
+        final AtomicBoolean failed = new AtomicBoolean();
+        final Source source = new Source(origin -> null) {
+            @Override
+            public String getName() {
+                return "Failing Source";
+            }
+
+            @Override
+            protected OutputSocket[] createOutputSockets() {
+                return new OutputSocket[0];
+            }
+
+            @Override
+            public Properties getProperties() {
+                return new Properties();
+            }
+
+            @Override
+            public void initialize() {
+                /* no-op */
+            }
+
+            @Override
+            public void updateOutputSockets() {
+                if (!failed.getAndSet(true)) {
+                    throw new IllegalStateException("The first update fails");
+                }
+            }
+        };
+        eventBus.post(new SourceAddedEvent(source));
+
+        final Step step = stepFactory.create(countingAddition);
+        final OutputSocket<Number> sum = (OutputSocket<Number>) step.getOutputSockets()[0];
+        pipeline.addStep(step);
+
+        final Waiter waiter = new Waiter();
+        final AtomicInteger failures = new AtomicInteger();
+        final Object listener = new Object() {
+            @Subscribe
+            public void onUnexpectedThrowable(UnexpectedThrowableEvent event) {
+                failures.incrementAndGet();
+                waiter.resume();
+            }
+
+            @Subscribe
+            public void onSocketChanged(SocketChangedEvent event) {
+                if (event.getSocket() == sum && sum.getValue().get().doubleValue() == 3.0) {
+                    waiter.resume();
+                }
+            }
+        };
+        eventBus.register(listener);
+
+        // Wait for the first pass to fail before changing anything, so the change starts another pass
+        pipelineExecutor.start();
+        waiter.await(1000);
+        ((InputSocket<Number>) step.getInputSockets()[0]).setValue(1.0);
+        ((InputSocket<Number>) step.getInputSockets()[1]).setValue(2.0);
+        waiter.await(1000);
+
+        assertTrue("The worker thread should still be running", pipelineExecutor.isStarted());
+        assertEquals("The failed pass should have been reported once", 1, failures.get());
+        eventBus.unregister(listener);
+    }
+
+    @Test
+    public void testSourceWithAPendingUpdateWakesUpTheWorker() throws Exception {
+        final Waiter waiter = new Waiter();
+        final Source source = new Source(origin -> null) {
+            @Override
+            public String getName() {
+                return "Notifying Source";
+            }
+
+            @Override
+            protected OutputSocket[] createOutputSockets() {
+                return new OutputSocket[0];
+            }
+
+            @Override
+            public Properties getProperties() {
+                return new Properties();
+            }
+
+            @Override
+            public void initialize() {
+                notifyPendingUpdate();
+            }
+
+            @Override
+            public void updateOutputSockets() {
+                waiter.resume();
+            }
+        };
+        eventBus.post(new SourceAddedEvent(source));
+
+        // The first pass is made when the worker starts
+        pipelineExecutor.start();
+        waiter.await(1000);
+
+        source.initialize();
+        waiter.await(1000);
+    }
+
+    @Test
+    public void testSourcesAreUpdatedAtTheStartOfEachPass() {
+        final AtomicInteger updateCount = new AtomicInteger();
+        final Source source = new Source(origin -> null) {
+            @Override
+            public String getName() {
+                return "Counting Source";
+            }
+
+            @Override
+            protected OutputSocket[] createOutputSockets() {
+                return new OutputSocket[0];
+            }
+
+            @Override
+            public Properties getProperties() {
+                return new Properties();
+            }
+
+            @Override
+            public void initialize() {
+                /* no-op */
+            }
+
+            @Override
+            public void updateOutputSockets() {
+                updateCount.incrementAndGet();
+            }
+        };
+        eventBus.post(new SourceAddedEvent(source));
+
+        pipelineExecutor.runPipeline();
+
+        assertEquals("The source should have been updated once", 1, updateCount.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPipelinedExecution() {
+        final ProjectSettings settings = new ProjectSettings();
+        settings.setPipelinedExecution(true);
+        eventBus.post(new ProjectSettingsChangedEvent(settings));
+
+        final Step step1 = stepFactory.create(countingAddition);
+        final Step step2 = stepFactory.create(countingAddition);
+        final Step step3 = stepFactory.create(countingAddition);
+        pipeline.addStep(step1);
+        pipeline.addStep(step2);
+        pipeline.addStep(step3);
+        for (int i = 0; i < 2; i++) {
+            final Connection<Number> connection = new Connection<>(eventBus, pipeline,
+                    (OutputSocket<Number>) pipeline.getSteps().get(i).getOutputSockets()[0],
+                    (InputSocket<Number>) pipeline.getSteps().get(i + 1).getInputSockets()[0]);
+            eventBus.register(connection);
+            eventBus.post(new ConnectionAddedEvent(connection));
+        }
+        ((InputSocket<Number>) step2.getInputSockets()[1]).setValue(10.0);
+        ((InputSocket<Number>) step3.getInputSockets()[1]).setValue(100.0);
+
+        // Start several passes without waiting for the earlier ones to finish
+        for (int frame = 1; frame <= 5; frame++) {
+            ((InputSocket<Number>) step1.getInputSockets()[0]).setValue((double) frame);
+            pipelineExecutor.runPipeline();
+        }
+        pipelineExecutor.awaitPipeline();
+        pipelineExecutor.runPipeline();
+        pipelineExecutor.awaitPipeline();
+
+        assertEquals("The last step should have the result of the last frame",
+                (Double) 115.0, step3.getOutputSockets()[0].getValue().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPipelinedStepWithASlowBranchSeesOneFrame() {
+        final ProjectSettings settings = new ProjectSettings();
+        settings.setPipelinedExecution(true);
+        eventBus.post(new ProjectSettingsChangedEvent(settings));
+
+        // The frame goes down a fast branch and a slow branch, and the two are added back together.  While the join
+        // is still working on one frame, the slow branch finishes the next one.
+        final Operation slowAddition = new AdditionOperation() {
+            @Override
+            public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                sleep(20);
+                super.perform(inputs, outputs);
+            }
+        };
+        final AtomicInteger mismatchedPerforms = new AtomicInteger();
+        final Operation checkedAddition = new AdditionOperation() {
+            @Override
+            public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                final Object fast = inputs[0].getValue().get();
+                sleep(30);
+                if (!fast.equals(inputs[1].getValue().get()) || !fast.equals(inputs[0].getValue().get())) {
+                    mismatchedPerforms.incrementAndGet();
+                }
+                super.perform(inputs, outputs);
+            }
+        };
+
+        final Step frame = stepFactory.create(new AdditionOperation());
+        final Step fast = stepFactory.create(new AdditionOperation());
+        final Step slow = stepFactory.create(slowAddition);
+        final Step join = stepFactory.create(checkedAddition);
+        pipeline.addStep(frame);
+        pipeline.addStep(fast);
+        pipeline.addStep(slow);
+        pipeline.addStep(join);
+        connect((OutputSocket<Number>) frame.getOutputSockets()[0], (InputSocket<Number>) fast.getInputSockets()[0]);
+        connect((OutputSocket<Number>) frame.getOutputSockets()[0], (InputSocket<Number>) slow.getInputSockets()[0]);
+        connect((OutputSocket<Number>) fast.getOutputSockets()[0], (InputSocket<Number>) join.getInputSockets()[0]);
+        connect((OutputSocket<Number>) slow.getOutputSockets()[0], (InputSocket<Number>) join.getInputSockets()[1]);
+
+        for (int i = 1; i <= 10; i++) {
+            ((InputSocket<Number>) frame.getInputSockets()[0]).setValue((double) i);
+            pipelineExecutor.runPipeline();
+        }
+        pipelineExecutor.awaitPipeline();
+        pipelineExecutor.runPipeline();
+        pipelineExecutor.awaitPipeline();
+
+        assertEquals("The join should never read inputs from different frames", 0, mismatchedPerforms.get());
+        assertEquals("The join should have the result of the last frame",
+                (Double) 20.0, join.getOutputSockets()[0].getValue().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSocketChangedEventsAreCoalesced() {
+        final Step step = stepFactory.create(countingAddition);
+        pipeline.addStep(step);
+        pipelineExecutor.runPipeline();
+        pipelineExecutor.postSocketChangedEvents();
+
+        final AtomicInteger eventCount = new AtomicInteger();
+        final Object listener = new Object() {
+            @Subscribe
+            public void onSocketChanged(SocketChangedEvent event) {
+                if (event.getSocket() == step.getInputSockets()[0]) {
+                    eventCount.incrementAndGet();
+                }
+            }
+        };
+        eventBus.register(listener);
+
+        for (int i = 0; i < 10; i++) {
+            ((InputSocket<Number>) step.getInputSockets()[0]).setValue((double) i);
+        }
+        assertEquals("No events should be posted until the executor posts them", 0, eventCount.get());
+
+        pipelineExecutor.postSocketChangedEvents();
+        assertEquals("Only one event should be posted for all of the changes", 1, eventCount.get());
+
+        pipelineExecutor.postSocketChangedEvents();
+        assertEquals("Nothing changed, so no more events should be posted", 1, eventCount.get());
+        eventBus.unregister(listener);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDemandDrivenSkipsUnconsumedSteps() {
+        final Step step = stepFactory.create(countingAddition);
+        pipeline.addStep(step);
+        pipelineExecutor.setDemandDriven(true);
+        performCount.set(0);
+
+        ((InputSocket<Number>) step.getInputSockets()[0]).setValue(1.0);
+        pipelineExecutor.runPipeline();
+        assertEquals("Nothing uses the step's output, so it should not run", 0, performCount.get());
+
+        step.getOutputSockets()[0].setPreviewed(true);
+        pipelineExecutor.runPipeline();
+        assertEquals("The step should run once its output is previewed", 1, performCount.get());
+        assertEquals((Double) 1.0, step.getOutputSockets()[0].getValue().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDemandDrivenRunsStepsFeedingASink() {
+        final AtomicInteger sinkCount = new AtomicInteger();
+        final Operation sinkOperation = new AdditionOperation() {
+            @Override
+            public OutputSocket[] createOutputSockets(EventBus eventBus) {
+                return new OutputSocket[0];
+            }
+
+            @Override
+            public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                sinkCount.incrementAndGet();
+            }
+        };
+        final Step upstream = stepFactory.create(countingAddition);
+        final Step sink = stepFactory.create(sinkOperation);
+        pipeline.addStep(upstream);
+        pipeline.addStep(sink);
+        final Connection<Number> connection = new Connection<>(eventBus, pipeline,
+                (OutputSocket<Number>) upstream.getOutputSockets()[0],
+                (InputSocket<Number>) sink.getInputSockets()[0]);
+        eventBus.register(connection);
+        eventBus.post(new ConnectionAddedEvent(connection));
+        pipelineExecutor.setDemandDriven(true);
+        pipelineExecutor.runPipeline();
+        performCount.set(0);
+        sinkCount.set(0);
+
+        ((InputSocket<Number>) upstream.getInputSockets()[0]).setValue(2.0);
+        pipelineExecutor.runPipeline();
+
+        assertEquals(1, performCount.get());
+        assertEquals(1, sinkCount.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFrameInfoIsPassedThroughSteps() {
+        final Step upstream = stepFactory.create(countingAddition);
+        final Step downstream = stepFactory.create(countingAddition);
+        pipeline.addStep(upstream);
+        pipeline.addStep(downstream);
+        final Connection<Number> connection = new Connection<>(eventBus, pipeline,
+                (OutputSocket<Number>) upstream.getOutputSockets()[0],
+                (InputSocket<Number>) downstream.getInputSockets()[0]);
+        eventBus.register(connection);
+        eventBus.post(new ConnectionAddedEvent(connection));
+        pipelineExecutor.runPipeline();
+
+        final FrameInfo frameInfo = new FrameInfo(7, System.nanoTime());
+        final InputSocket<Number> input = (InputSocket<Number>) upstream.getInputSockets()[0];
+        input.setFrameInfo(Optional.of(frameInfo));
+        input.setValue(1.0);
+        pipelineExecutor.runPipeline();
+
+        assertSame(frameInfo, downstream.getInputSockets()[0].getFrameInfo().get());
+        assertSame(frameInfo, downstream.getOutputSockets()[0].getFrameInfo().get());
+        assertEquals(1, downstream.getFrameLatency().summarize(System.nanoTime()).getCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCannotStartTwice() {
+        pipelineExecutor.start();
+        pipelineExecutor.start();
+    }
+
+    private void connect(OutputSocket<Number> outputSocket, InputSocket<Number> inputSocket) {
+        final Connection<Number> connection = new Connection<>(eventBus, pipeline, outputSocket, inputSocket);
+        eventBus.register(connection);
+        eventBus.post(new ConnectionAddedEvent(connection));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import static org.junit.Assert.*;
@@ -24,6 +25,7 @@ public class PipelineTest {
     private Step.Factory stepFactory;
     private EventBus eventBus;
     private Pipeline pipeline;
+    private PipelineExecutor pipelineExecutor;
     private Operation addition;
 
 
@@ -71,6 +73,7 @@ public class PipelineTest {
         stepFactory = injector.getInstance(Step.Factory.class);
         eventBus = injector.getInstance(EventBus.class);
         pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
         addition = new AdditionOperation();
     }
 
@@ -93,6 +96,20 @@ public class PipelineTest {
         assertEquals(Collections.emptyList(), pipeline.getSources());
     }
 
+    @Test
+    public void testSourcesAreASnapshot() {
+        Source source1 = new MockSource();
+        Source source2 = new MockSource();
+
+        eventBus.post(new SourceAddedEvent(source1));
+        final List<Source> sources = pipeline.getSources();
+        eventBus.post(new SourceAddedEvent(source2));
+
+        assertEquals("Adding a source should not change a list that was already returned",
+                Collections.singletonList(source1), sources);
+        assertEquals(Arrays.asList(source1, source2), pipeline.getSources());
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testAddStep() {
@@ -229,6 +246,37 @@ public class PipelineTest {
         a1.setValue(123.0);
         b1.setValue(456.0);
         b2.setValue(789.0);
+        pipelineExecutor.runPipeline();
+
+        assertEquals((Double) 1368.0, sum2.getValue().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPipelineWithStepMovedBeforeItsInput() {
+        Step step1 = stepFactory.create(addition);
+        Step step2 = stepFactory.create(addition);
+        InputSocket<Double> a1 = (InputSocket<Double>) step1.getInputSockets()[0];
+        InputSocket<Double> b1 = (InputSocket<Double>) step1.getInputSockets()[1];
+        OutputSocket<Double> sum1 = (OutputSocket<Double>) step1.getOutputSockets()[0];
+        InputSocket<Double> a2 = (InputSocket<Double>) step2.getInputSockets()[0];
+        InputSocket<Double> b2 = (InputSocket<Double>) step2.getInputSockets()[1];
+        OutputSocket<Double> sum2 = (OutputSocket<Double>) step2.getOutputSockets()[0];
+
+        pipeline.addStep(step1);
+        pipeline.addStep(step2);
+
+        Connection connection = new Connection(eventBus, pipeline, sum1, a2);
+        eventBus.register(connection);
+        eventBus.post(new ConnectionAddedEvent(connection));
+
+        // The connection now goes backwards in the pipeline, but step2 still needs the result of step1
+        pipeline.moveStep(step2, -1);
+
+        a1.setValue(123.0);
+        b1.setValue(456.0);
+        b2.setValue(789.0);
+        pipelineExecutor.runPipeline();
 
         assertEquals((Double) 1368.0, sum2.getValue().get());
     }
@@ -258,6 +306,7 @@ public class PipelineTest {
         a1.setValue(123.0);
         b1.setValue(456.0);
         b2.setValue(789.0);
+        pipelineExecutor.runPipeline();
 
         assertEquals((Double) 789.0, sum2.getValue().get());
     }
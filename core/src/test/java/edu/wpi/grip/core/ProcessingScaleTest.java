@@ -0,0 +1,229 @@
+package edu.wpi.grip.core;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import edu.wpi.grip.core.events.ProjectSettingsChangedEvent;
+import edu.wpi.grip.core.events.QualityChangedEvent;
+import edu.wpi.grip.core.operations.composite.ContoursReport;
+import edu.wpi.grip.core.operations.composite.DesaturateOperation;
+import edu.wpi.grip.core.operations.composite.FindContoursOperation;
+import edu.wpi.grip.core.operations.composite.RegionOfInterestOperation;
+import edu.wpi.grip.core.settings.ProjectSettings;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Rect;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessingScaleTest {
+    private EventBus eventBus;
+    private Pipeline pipeline;
+    private PipelineExecutor pipelineExecutor;
+    private Step.Factory stepFactory;
+    private Connection.Factory<Object> connectionFactory;
+
+    /**
+     * A black 200x100 frame with a white square from (120, 20) to (140, 40)
+     */
+    private Mat frame;
+    private OutputSocket<Mat> frameSocket;
+
+    private class MockSource extends Source {
+
+        protected MockSource() {
+            super(origin -> null);
+        }
+
+        @Override
+        public String getName() {
+            return "Mock";
+        }
+
+        @Override
+        protected OutputSocket[] createOutputSockets() {
+            return new OutputSocket[]{frameSocket};
+        }
+
+        @Override
+        public Properties getProperties() {
+            return new Properties();
+        }
+
+        @Override
+        public void initialize() throws IOException {
+        }
+    }
+
+    @Before
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        eventBus = injector.getInstance(EventBus.class);
+        pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
+        stepFactory = injector.getInstance(Step.Factory.class);
+        connectionFactory = injector.getInstance(Key.get(new TypeLiteral<Connection.Factory<Object>>() {
+        }));
+
+        frame = new Mat(100, 200, CV_8UC3, Scalar.all(0));
+        frame.apply(new Rect(120, 20, 20, 20)).put(Scalar.all(255));
+        frameSocket = new OutputSocket<>(eventBus, SocketHints.Outputs.createMatSocketHint("Image"));
+        frameSocket.setValue(frame);
+        new MockSource().getOutputSockets();
+
+        pipeline.getProjectSettings().setProcessingScale(0.25);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void connect(OutputSocket<?> outputSocket, Step to) {
+        eventBus.post(new ConnectionAddedEvent(connectionFactory.create(
+                (OutputSocket<Object>) outputSocket, (InputSocket<Object>) to.getInputSockets()[0])));
+    }
+
+    private Step addStep(Operation operation) {
+        final Step step = stepFactory.create(operation);
+        pipeline.addStep(step);
+        return step;
+    }
+
+    private static Mat getInput(Step step) {
+        return (Mat) step.getInputSockets()[0].getValue().get();
+    }
+
+    @Test
+    public void testSourceImagesAreShrunk() {
+        final Step desaturate = addStep(new DesaturateOperation());
+        connect(frameSocket, desaturate);
+
+        assertEquals(50, getInput(desaturate).cols());
+        assertEquals(25, getInput(desaturate).rows());
+        assertEquals(Optional.of(Region.ofScaledFrame(200, 100, 50, 25)), desaturate.getInputSockets()[0].getRegion());
+    }
+
+    @Test
+    public void testSourceImageIsOnlyShrunkOnce() {
+        final Step first = addStep(new DesaturateOperation());
+        final Step second = addStep(new DesaturateOperation());
+        connect(frameSocket, first);
+        connect(frameSocket, second);
+
+        frameSocket.setValue(frame);
+
+        assertSame("Both steps should get the same shrunk image", getInput(first), getInput(second));
+    }
+
+    @Test
+    public void testContoursAreInFullFrameCoordinates() {
+        final Step desaturate = addStep(new DesaturateOperation());
+        final Step findContours = addStep(new FindContoursOperation());
+        connect(frameSocket, desaturate);
+        connect(desaturate.getOutputSockets()[0], findContours);
+
+        pipelineExecutor.runPipeline();
+
+        final ContoursReport contours = (ContoursReport) findContours.getOutputSockets()[0].getValue().get();
+        assertEquals("Rows", 100, contours.getRows());
+        assertEquals("Columns", 200, contours.getCols());
+        assertEquals("Number of contours", 1, contours.getCenterX().length);
+        assertEquals("Center X", 129.5, contours.getCenterX()[0], 4.0);
+        assertEquals("Center Y", 29.5, contours.getCenterY()[0], 4.0);
+        assertEquals("Width", 20.0, contours.getWidth()[0], 4.0);
+        assertEquals("Area", 400.0, contours.getArea()[0], 150.0);
+    }
+
+    @Test
+    public void testShrunkFrameFitsItsRegionAtEveryScale() {
+        final int[][] frameSizes = {{320, 240}, {640, 480}, {1280, 720}, {1920, 1080}};
+        for (int[] frameSize : frameSizes) {
+            for (int percent = 1; percent <= 100; percent++) {
+                assertShrunkFrameFitsItsRegion(frameSize[0], frameSize[1], percent / 100.0);
+            }
+            // The quality controller shrinks images by powers of 0.75
+            for (double scale = 1.0; scale > 0.01; scale *= 0.75) {
+                assertShrunkFrameFitsItsRegion(frameSize[0], frameSize[1], scale);
+            }
+        }
+    }
+
+    private static void assertShrunkFrameFitsItsRegion(int frameWidth, int frameHeight, double scale) {
+        // This is how OutputSocket.getScaledImage rounds the size
+        final int width = Math.max(1, (int) Math.round(frameWidth * scale));
+        final int height = Math.max(1, (int) Math.round(frameHeight * scale));
+        assertTrue(frameWidth + "x" + frameHeight + " at " + scale + " should fit its region",
+                Region.ofScaledFrame(frameWidth, frameHeight, width, height).fits(width, height));
+    }
+
+    @Test
+    public void testContoursAreInFullFrameCoordinatesAtAnUnevenScale() {
+        // 1280x720 at 0.33 is 422x238, so the columns and rows are shrunk by slightly different amounts
+        final Mat wideFrame = new Mat(720, 1280, CV_8UC3, Scalar.all(0));
+        wideFrame.apply(new Rect(600, 300, 100, 100)).put(Scalar.all(255));
+        frameSocket.setValue(wideFrame);
+        pipeline.getProjectSettings().setProcessingScale(0.33);
+        final Step desaturate = addStep(new DesaturateOperation());
+        final Step findContours = addStep(new FindContoursOperation());
+        connect(frameSocket, desaturate);
+        connect(desaturate.getOutputSockets()[0], findContours);
+
+        pipelineExecutor.runPipeline();
+
+        final ContoursReport contours = (ContoursReport) findContours.getOutputSockets()[0].getValue().get();
+        assertEquals("Columns", 1280, contours.getCols());
+        assertEquals("Number of contours", 1, contours.getCenterX().length);
+        assertEquals("Center X", 649.5, contours.getCenterX()[0], 4.0);
+        assertEquals("Center Y", 349.5, contours.getCenterY()[0], 4.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRegionOfInterestOfAShrunkFrame() {
+        pipeline.getProjectSettings().setProcessingScale(0.5);
+        final Step regionOfInterest = addStep(new RegionOfInterestOperation());
+        connect(frameSocket, regionOfInterest);
+        ((InputSocket<Object>) regionOfInterest.getInputSockets()[1]).setValue(Arrays.asList(50.0, 100.0));
+        ((InputSocket<Object>) regionOfInterest.getInputSockets()[2]).setValue(Arrays.asList(0.0, 50.0));
+
+        pipelineExecutor.runPipeline();
+
+        assertEquals(Optional.of(new Region(100, 0, 100, 50, 200, 100, 2.0)),
+                regionOfInterest.getOutputSockets()[0].getRegion());
+    }
+
+    @Test
+    public void testChangingTheScaleUpdatesConnections() {
+        final Step desaturate = addStep(new DesaturateOperation());
+        connect(frameSocket, desaturate);
+
+        final ProjectSettings settings = pipeline.getProjectSettings().clone();
+        settings.setProcessingScale(1.0);
+        eventBus.post(new ProjectSettingsChangedEvent(settings));
+
+        assertSame("At full scale, the source image should be used directly", frame, getInput(desaturate));
+        assertFalse(desaturate.getInputSockets()[0].getRegion().isPresent());
+    }
+
+    @Test
+    public void testQualityControllerShrinksImagesFurther() {
+        final Step desaturate = addStep(new DesaturateOperation());
+        connect(frameSocket, desaturate);
+
+        eventBus.post(new QualityChangedEvent(0.5, false));
+
+        assertEquals(25, getInput(desaturate).cols());
+        assertEquals(Optional.of(Region.ofScaledFrame(200, 100, 25, 13)), desaturate.getInputSockets()[0].getRegion());
+    }
+}
@@ -15,13 +15,14 @@ public class PythonTest {
     @Test
     public void testPython() throws Exception {
         Operation addition = new PythonScriptOperation(PythonTest.class.getResource("/edu/wpi/grip/scripts/addition.py"));
-        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(addition);
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(addition);
         Socket aSocket = step.getInputSockets()[0];
         Socket bSocket = step.getInputSockets()[1];
         Socket sumSocket = step.getOutputSockets()[0];
 
         aSocket.setValue(a);
         bSocket.setValue(b);
+        step.runPerformIfPossible();
 
         assertEquals(a + b, sumSocket.getValue().get());
     }
@@ -32,13 +33,14 @@ public class PythonTest {
                 ".lang.Integer\n\ninputs = [\n    grip.SocketHints.createNumberSocketHint(\"a\", 0.0),\n    grip.SocketHints.createNumberSocketHint(" +
                 "\"b\", 0.0),\n]\n\noutputs = [\n    grip.SocketHints.Outputs.createNumberSocketHint(\"sum\", 0.0)," +
                 "\n]\n\ndef perform(a, b):\n    return a + b\n");
-        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(additionFromString);
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(additionFromString);
         Socket aSocket = step.getInputSockets()[0];
         Socket bSocket = step.getInputSockets()[1];
         Socket sumSocket = step.getOutputSockets()[0];
 
         aSocket.setValue(a);
         bSocket.setValue(b);
+        step.runPerformIfPossible();
 
         assertEquals(a + b, sumSocket.getValue().get());
     }
@@ -46,7 +48,7 @@ public class PythonTest {
     @Test
     public void testPythonMultipleOutputs() throws Exception {
         Operation additionSubtraction = new PythonScriptOperation(PythonTest.class.getResource("/edu/wpi/grip/scripts/addition-subtraction.py"));
-        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(additionSubtraction);
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(additionSubtraction);
         Socket aSocket = step.getInputSockets()[0];
         Socket bSocket = step.getInputSockets()[1];
         Socket sumSocket = step.getOutputSockets()[0];
@@ -54,6 +56,7 @@ public class PythonTest {
 
         aSocket.setValue(a);
         bSocket.setValue(b);
+        step.runPerformIfPossible();
 
         assertEquals(a + b, sumSocket.getValue().get());
         assertEquals(a - b, differenceSocket.getValue().get());
@@ -62,13 +65,14 @@ public class PythonTest {
     @Test
     public void testPythonWrongOutputCount() throws Exception {
         Operation additionWrongOutputCount = new PythonScriptOperation(PythonTest.class.getResource("/edu/wpi/grip/scripts/addition-wrong-output-count.py"));
-        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(additionWrongOutputCount);
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(additionWrongOutputCount);
         Socket aSocket = step.getInputSockets()[0];
         Socket bSocket = step.getInputSockets()[1];
         Socket sumSocket = step.getOutputSockets()[0];
 
         aSocket.setValue(a);
         bSocket.setValue(b);
+        step.runPerformIfPossible();
 
         assertEquals(0.0, sumSocket.getValue().get());
     }
@@ -76,13 +80,14 @@ public class PythonTest {
     @Test
     public void testPythonWrongOutputType() throws Exception {
         Operation additionWrongOutputType = new PythonScriptOperation(PythonTest.class.getResource("/edu/wpi/grip/scripts/addition-wrong-output-type.py"));
-        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(additionWrongOutputType);
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(additionWrongOutputType);
         Socket aSocket = step.getInputSockets()[0];
         Socket bSocket = step.getInputSockets()[1];
         Socket sumSocket = step.getOutputSockets()[0];
 
         aSocket.setValue(a);
         bSocket.setValue(b);
+        step.runPerformIfPossible();
 
         assertEquals(0.0, sumSocket.getValue().get());
     }
@@ -0,0 +1,132 @@
+package edu.wpi.grip.core;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import edu.wpi.grip.core.events.QualityChangedEvent;
+import edu.wpi.grip.core.settings.ProjectSettings;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class QualityControllerTest {
+    private static final long SLOW_FRAME = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FAST_FRAME = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private PipelineExecutor pipelineExecutor;
+    private QualityController qualityController;
+    private ProjectSettings settings;
+    private final List<QualityChangedEvent> events = new ArrayList<>();
+    private long now = 0;
+
+    @Before
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        final EventBus eventBus = injector.getInstance(EventBus.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
+        qualityController = injector.getInstance(QualityController.class);
+        settings = injector.getInstance(Pipeline.class).getProjectSettings();
+        eventBus.register(new Object() {
+            @Subscribe
+            public void onQualityChanged(QualityChangedEvent event) {
+                events.add(event);
+            }
+        });
+
+        settings.setTargetFrameRate(30);
+        settings.setProcessingScale(0.5);
+        settings.setMinimumProcessingScale(0.25);
+    }
+
+    /**
+     * Run frames that each take the given time for long enough that the controller makes an adjustment
+     */
+    private void runFrames(long frameTime) {
+        final long period = QualityController.ADJUSTMENT_PERIOD_NANOS / 20;
+        for (int i = 0; i < 20; i++) {
+            now += period;
+            qualityController.onPassFinished(frameTime, now);
+        }
+    }
+
+    @Test
+    public void testSlowFramesSkipUnusedStepsFirst() {
+        runFrames(SLOW_FRAME);
+
+        assertEquals(1, qualityController.getLevel());
+        assertTrue(qualityController.isSkippingUnusedSteps());
+        assertTrue(pipelineExecutor.isDemandDriven());
+        assertEquals(1.0, qualityController.getScaleFactor(), 0.0);
+    }
+
+    @Test
+    public void testSlowFramesShrinkImagesDownToTheMinimumScale() {
+        for (int i = 0; i < 10; i++) {
+            runFrames(SLOW_FRAME);
+        }
+
+        // Skipping unused steps, then 0.75 and 0.5625 of the 0.5 processing scale.  0.5 * 0.75 ^ 3 would be below
+        // the minimum of 0.25, so the last level is exactly the minimum.
+        assertEquals(4, qualityController.getLevel());
+        assertEquals(0.5, qualityController.getScaleFactor(), 1e-9);
+        assertEquals(4, qualityController.getAdjustmentCount());
+        assertEquals(new QualityChangedEvent(0.75, true).toString(), events.get(1).toString());
+    }
+
+    @Test
+    public void testFastFramesRestoreFullQuality() {
+        for (int i = 0; i < 10; i++) {
+            runFrames(SLOW_FRAME);
+        }
+        for (int i = 0; i < 10; i++) {
+            runFrames(FAST_FRAME);
+        }
+
+        assertEquals(0, qualityController.getLevel());
+        assertEquals(1.0, qualityController.getScaleFactor(), 0.0);
+        assertFalse(qualityController.isSkippingUnusedSteps());
+        assertFalse("Demand-driven mode should be turned back off", pipelineExecutor.isDemandDriven());
+    }
+
+    @Test
+    public void testFramesWithinBudgetDontChangeQuality() {
+        // 30 FPS allows 33 ms, and 25 ms is neither over budget nor fast enough to raise the quality
+        for (int i = 0; i < 10; i++) {
+            runFrames(TimeUnit.MILLISECONDS.toNanos(25));
+        }
+
+        assertEquals(0, qualityController.getAdjustmentCount());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testNoTargetFrameRateMeansFullQuality() {
+        runFrames(SLOW_FRAME);
+        settings.setTargetFrameRate(0);
+        runFrames(SLOW_FRAME);
+
+        assertEquals(0, qualityController.getLevel());
+        assertFalse(pipelineExecutor.isDemandDriven());
+    }
+
+    @Test
+    public void testAlreadyDemandDrivenExecutorOnlyShrinksImages() {
+        pipelineExecutor.setDemandDriven(true);
+
+        runFrames(SLOW_FRAME);
+        settings.setTargetFrameRate(0);
+        runFrames(SLOW_FRAME);
+
+        assertEquals(0, qualityController.getLevel());
+        assertTrue("Demand-driven mode wasn't turned on by the controller, so it should stay on",
+                pipelineExecutor.isDemandDriven());
+    }
+}
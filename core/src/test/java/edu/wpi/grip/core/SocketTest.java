@@ -8,6 +8,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class SocketTest {
@@ -45,14 +46,12 @@ public class SocketTest {
     }
 
     @Test
-    public void testSocketChangedEvent() throws Exception {
+    public void testSocketChangedIsFlaggedNotPosted() throws Exception {
         final boolean[] handled = new boolean[]{false};
-        final Double[] value = new Double[]{0.0};
         Object eventHandler = new Object() {
             @Subscribe
             public void onSocketChanged(SocketChangedEvent e) {
                 handled[0] = true;
-                value[0] = (Double) e.getSocket().getValue().get();
             }
         };
 
@@ -60,8 +59,52 @@ public class SocketTest {
         socket.setValue(testValue);
         eventBus.unregister(eventHandler);
 
-        assertTrue(handled[0]);
-        assertEquals(testValue, value[0]);
+        assertFalse("SocketChangedEvents should only be posted by the PipelineExecutor", handled[0]);
+        assertTrue("The socket should be flagged as changed", socket.pollChanged());
+        assertFalse("The changed flag should be cleared after it is polled", socket.pollChanged());
+    }
+
+    @Test
+    public void testVersionIncreasesWhenValueChanges() {
+        final long version = socket.getVersion();
+        socket.setValue(testValue);
+        final long newVersion = socket.getVersion();
+        assertTrue("The version should increase when the value changes", newVersion > version);
+
+        socket.setValue(testValue);
+        assertEquals("Setting an equal value should not change the version", newVersion, socket.getVersion());
+        assertTrue(socket.pollChanged());
+        assertFalse("Setting an equal value should not flag the socket as changed", socket.pollChanged());
+    }
+
+    @Test
+    public void testSnapshotIsCurrentUntilValueChanges() {
+        final Socket.Snapshot<Number> snapshot = socket.snapshot();
+        assertTrue(snapshot.isCurrent());
+        assertEquals(socket.getValue(), snapshot.getValue());
+
+        socket.setValue(testValue);
+        assertFalse("A snapshot should be out of date after the value changes", snapshot.isCurrent());
+        assertTrue(socket.snapshot().isCurrent());
+    }
+
+    @Test
+    public void testSnapshotIsNotCurrentDuringUpdate() {
+        socket.beginUpdate();
+        final Socket.Snapshot<Number> snapshot = socket.snapshot();
+        assertFalse("A snapshot taken while the value is being written could be torn", snapshot.isCurrent());
+
+        socket.endUpdate();
+        assertFalse(snapshot.isCurrent());
+        assertTrue(socket.snapshot().isCurrent());
+    }
+
+    @Test
+    public void testSettingValueDuringUpdateFinishesIt() {
+        socket.beginUpdate();
+        socket.setValue(0.0);
+        assertTrue("Setting the value should publish it even if it's equal", socket.pollChanged());
+        assertTrue(socket.snapshot().isCurrent());
     }
 
     @Test
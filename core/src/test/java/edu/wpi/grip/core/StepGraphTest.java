@@ -0,0 +1,115 @@
+package edu.wpi.grip.core;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import edu.wpi.grip.core.events.ConnectionRemovedEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class StepGraphTest {
+    private EventBus eventBus;
+    private Pipeline pipeline;
+    private Step source, left, right, sink;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        final Step.Factory stepFactory = injector.getInstance(Step.Factory.class);
+        eventBus = injector.getInstance(EventBus.class);
+        pipeline = injector.getInstance(Pipeline.class);
+
+        // A diamond: source feeds both left and right, which both feed sink
+        source = stepFactory.create(new AdditionOperation());
+        left = stepFactory.create(new AdditionOperation());
+        right = stepFactory.create(new AdditionOperation());
+        sink = stepFactory.create(new AdditionOperation());
+        pipeline.addStep(source);
+        pipeline.addStep(left);
+        pipeline.addStep(right);
+        pipeline.addStep(sink);
+
+        connect(source, left, 0);
+        connect(source, right, 0);
+        connect(left, sink, 0);
+        connect(right, sink, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Connection connect(Step from, Step to, int inputIndex) {
+        final Connection connection = new Connection(eventBus, pipeline,
+                from.getOutputSockets()[0], to.getInputSockets()[inputIndex]);
+        eventBus.post(new ConnectionAddedEvent(connection));
+        return connection;
+    }
+
+    @Test
+    public void testStepsAreInPipelineOrder() {
+        assertEquals(Arrays.asList(source, left, right, sink), pipeline.getStepGraph().getSteps());
+    }
+
+    @Test
+    public void testUpstreamSteps() {
+        final StepGraph graph = pipeline.getStepGraph();
+        assertEquals(ImmutableSet.of(), graph.getUpstreamSteps(source));
+        assertEquals(ImmutableSet.of(source), graph.getUpstreamSteps(left));
+        assertEquals(ImmutableSet.of(source), graph.getUpstreamSteps(right));
+        assertEquals(ImmutableSet.of(left, right), graph.getUpstreamSteps(sink));
+    }
+
+    @Test
+    public void testDownstreamSteps() {
+        final StepGraph graph = pipeline.getStepGraph();
+        assertEquals(ImmutableSet.of(left, right), graph.getDownstreamSteps(source));
+        assertEquals(ImmutableSet.of(sink), graph.getDownstreamSteps(left));
+        assertEquals(ImmutableSet.of(), graph.getDownstreamSteps(sink));
+    }
+
+    @Test
+    public void testStepsFeeding() {
+        final StepGraph graph = pipeline.getStepGraph();
+        assertEquals(ImmutableSet.of(source, left), graph.getStepsFeeding(ImmutableSet.of(left)));
+        assertEquals(ImmutableSet.of(source, left, right, sink), graph.getStepsFeeding(ImmutableSet.of(sink)));
+        assertEquals(ImmutableSet.of(), graph.getStepsFeeding(ImmutableSet.of()));
+    }
+
+    @Test
+    public void testGraphIsCachedUntilPipelineChanges() {
+        final StepGraph graph = pipeline.getStepGraph();
+        assertSame("The graph should be cached", graph, pipeline.getStepGraph());
+
+        final Connection connection = pipeline.getConnections().iterator().next();
+        eventBus.post(new ConnectionRemovedEvent(connection));
+
+        assertNotSame("The graph should be rebuilt after a connection is removed", graph, pipeline.getStepGraph());
+        assertEquals(3, pipeline.getStepGraph().getSteps().stream()
+                .mapToInt(step -> pipeline.getStepGraph().getUpstreamSteps(step).size())
+                .sum());
+    }
+
+    @Test
+    public void testMovedStepStillComesAfterItsUpstreamSteps() {
+        // Moving the sink to the front doesn't remove its connections, so it still has to run last
+        pipeline.moveStep(sink, -3);
+
+        assertEquals(Arrays.asList(sink, source, left, right), pipeline.getSteps());
+        assertEquals(Arrays.asList(source, left, right, sink), pipeline.getStepGraph().getSteps());
+    }
+
+    @Test
+    public void testRemovedStepIsNotInGraph() {
+        pipeline.removeStep(left);
+
+        assertEquals(Arrays.asList(source, right, sink), pipeline.getStepGraph().getSteps());
+        assertEquals(ImmutableSet.of(right), pipeline.getStepGraph().getUpstreamSteps(sink));
+    }
+}
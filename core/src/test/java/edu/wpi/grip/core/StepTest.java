@@ -2,10 +2,15 @@ package edu.wpi.grip.core;
 
 import com.google.common.eventbus.EventBus;
 import edu.wpi.grip.core.util.MockExceptionWitness;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Scalar;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class StepTest {
     private EventBus eventBus;
@@ -19,26 +24,25 @@ public class StepTest {
 
     @Test(expected = NullPointerException.class)
     public void testOperationNotNull() {
-        new Step.Factory(eventBus, (origin) -> null).create(null);
+        new Step.Factory(eventBus, (origin) -> null, new MatPool()).create(null);
     }
 
     @Test
     public void testStep() {
-        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(addition);
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(addition);
         Socket<Double> a = (Socket<Double>) step.getInputSockets()[0];
         Socket<Double> b = (Socket<Double>) step.getInputSockets()[1];
         Socket<Double> c = (Socket<Double>) step.getOutputSockets()[0];
 
         a.setValue(1234.0);
         b.setValue(5678.0);
+        step.runPerformIfPossible();
         assertEquals((Double) (1234.0 + 5678.0), c.getValue().get());
-
-        eventBus.unregister(step);
     }
 
     @Test
     public void testSocketDirection() {
-        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(addition);
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(addition);
         Socket<Double> a = (Socket<Double>) step.getInputSockets()[0];
         Socket<Double> b = (Socket<Double>) step.getInputSockets()[1];
         Socket<Double> c = (Socket<Double>) step.getOutputSockets()[0];
@@ -50,8 +54,94 @@ public class StepTest {
 
     @Test
     public void testGetOperation() {
-        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(addition);
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(addition);
 
         assertEquals(addition, step.getOperation());
     }
+
+    @Test
+    public void testSwapOutputBuffers() {
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool())
+                .create(new AddOperation());
+        Object first = step.getOutputSockets()[0].getValue().get();
+
+        step.swapOutputBuffers();
+        Object second = step.getOutputSockets()[0].getValue().get();
+        assertNotSame("The output should be a different buffer after swapping", first, second);
+
+        step.swapOutputBuffers();
+        assertSame("The output should alternate between two buffers", first, step.getOutputSockets()[0].getValue().get());
+    }
+
+    @Test
+    public void testSwapOutputBuffersIgnoresNonMatOutputs() {
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(addition);
+        Object value = step.getOutputSockets()[0].getValue().get();
+
+        step.swapOutputBuffers();
+        assertSame(value, step.getOutputSockets()[0].getValue().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStepIsNotPerformedAgainWithUnchangedInputs() {
+        final int[] performCount = {0};
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool())
+                .create(new AdditionOperation() {
+                    @Override
+                    public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                        performCount[0]++;
+                        super.perform(inputs, outputs);
+                    }
+                });
+        Socket<Double> a = (Socket<Double>) step.getInputSockets()[0];
+
+        a.setValue(1.0);
+        step.runPerformIfPossible();
+        step.runPerformIfPossible();
+        assertEquals("The step should not run again if its inputs did not change", 1, performCount[0]);
+
+        a.setValue(1.0);
+        step.runPerformIfPossible();
+        assertEquals("Setting an input to an equal value should not count as a change", 1, performCount[0]);
+
+        a.setValue(2.0);
+        step.runPerformIfPossible();
+        assertEquals(2, performCount[0]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStepComparesImageContents() {
+        final int[] performCount = {0};
+        Step step = new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool())
+                .create(new AddOperation() {
+                    @Override
+                    public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                        performCount[0]++;
+                        super.perform(inputs, outputs);
+                    }
+                });
+        Socket<Mat> a = (Socket<Mat>) step.getInputSockets()[0];
+        Socket<Mat> b = (Socket<Mat>) step.getInputSockets()[1];
+        Mat image = new Mat(4, 4, CV_8UC1, new Scalar(1.0));
+
+        a.setValue(image);
+        b.setValue(new Mat(4, 4, CV_8UC1, new Scalar(2.0)));
+        step.runPerformIfPossible(false, true);
+        assertEquals(1, performCount[0]);
+
+        a.setValue(image);
+        step.runPerformIfPossible(false, true);
+        assertEquals("An image with the same pixels should not count as a change", 1, performCount[0]);
+
+        a.setValue(image);
+        step.runPerformIfPossible(false, false);
+        assertEquals("Setting an image again counts as a change unless contents are compared", 2, performCount[0]);
+
+        image.put(new Scalar(3.0));
+        a.setValue(image);
+        step.runPerformIfPossible(false, true);
+        assertEquals(3, performCount[0]);
+    }
 }
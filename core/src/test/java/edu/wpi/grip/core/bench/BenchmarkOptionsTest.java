@@ -0,0 +1,67 @@
+package edu.wpi.grip.core.bench;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+public class BenchmarkOptionsTest {
+
+    @Test
+    public void testDefaults() {
+        final BenchmarkOptions options = BenchmarkOptions.parse("project.grip", "--images", "frames");
+
+        assertEquals(new File("project.grip"), options.getProjectFile());
+        assertEquals(Optional.of(new File("frames")), options.getImageDirectory());
+        assertEquals(Optional.empty(), options.getVideoFile());
+        assertEquals(BenchmarkOptions.DEFAULT_FRAMES, options.getFrames());
+        assertEquals(BenchmarkOptions.DEFAULT_WARMUP_FRAMES, options.getWarmupFrames());
+        assertEquals(0, options.getFrameRate(), 0);
+        assertEquals(Optional.empty(), options.getJsonFile());
+    }
+
+    @Test
+    public void testAllOptions() {
+        final BenchmarkOptions options = BenchmarkOptions.parse("--video", "match.avi", "--frames", "500",
+                "--warmup", "10", "--rate", "30", "--json", "report.json", "project.grip");
+
+        assertEquals(new File("project.grip"), options.getProjectFile());
+        assertEquals(Optional.of(new File("match.avi")), options.getVideoFile());
+        assertEquals(500, options.getFrames());
+        assertEquals(10, options.getWarmupFrames());
+        assertEquals(30, options.getFrameRate(), 0);
+        assertEquals(Optional.of(new File("report.json")), options.getJsonFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectIsRequired() {
+        BenchmarkOptions.parse("--images", "frames");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFramesAreRequired() {
+        BenchmarkOptions.parse("project.grip");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testImagesAndVideoAreExclusive() {
+        BenchmarkOptions.parse("project.grip", "--images", "frames", "--video", "match.avi");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOptionWithoutValue() {
+        BenchmarkOptions.parse("project.grip", "--images", "frames", "--frames");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNumber() {
+        BenchmarkOptions.parse("project.grip", "--images", "frames", "--frames", "lots");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOption() {
+        BenchmarkOptions.parse("project.grip", "--images", "frames", "--fast", "yes");
+    }
+}
@@ -0,0 +1,95 @@
+package edu.wpi.grip.core.bench;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import edu.wpi.grip.core.Connection;
+import edu.wpi.grip.core.GRIPCoreModule;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.Step;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import edu.wpi.grip.core.events.SourceAddedEvent;
+import edu.wpi.grip.core.operations.Operations;
+import edu.wpi.grip.core.operations.composite.DesaturateOperation;
+import edu.wpi.grip.core.serialization.Project;
+import edu.wpi.grip.core.sources.ImageFileSource;
+import edu.wpi.grip.util.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BenchmarkRunnerTest {
+    private Injector injector;
+    private EventBus eventBus;
+    private Pipeline pipeline;
+    private File projectFile;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        injector = Guice.createInjector(new GRIPCoreModule());
+        eventBus = injector.getInstance(EventBus.class);
+        pipeline = injector.getInstance(Pipeline.class);
+        final Project project = injector.getInstance(Project.class);
+        Operations.addOperations(eventBus);
+
+        // Save a project with an image source feeding a desaturate step
+        final ImageFileSource source = injector.getInstance(ImageFileSource.Factory.class)
+                .create(Files.gompeiJpegFile.file);
+        source.initialize();
+        eventBus.post(new SourceAddedEvent(source));
+        final Step step = injector.getInstance(Step.Factory.class).create(new DesaturateOperation());
+        pipeline.addStep(step);
+        final Connection.Factory<Object> connectionFactory = injector.getInstance(
+                Key.get(new TypeLiteral<Connection.Factory<Object>>() {
+                }));
+        eventBus.post(new ConnectionAddedEvent(connectionFactory.create(source.getOutputSockets()[0],
+                (InputSocket<Object>) step.getInputSockets()[0])));
+        // Only steps that lead to a previewed or published result run
+        step.getOutputSockets()[0].setPreviewed(true);
+
+        projectFile = File.createTempFile("benchmark", ".grip");
+        project.save(projectFile);
+    }
+
+    @After
+    public void tearDown() {
+        projectFile.delete();
+    }
+
+    @Test
+    public void testReplaysImages() throws IOException {
+        final File imageDirectory = Files.gompeiJpegFile.file.getParentFile();
+        final BenchmarkReport report = injector.getInstance(BenchmarkRunner.class).run(BenchmarkOptions.parse(
+                projectFile.getPath(), "--images", imageDirectory.getPath(), "--frames", "5", "--warmup", "2"));
+
+        assertEquals(5, report.getFrames());
+        assertTrue("The frame times should be in order",
+                report.getLatencyPercentile(0.5) <= report.getMaxLatency());
+        assertTrue("Native memory held by the frames should be counted", report.getPeakNativeBytes() > 0);
+
+        assertEquals("The image source should have been replaced", 1, pipeline.getSources().size());
+        assertTrue(pipeline.getSources().get(0) instanceof ReplaySource);
+        assertEquals("The step should still have its connection", 1, pipeline.getConnections().size());
+
+        assertEquals(1, report.getSteps().size());
+        final BenchmarkReport.StepReport stepReport = report.getSteps().get(0);
+        assertEquals("Desaturate", stepReport.getName());
+        assertEquals("The step's timings should cover the measured frames, not the warm-up", 5,
+                stepReport.getWallTime().getCount());
+
+        final OutputSocket<?> output = pipeline.getSteps().get(0).getOutputSockets()[0];
+        assertTrue("The step should have output an image", output.getValue().isPresent());
+        assertTrue(report.toJson().contains("\"name\": \"Desaturate\""));
+    }
+}
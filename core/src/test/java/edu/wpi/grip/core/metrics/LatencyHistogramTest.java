@@ -0,0 +1,72 @@
+package edu.wpi.grip.core.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testEmptySummary() {
+        assertEquals(0, new LatencyHistogram().summarize(0).getCount());
+    }
+
+    @Test
+    public void testSummary() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100; i++) {
+            histogram.record(i * 1000, 0);
+        }
+
+        final LatencyHistogram.Summary summary = histogram.summarize(0);
+        assertEquals(100, summary.getCount());
+        assertEquals(50500, summary.getMean());
+        assertEquals(100000, summary.getMax());
+        assertWithinBucket(50000, summary.getP50());
+        assertWithinBucket(95000, summary.getP95());
+        assertWithinBucket(99000, summary.getP99());
+    }
+
+    @Test
+    public void testOldValuesLeaveTheWindow() {
+        final LatencyHistogram histogram = new LatencyHistogram(10 * SECOND);
+        histogram.record(1000, 0);
+        histogram.record(2000, 5 * SECOND);
+
+        assertEquals(2, histogram.summarize(5 * SECOND).getCount());
+        assertEquals("The first value should be out of the window", 1, histogram.summarize(11 * SECOND).getCount());
+        assertEquals(2000, histogram.summarize(11 * SECOND).getMax());
+        assertEquals(0, histogram.summarize(20 * SECOND).getCount());
+    }
+
+    @Test
+    public void testUnboundedWindowKeepsEveryValue() {
+        final LatencyHistogram histogram = new LatencyHistogram(LatencyHistogram.UNBOUNDED_WINDOW_NANOS);
+        // System.nanoTime() can be negative
+        histogram.record(1000, -3600 * SECOND);
+        histogram.record(2000, 0);
+
+        assertEquals("Nothing should leave an unbounded window", 2, histogram.summarize(24 * 3600 * SECOND).getCount());
+    }
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE}) {
+            final int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue("The bucket for " + value + " should contain it", LatencyHistogram.upperBoundOf(bucket) >= value);
+            if (bucket > 0) {
+                assertTrue("The bucket before " + value + " should not contain it",
+                        LatencyHistogram.upperBoundOf(bucket - 1) < value);
+            }
+        }
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue("Expected about " + expected + " but was " + actual,
+                actual >= expected && actual <= expected * 1.125);
+    }
+}
@@ -0,0 +1,55 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import edu.wpi.grip.core.AddOperation;
+import edu.wpi.grip.core.GRIPCoreModule;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.Step;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.junit.Assert.assertEquals;
+
+public class NativeMemoryMonitorTest {
+    private Pipeline pipeline;
+    private NativeMemoryMonitor monitor;
+    private Step step;
+
+    @Before
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        pipeline = injector.getInstance(Pipeline.class);
+        monitor = injector.getInstance(NativeMemoryMonitor.class);
+        step = injector.getInstance(Step.Factory.class).create(new AddOperation());
+        pipeline.addStep(step);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStepUsageCountsOutputs() {
+        ((OutputSocket<Mat>) step.getOutputSockets()[0]).setValue(new Mat(10, 10, CV_8UC1));
+        assertEquals((Long) 100L, monitor.getStepUsage().get(step));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPeakUsageIsKept() {
+        final OutputSocket<Mat> output = (OutputSocket<Mat>) step.getOutputSockets()[0];
+        output.setValue(new Mat(10, 10, CV_8UC1));
+        monitor.getStepUsage();
+        output.setValue(new Mat(1, 10, CV_8UC1));
+
+        assertEquals((Long) 10L, monitor.getStepUsage().get(step));
+        assertEquals(100L, monitor.getPeakUsage(step));
+    }
+
+    @Test
+    public void testLogSummary() {
+        // This should work even with nothing interesting in the pipeline
+        monitor.logSummary();
+    }
+}
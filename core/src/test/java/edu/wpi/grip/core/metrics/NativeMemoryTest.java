@@ -0,0 +1,44 @@
+package edu.wpi.grip.core.metrics;
+
+import edu.wpi.grip.core.operations.composite.ContoursReport;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.MatVector;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.bytedeco.javacpp.opencv_core.CV_32SC2;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.junit.Assert.assertEquals;
+
+public class NativeMemoryTest {
+
+    @Test
+    public void testMatSize() {
+        assertEquals(10 * 20 * 3, NativeMemory.sizeOf(new Mat(10, 20, CV_8UC3)));
+        assertEquals(0, NativeMemory.sizeOf(new Mat()));
+    }
+
+    @Test
+    public void testContoursReportSize() {
+        final MatVector contours = new MatVector(new Mat(5, 1, CV_32SC2), new Mat(7, 1, CV_32SC2));
+        assertEquals(12 * 8, NativeMemory.sizeOf(new ContoursReport(contours, 100, 100)));
+    }
+
+    @Test
+    public void testContainersAreAddedUp() {
+        final Mat mat = new Mat(10, 10, CV_8UC1);
+        assertEquals(100, NativeMemory.sizeOf(Optional.of(mat)));
+        assertEquals(200, NativeMemory.sizeOf(new Mat[]{mat, mat}));
+        assertEquals(200, NativeMemory.sizeOf(Arrays.asList(mat, mat)));
+    }
+
+    @Test
+    public void testOtherValuesHaveNoSize() {
+        assertEquals(0, NativeMemory.sizeOf(1.0));
+        assertEquals(0, NativeMemory.sizeOf(Optional.empty()));
+        assertEquals(0, NativeMemory.sizeOf((Object) null));
+    }
+}
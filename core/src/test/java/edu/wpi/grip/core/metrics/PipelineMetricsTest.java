@@ -0,0 +1,72 @@
+package edu.wpi.grip.core.metrics;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import edu.wpi.grip.core.AdditionOperation;
+import edu.wpi.grip.core.GRIPCoreModule;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.Operation;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.PipelineExecutor;
+import edu.wpi.grip.core.Step;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineMetricsTest {
+    private Pipeline pipeline;
+    private PipelineExecutor pipelineExecutor;
+    private PipelineMetrics pipelineMetrics;
+    private Step.Factory stepFactory;
+
+    @Before
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
+        pipelineMetrics = injector.getInstance(PipelineMetrics.class);
+        stepFactory = injector.getInstance(Step.Factory.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStepTimeIsRecorded() {
+        final Operation slowAddition = new AdditionOperation() {
+            @Override
+            public void perform(InputSocket[] inputs, OutputSocket[] outputs) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.perform(inputs, outputs);
+            }
+        };
+        final Step step = stepFactory.create(slowAddition);
+        pipeline.addStep(step);
+        pipelineExecutor.runPipeline();
+
+        ((InputSocket<Number>) step.getInputSockets()[0]).setValue(1.0);
+        pipelineExecutor.runPipeline();
+
+        final PipelineMetrics.StepTiming timing = pipelineMetrics.getStepTimings().get(step);
+        assertEquals(2, timing.getWallTime().getCount());
+        assertTrue("The wall time should include sleeping",
+                timing.getWallTime().getP50() >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue("Sleeping should not use CPU time",
+                timing.getCpuTime().getMean() < timing.getWallTime().getMean());
+    }
+
+    @Test
+    public void testStepThatHasNotRunHasNoTimings() {
+        final Step step = stepFactory.create(new AdditionOperation());
+        pipeline.addStep(step);
+        assertEquals(0, pipelineMetrics.getStepTimings().get(step).getWallTime().getCount());
+        pipelineMetrics.logSummary();
+    }
+}
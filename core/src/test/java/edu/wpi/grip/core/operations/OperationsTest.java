@@ -3,6 +3,7 @@ package edu.wpi.grip.core.operations;
 import com.google.common.base.Throwables;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import edu.wpi.grip.core.MatPool;
 import edu.wpi.grip.core.Operation;
 import edu.wpi.grip.core.Step;
 import edu.wpi.grip.core.events.OperationAddedEvent;
@@ -49,7 +50,7 @@ public class OperationsTest {
     public void testCreateAllCVSteps() {
         CVOperations.addOperations(eventBus);
         for (Operation operation : operationList) {
-            new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(operation);
+            new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(operation);
         }
     }
 
@@ -57,7 +58,7 @@ public class OperationsTest {
     public void testCreateAllCoreSteps() {
         Operations.addOperations(eventBus);
         for (Operation operation : operationList) {
-            new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin)).create(operation);
+            new Step.Factory(eventBus, (origin) -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(operation);
         }
     }
 }
@@ -0,0 +1,133 @@
+package edu.wpi.grip.core.operations.composite;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import edu.wpi.grip.core.Connection;
+import edu.wpi.grip.core.GRIPCoreModule;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.PipelineExecutor;
+import edu.wpi.grip.core.Region;
+import edu.wpi.grip.core.Step;
+import edu.wpi.grip.core.events.ConnectionAddedEvent;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Rect;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.junit.Assert.assertEquals;
+
+public class RegionOfInterestOperationTest {
+    private EventBus eventBus;
+    private Pipeline pipeline;
+    private PipelineExecutor pipelineExecutor;
+    private Step.Factory stepFactory;
+    private Connection.Factory<Object> connectionFactory;
+
+    /**
+     * A black 200x100 frame with a white square from (120, 20) to (140, 40)
+     */
+    private Mat frame;
+    private Step regionOfInterest;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        eventBus = injector.getInstance(EventBus.class);
+        pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
+        stepFactory = injector.getInstance(Step.Factory.class);
+        connectionFactory = injector.getInstance(Key.get(new TypeLiteral<Connection.Factory<Object>>() {
+        }));
+
+        frame = new Mat(100, 200, CV_8UC3, Scalar.all(0));
+        frame.apply(new Rect(120, 20, 20, 20)).put(Scalar.all(255));
+
+        // The right half of the top half of the frame
+        regionOfInterest = stepFactory.create(new RegionOfInterestOperation());
+        pipeline.addStep(regionOfInterest);
+        ((InputSocket<Mat>) regionOfInterest.getInputSockets()[0]).setValue(frame);
+        ((InputSocket<Object>) regionOfInterest.getInputSockets()[1]).setValue(Arrays.asList(50.0, 100.0));
+        ((InputSocket<Object>) regionOfInterest.getInputSockets()[2]).setValue(Arrays.asList(0.0, 50.0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void connect(Step from, Step to) {
+        eventBus.post(new ConnectionAddedEvent(connectionFactory.create(
+                (OutputSocket<Object>) from.getOutputSockets()[0], (InputSocket<Object>) to.getInputSockets()[0])));
+    }
+
+    private Mat getOutput() {
+        return (Mat) regionOfInterest.getOutputSockets()[0].getValue().get();
+    }
+
+    @Test
+    public void testOutputIsTheRegion() {
+        pipelineExecutor.runPipeline();
+
+        assertEquals(100, getOutput().cols());
+        assertEquals(50, getOutput().rows());
+        assertEquals(Optional.of(new Region(100, 0, 100, 50, 200, 100)),
+                regionOfInterest.getOutputSockets()[0].getRegion());
+    }
+
+    @Test
+    public void testOutputSharesPixelsWithTheInput() {
+        pipelineExecutor.runPipeline();
+        frame.apply(new Rect(100, 0, 1, 1)).put(Scalar.all(7));
+
+        assertEquals("The output should be a view of the input, not a copy", 7, getOutput().ptr(0, 0).get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRegionOfARegion() {
+        final Step innerRegion = stepFactory.create(new RegionOfInterestOperation());
+        pipeline.addStep(innerRegion);
+        connect(regionOfInterest, innerRegion);
+        ((InputSocket<Object>) innerRegion.getInputSockets()[1]).setValue(Arrays.asList(10.0, 50.0));
+        ((InputSocket<Object>) innerRegion.getInputSockets()[2]).setValue(Arrays.asList(20.0, 100.0));
+
+        pipelineExecutor.runPipeline();
+
+        assertEquals(Optional.of(new Region(110, 10, 40, 40, 200, 100)),
+                innerRegion.getOutputSockets()[0].getRegion());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testContoursAreInFullFrameCoordinates() {
+        // The threshold and desaturate steps are fused, so this also checks that fused steps pass the region on
+        final Step threshold = stepFactory.create(new RGBThresholdOperation());
+        final Step desaturate = stepFactory.create(new DesaturateOperation());
+        final Step findContours = stepFactory.create(new FindContoursOperation());
+        pipeline.addStep(threshold);
+        pipeline.addStep(desaturate);
+        pipeline.addStep(findContours);
+        connect(regionOfInterest, threshold);
+        connect(threshold, desaturate);
+        connect(desaturate, findContours);
+        for (int i = 1; i <= 3; i++) {
+            ((InputSocket<Object>) threshold.getInputSockets()[i]).setValue(Arrays.asList(128.0, 255.0));
+        }
+
+        pipelineExecutor.runPipeline();
+
+        final ContoursReport contours = (ContoursReport) findContours.getOutputSockets()[0].getValue().get();
+        assertEquals("Rows", 100, contours.getRows());
+        assertEquals("Columns", 200, contours.getCols());
+        assertEquals("Number of contours", 1, contours.getCenterX().length);
+        assertEquals("Center X", 129.5, contours.getCenterX()[0], 1.0);
+        assertEquals("Center Y", 29.5, contours.getCenterY()[0], 1.0);
+    }
+}
@@ -0,0 +1,47 @@
+package edu.wpi.grip.core.operations.composite;
+
+import com.google.common.eventbus.EventBus;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.OutputSocket;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.bytedeco.javacpp.opencv_core.countNonZero;
+import static org.junit.Assert.assertEquals;
+
+public class ThresholdOperationTest {
+    private final EventBus eventBus = new EventBus();
+
+    @Test
+    public void testRGBThresholdWithoutAPool() {
+        assertWholeFrameIsInRange(new RGBThresholdOperation());
+    }
+
+    @Test
+    public void testHSVThresholdWithoutAPool() {
+        assertWholeFrameIsInRange(new HSVThresholdOperation());
+    }
+
+    @Test
+    public void testHSLThresholdWithoutAPool() {
+        assertWholeFrameIsInRange(new HSLThresholdOperation());
+    }
+
+    /**
+     * Perform the operation with its default ranges on a gray frame, without passing a
+     * {@link edu.wpi.grip.core.MatPool}, and check that every pixel is in range.
+     */
+    @SuppressWarnings("unchecked")
+    private void assertWholeFrameIsInRange(ThresholdOperation operation) {
+        final InputSocket<?>[] inputs = operation.createInputSockets(eventBus);
+        final OutputSocket<?>[] outputs = operation.createOutputSockets(eventBus);
+        ((InputSocket<Mat>) inputs[0]).setValue(new Mat(20, 40, CV_8UC3, Scalar.all(128)));
+
+        operation.perform(inputs, outputs, operation.createData());
+
+        final Mat output = ((OutputSocket<Mat>) outputs[0]).getValue().get();
+        assertEquals("Every pixel of a gray frame should be in the default range", 20 * 40, countNonZero(output));
+    }
+}
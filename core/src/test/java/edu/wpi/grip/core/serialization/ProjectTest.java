@@ -23,6 +23,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
 import static org.bytedeco.javacpp.opencv_core.*;
 
 public class ProjectTest {
@@ -32,6 +33,7 @@ public class ProjectTest {
     private Step.Factory stepFactory;
     private EventBus eventBus;
     private Pipeline pipeline;
+    private PipelineExecutor pipelineExecutor;
     private Project project;
 
     private Operation additionOperation, opencvAddOperation, pythonAdditionOperationFromURL,
@@ -47,6 +49,7 @@ public class ProjectTest {
                 .getInstance(ImageFileSource.Factory.class);
         eventBus = injector.getInstance(EventBus.class);
         pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
         project = injector.getInstance(Project.class);
         stepFactory = injector.getInstance(Step.Factory.class);
 
@@ -138,6 +141,7 @@ public class ProjectTest {
         OutputSocket<Number> sum = (OutputSocket<Number>) pipeline.getSteps().get(0).getOutputSockets()[0];
         a.setValue(123.4);
         b.setValue(567.8);
+        pipelineExecutor.runPipeline();
 
         assertEquals((Double) (123.4 + 567.8), sum.getValue().get().doubleValue());
     }
@@ -153,6 +157,7 @@ public class ProjectTest {
         OutputSocket<Number> sum = (OutputSocket<Number>) pipeline.getSteps().get(0).getOutputSockets()[0];
         a.setValue(1234);
         b.setValue(5678);
+        pipelineExecutor.runPipeline();
 
         assertEquals((int) (1234 + 5678), sum.getValue().get().intValue());
     }
@@ -168,6 +173,7 @@ public class ProjectTest {
         OutputSocket<Number> sum = (OutputSocket<Number>) pipeline.getSteps().get(0).getOutputSockets()[0];
         a.setValue(1234);
         b.setValue(5678);
+        pipelineExecutor.runPipeline();
 
         assertEquals((int) (1234 + 5678), sum.getValue().get().intValue());
     }
@@ -193,6 +199,7 @@ public class ProjectTest {
         a1.setValue(123);
         b1.setValue(456);
         b2.setValue(789);
+        pipelineExecutor.runPipeline();
 
         assertEquals((int) (123 + 456 + 789), sum2.getValue().get().intValue());
     }
@@ -210,6 +217,7 @@ public class ProjectTest {
 
         a.setValue(new Mat(1, 1, CV_32F, new Scalar(1234.5)));
         b.setValue(new Mat(1, 1, CV_32F, new Scalar(6789.0)));
+        pipelineExecutor.runPipeline();
 
         Mat diff = new Mat();
         Mat expected = new Mat(1, 1, CV_32F, new Scalar(1234.5 + 6789.0));
@@ -245,4 +253,26 @@ public class ProjectTest {
         assertEquals("Deploy address was not serialized/deserialized",
                 "roborio-191-frc.local", pipeline.getProjectSettings().getDeployAddress());
     }
+
+    @Test
+    public void testSettingMissingFromProjectFileHasItsDefault() {
+        ProjectSettings projectSettings = new ProjectSettings();
+        projectSettings.setSkipUnusedSteps(false);
+        projectSettings.setProcessingScale(0.5);
+        eventBus.post(new ProjectSettingsChangedEvent(projectSettings));
+
+        // Save the project, then remove the settings to make it look like a file from before they existed
+        final Writer writer = new StringWriter();
+        project.save(writer);
+        final String projectFile = writer.toString();
+        assertTrue(projectFile.contains("<skipUnusedSteps>"));
+        project.open(new StringReader(projectFile
+                .replaceAll("<skipUnusedSteps>.*</skipUnusedSteps>", "")
+                .replaceAll("<processingScale>.*</processingScale>", "")));
+
+        assertTrue("A setting missing from the project file should have its default value",
+                pipeline.getProjectSettings().getSkipUnusedSteps());
+        assertEquals("A setting missing from the project file should have its default value",
+                1.0, pipeline.getProjectSettings().getProcessingScale(), 0.0);
+    }
 }
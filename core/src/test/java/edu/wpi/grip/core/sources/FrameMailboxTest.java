@@ -0,0 +1,82 @@
+package edu.wpi.grip.core.sources;
+
+import edu.wpi.grip.core.FrameInfo;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8U;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FrameMailboxTest {
+    private FrameMailbox mailbox;
+    private Mat destination;
+
+    @Before
+    public void setUp() {
+        mailbox = new FrameMailbox();
+        destination = new Mat();
+    }
+
+    @Test
+    public void testTakeFromEmptyMailbox() {
+        assertFalse("Nothing should be taken from an empty mailbox", mailbox.take(destination).isPresent());
+        assertTrue("The destination should not have been modified", destination.empty());
+    }
+
+    @Test
+    public void testTakeFrame() {
+        mailbox.offer(new Mat(2, 2, CV_8U, Scalar.all(1)), 0);
+
+        assertTrue(mailbox.take(destination).isPresent());
+        assertEquals(1, destination.ptr().get(0));
+        assertFalse("The mailbox should be empty after the frame was taken", mailbox.isFull());
+        assertEquals(0, mailbox.getDroppedFrames());
+    }
+
+    @Test
+    public void testNewestFrameWins() {
+        mailbox.offer(new Mat(2, 2, CV_8U, Scalar.all(1)), 0);
+        mailbox.offer(new Mat(2, 2, CV_8U, Scalar.all(2)), 0);
+        mailbox.offer(new Mat(2, 2, CV_8U, Scalar.all(3)), 0);
+
+        assertTrue(mailbox.take(destination).isPresent());
+        assertEquals("The newest frame should have been taken", 3, destination.ptr().get(0));
+        assertEquals("The two older frames should have been dropped", 2, mailbox.getDroppedFrames());
+    }
+
+    @Test
+    public void testOfferedFrameIsCopied() {
+        final Mat frame = new Mat(2, 2, CV_8U, Scalar.all(1));
+        mailbox.offer(frame, 0);
+        frame.put(Scalar.all(5));
+
+        assertTrue(mailbox.take(destination).isPresent());
+        assertEquals("Changing the producer's frame should not change the frame in the mailbox",
+                1, destination.ptr().get(0));
+    }
+
+    @Test
+    public void testTakenFrameIsNotChangedByLaterOffers() {
+        mailbox.offer(new Mat(2, 2, CV_8U, Scalar.all(1)), 0);
+        assertTrue(mailbox.take(destination).isPresent());
+        for (int i = 2; i <= 4; i++) {
+            mailbox.offer(new Mat(2, 2, CV_8U, Scalar.all(i)), 0);
+        }
+
+        assertEquals("The producer should never write into a frame that was taken", 1, destination.ptr().get(0));
+    }
+
+    @Test
+    public void testTakenFrameHasCaptureTimeAndSequenceNumber() {
+        mailbox.offer(new Mat(2, 2, CV_8U, Scalar.all(1)), 100);
+        mailbox.offer(new Mat(2, 2, CV_8U, Scalar.all(2)), 200);
+
+        final FrameInfo frameInfo = mailbox.take(destination).get();
+        assertEquals(2, frameInfo.getSequenceNumber());
+        assertEquals(200, frameInfo.getCaptureNanos());
+    }
+}
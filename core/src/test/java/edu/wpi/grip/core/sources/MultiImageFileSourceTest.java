@@ -45,6 +45,7 @@ public class MultiImageFileSourceTest {
     @Test
     public void testNextValue() throws Exception {
         source.next();
+        source.updateOutputSockets();
         OutputSocket<Mat> outputSocket = source.getOutputSockets()[0];
         gompeiJpegFile.assertSameImage(outputSocket.getValue().get());
     }
@@ -52,6 +53,7 @@ public class MultiImageFileSourceTest {
     @Test
     public void testPreviousValue() throws Exception {
         source.previous();
+        source.updateOutputSockets();
         OutputSocket<Mat> outputSocket = source.getOutputSockets()[0];
         gompeiJpegFile.assertSameImage(outputSocket.getValue().get());
     }
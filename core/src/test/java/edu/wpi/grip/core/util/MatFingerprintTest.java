@@ -0,0 +1,47 @@
+package edu.wpi.grip.core.util;
+
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Rect;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Test;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class MatFingerprintTest {
+
+    @Test
+    public void testEqualImagesHaveTheSameFingerprint() {
+        assertEquals(MatFingerprint.of(new Mat(10, 10, CV_8UC3, new Scalar(1.0, 2.0, 3.0, 0.0))),
+                MatFingerprint.of(new Mat(10, 10, CV_8UC3, new Scalar(1.0, 2.0, 3.0, 0.0))));
+    }
+
+    @Test
+    public void testChangedPixelChangesFingerprint() {
+        final Mat mat = new Mat(10, 10, CV_8UC1, new Scalar(0.0));
+        final long before = MatFingerprint.of(mat);
+        mat.ptr(9, 9).put((byte) 1);
+        assertNotEquals(before, MatFingerprint.of(mat));
+    }
+
+    @Test
+    public void testSizeChangesFingerprint() {
+        assertNotEquals(MatFingerprint.of(new Mat(2, 8, CV_8UC1, new Scalar(0.0))),
+                MatFingerprint.of(new Mat(4, 4, CV_8UC1, new Scalar(0.0))));
+    }
+
+    @Test
+    public void testSubMatrixOnlyIncludesItsOwnPixels() {
+        final Mat mat = new Mat(10, 10, CV_8UC1, new Scalar(0.0));
+        final Mat subMatrix = mat.apply(new Rect(2, 2, 4, 4));
+        final long before = MatFingerprint.of(subMatrix);
+
+        mat.ptr(0, 0).put((byte) 1);
+        assertEquals("A pixel outside of the sub-matrix should not matter", before, MatFingerprint.of(subMatrix));
+
+        mat.ptr(5, 5).put((byte) 1);
+        assertNotEquals(before, MatFingerprint.of(subMatrix));
+    }
+}
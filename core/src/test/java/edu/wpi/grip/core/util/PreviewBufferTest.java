@@ -0,0 +1,190 @@
+package edu.wpi.grip.core.util;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import edu.wpi.grip.core.GRIPCoreModule;
+import edu.wpi.grip.core.InputSocket;
+import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.Pipeline;
+import edu.wpi.grip.core.PipelineExecutor;
+import edu.wpi.grip.core.Socket;
+import edu.wpi.grip.core.Step;
+import edu.wpi.grip.core.events.SocketChangedEvent;
+import edu.wpi.grip.core.operations.composite.DesaturateOperation;
+import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Scalar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
+import static org.bytedeco.javacpp.opencv_core.minMaxLoc;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PreviewBufferTest {
+    private static final long RUN_MILLIS = 1000;
+
+    private EventBus eventBus;
+    private Pipeline pipeline;
+    private PipelineExecutor pipelineExecutor;
+    private Step.Factory stepFactory;
+
+    @Before
+    public void setUp() {
+        final Injector injector = Guice.createInjector(new GRIPCoreModule());
+        eventBus = injector.getInstance(EventBus.class);
+        pipeline = injector.getInstance(Pipeline.class);
+        pipelineExecutor = injector.getInstance(PipelineExecutor.class);
+        stepFactory = injector.getInstance(Step.Factory.class);
+    }
+
+    @Test
+    public void testCopyIsNotTheSocketsImage() {
+        final Mat image = new Mat(10, 20, CV_8UC3, Scalar.all(7));
+        final OutputSocket<Mat> socket = createDesaturateStep(image);
+        pipelineExecutor.runPipeline();
+        final PreviewBuffer<Mat> buffer = new PreviewBuffer<>(Function.identity());
+
+        assertTrue(buffer.update(socket.snapshot()));
+        socket.getValue().get().put(Scalar.all(0));
+
+        final Mat copy = buffer.read().getImage();
+        assertEquals(20, copy.cols());
+        assertEquals(10, copy.rows());
+        assertEquals("The copy should not change when the socket's image does", 7.0, getMax(copy), 0.0);
+    }
+
+    @Test
+    public void testSnapshotOfAReplacedValueIsNotCopied() {
+        final OutputSocket<Mat> socket = createDesaturateStep(new Mat(10, 20, CV_8UC3, Scalar.all(7)));
+        pipelineExecutor.runPipeline();
+        final PreviewBuffer<Mat> buffer = new PreviewBuffer<>(Function.identity());
+        final Socket.Snapshot<Mat> snapshot = socket.snapshot();
+        socket.setValue(new Mat(30, 40, CV_8UC3, Scalar.all(9)));
+
+        assertFalse(buffer.update(snapshot));
+        assertTrue("Nothing should be copied from an old snapshot", buffer.read().getImage().empty());
+    }
+
+    @Test
+    public void testSourceIsResizedWhilePreviewIsRendering() throws InterruptedException {
+        assertEveryCopyIsAWholeFrame(false);
+    }
+
+    @Test
+    public void testSourceIsResizedWhilePipelinedPreviewIsRendering() throws InterruptedException {
+        assertEveryCopyIsAWholeFrame(true);
+    }
+
+    /**
+     * Run the pipeline on its worker thread, switching its input between a small and a big frame so the step's output
+     * is reallocated over and over, while a preview copies the output whenever it's told that it changed.  Meanwhile,
+     * render the copies on this thread, like the GUI would, and check that each one is a whole frame of one size, and
+     * that the step never wrote its output while it was being copied.
+     */
+    private void assertEveryCopyIsAWholeFrame(boolean pipelined) throws InterruptedException {
+        pipeline.getProjectSettings().setPipelinedExecution(pipelined);
+        final Mat small = new Mat(12, 16, CV_8UC3, Scalar.all(50));
+        final Mat big = new Mat(1080, 1920, CV_8UC3, Scalar.all(200));
+        final InputSocket<Mat> input = createDesaturateInput(small);
+        final OutputSocket<Mat> output = getOutput(input);
+
+        final PreviewBuffer<Mat> buffer = new PreviewBuffer<>(Function.identity());
+        final AtomicInteger updates = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        eventBus.register(new Object() {
+            @Subscribe
+            public void onSocketChanged(SocketChangedEvent event) {
+                if (event.getSocket() == output) {
+                    final long version = output.getVersion();
+                    if (buffer.update(output.snapshot())) {
+                        updates.incrementAndGet();
+                    }
+                    // Take as long as copying a much bigger image might, so the step has every chance to run if it
+                    // isn't being kept from it
+                    Uninterruptibles.sleepUninterruptibly(2, TimeUnit.MILLISECONDS);
+                    if (output.getVersion() != version) {
+                        overlaps.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Thread frameThread = new Thread(() -> {
+            final long endTime = System.currentTimeMillis() + RUN_MILLIS;
+            for (int i = 0; System.currentTimeMillis() < endTime; i++) {
+                input.setValue(i % 2 == 0 ? big : small);
+            }
+            running.set(false);
+        });
+        // The worker only posts changes every so often, so post them constantly too, to copy the output while the
+        // step is running as often as possible
+        final Thread postThread = new Thread(() -> {
+            while (running.get()) {
+                pipelineExecutor.postSocketChangedEvents();
+            }
+        });
+        pipelineExecutor.start();
+        frameThread.start();
+        postThread.start();
+        try {
+            while (running.get()) {
+                final Mat copy = buffer.read().getImage();
+                if (!copy.empty()) {
+                    final Mat expected = copy.rows() == small.rows() ? small : big;
+                    final String description = copy.cols() + "x" + copy.rows() + " copy";
+                    assertEquals("Width of a " + description, expected.cols(), copy.cols());
+                    assertEquals("Smallest pixel of a " + description, getMax(expected), getMin(copy), 0.0);
+                    assertEquals("Biggest pixel of a " + description, getMax(expected), getMax(copy), 0.0);
+                }
+            }
+        } finally {
+            frameThread.join();
+            postThread.join();
+            pipelineExecutor.stop();
+        }
+
+        assertEquals("Times the output was written while it was being copied", 0, overlaps.get());
+        assertTrue("Nothing was ever copied", updates.get() > 0);
+    }
+
+    private InputSocket<Mat> createDesaturateInput(Mat image) {
+        final Step step = stepFactory.create(new DesaturateOperation());
+        pipeline.addStep(step);
+        @SuppressWarnings("unchecked") final InputSocket<Mat> input = (InputSocket<Mat>) step.getInputSockets()[0];
+        input.setValue(image);
+        return input;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static OutputSocket<Mat> getOutput(InputSocket<Mat> input) {
+        return (OutputSocket<Mat>) input.getStep().get().getOutputSockets()[0];
+    }
+
+    private OutputSocket<Mat> createDesaturateStep(Mat image) {
+        return getOutput(createDesaturateInput(image));
+    }
+
+    private static double getMin(Mat mat) {
+        final DoublePointer min = new DoublePointer(1);
+        minMaxLoc(mat.reshape(1, 0), min, null, null, null, null);
+        return min.get();
+    }
+
+    private static double getMax(Mat mat) {
+        final DoublePointer max = new DoublePointer(1);
+        minMaxLoc(mat.reshape(1, 0), null, max, null, null, null);
+        return max.get();
+    }
+}
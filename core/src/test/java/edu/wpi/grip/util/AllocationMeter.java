@@ -0,0 +1,47 @@
+package edu.wpi.grip.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures how many bytes of Java heap the current thread allocates.  Unlike watching the size of the heap, this
+ * isn't affected by garbage collection or by other threads.
+ */
+public final class AllocationMeter {
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private AllocationMeter() { /* no op */ }
+
+    /**
+     * @return If the JVM can count the bytes allocated by each thread
+     */
+    public static boolean isSupported() {
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (sunThreadMXBean.isThreadAllocatedMemorySupported() && !sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+            sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return sunThreadMXBean.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @return The total number of bytes that the current thread has allocated since it started
+     */
+    public static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) threadMXBean)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @return The average number of bytes that the current thread allocates each time it runs the given code
+     */
+    public static long measure(int iterations, Runnable runnable) {
+        final long before = getAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            runnable.run();
+        }
+        return (getAllocatedBytes() - before) / iterations;
+    }
+}
@@ -7,6 +7,8 @@ import com.google.inject.Injector;
 import com.sun.javafx.application.PlatformImpl;
 import edu.wpi.grip.core.GRIPCoreModule;
 import edu.wpi.grip.core.Palette;
+import edu.wpi.grip.core.PipelineExecutor;
+import edu.wpi.grip.core.QualityController;
 import edu.wpi.grip.core.events.UnexpectedThrowableEvent;
 import edu.wpi.grip.core.operations.Operations;
 import edu.wpi.grip.core.util.SafeShutdown;
@@ -31,6 +33,10 @@ public class Main extends Application {
     @Inject
     private Palette palette;
     @Inject
+    private PipelineExecutor pipelineExecutor;
+    @Inject
+    private QualityController qualityController;
+    @Inject
     private Logger logger;
 
     protected final Injector injector = Guice.createInjector(new GRIPCoreModule(), new GRIPUIModule());
@@ -59,6 +65,9 @@ public class Main extends Application {
         Operations.addOperations(eventBus);
         CVOperations.addOperations(eventBus);
 
+        pipelineExecutor.start();
+        qualityController.start();
+
         stage.setOnCloseRequest((event) -> {
             // If this isn't here this can cause a deadlock on windows
             // See issue #297
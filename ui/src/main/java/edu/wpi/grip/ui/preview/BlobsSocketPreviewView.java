@@ -1,22 +1,18 @@
 package edu.wpi.grip.ui.preview;
 
-import com.google.common.eventbus.Subscribe;
 import edu.wpi.grip.core.OutputSocket;
-import edu.wpi.grip.core.events.SocketChangedEvent;
 import edu.wpi.grip.core.operations.composite.BlobsReport;
-import edu.wpi.grip.ui.util.GRIPPlatform;
-import edu.wpi.grip.ui.util.ImageConverter;
+import edu.wpi.grip.core.util.PreviewBuffer;
 import javafx.application.Platform;
 import javafx.geometry.Orientation;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Separator;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
 
-import static org.bytedeco.javacpp.opencv_core.*;
-import static org.bytedeco.javacpp.opencv_imgproc.*;
+import java.util.Optional;
 
 /**
  * A SocketPreviewView for BlobsReports that shows the original image with circles overlayed onto it,
@@ -24,73 +20,58 @@ import static org.bytedeco.javacpp.opencv_imgproc.*;
  */
 public class BlobsSocketPreviewView extends SocketPreviewView<BlobsReport> {
 
-    private final ImageConverter imageConverter = new ImageConverter();
-    private final ImageView imageView = new ImageView();
+    private final PreviewBuffer<BlobsReport> buffer = new PreviewBuffer<>(BlobsReport::getInput);
+    private final PreviewOverlay overlay = new PreviewOverlay(this::markDirty);
     private final Label infoLabel = new Label();
-    private final Mat tmp = new Mat();
-    private final GRIPPlatform platform;
     private boolean showInputImage = false;
 
     /**
      * @param socket   An output socket to preview
      */
-    public BlobsSocketPreviewView(GRIPPlatform platform, OutputSocket<BlobsReport> socket) {
+    public BlobsSocketPreviewView(OutputSocket<BlobsReport> socket) {
         super(socket);
-        this.platform = platform;
         final CheckBox show = new CheckBox("Show Input Image");
         show.setSelected(this.showInputImage);
         show.selectedProperty().addListener(observable -> {
             this.showInputImage = show.isSelected();
-            this.convertImage();
+            this.markDirty();
         });
 
-        final VBox content = new VBox(this.imageView, new Separator(Orientation.HORIZONTAL), this.infoLabel, show);
+        final VBox content = new VBox(this.overlay, new Separator(Orientation.HORIZONTAL), this.infoLabel, show);
         content.getStyleClass().add("preview-box");
         this.setContent(content);
 
         assert Platform.isFxApplicationThread() : "Must be in FX Thread to create this or you will be exposing constructor to another thread!";
-        convertImage();
     }
 
 
-    @Subscribe
-    public void onSocketChanged(SocketChangedEvent event) {
-        if (event.getSocket() == this.getSocket()) {
-            this.convertImage();
-        }
+    @Override
+    protected boolean copyValue() {
+        return this.buffer.update(this.getSocket().snapshot());
     }
 
-    private void convertImage() {
-        synchronized (this) {
-            final BlobsReport blobsReport = this.getSocket().getValue().get();
-            final Mat input = blobsReport.getInput();
-
-            if (input.channels() == 3) {
-                input.copyTo(tmp);
-            } else {
-                cvtColor(input, tmp, CV_GRAY2BGR);
-            }
-            // If we don't want to see the background image, set it to black
-            if (!this.showInputImage) {
-                bitwise_xor(tmp, tmp, tmp);
-            }
+    @Override
+    protected void render() {
+        // The report's input image belongs to the pipeline, so the copy of it is shown instead
+        final PreviewBuffer.Frame<BlobsReport> frame = this.buffer.read();
+        if (!frame.getValue().isPresent()) {
+            return;
+        }
+        final BlobsReport blobsReport = frame.getValue().get();
 
-            // If there were lines found, draw them on the image before displaying it
-            if (!blobsReport.getBlobs().isEmpty()) {
-                // For each line in the report, draw a line along with the starting and ending points
-                for (BlobsReport.Blob blob : blobsReport.getBlobs()) {
-                    final Point point = new Point((int) blob.x, (int) blob.y);
-                    circle(tmp, point, (int) (blob.size / 2), Scalar.WHITE, 2, LINE_8, 0);
-                }
-            }
+        // The blobs are drawn on the canvas in the coordinates of the full frame, over a thumbnail of the input image
+        // if we want to see it
+        final GraphicsContext graphics = this.overlay.begin(blobsReport.getRegion(),
+                this.showInputImage ? Optional.of(frame.getImage()) : Optional.empty());
+        graphics.setStroke(Color.WHITE);
+        graphics.setLineWidth(2 * this.overlay.getPixelWidth());
 
-            final Mat output = tmp;
-            final int numBlobs = blobsReport.getBlobs().size();
-            platform.runAsSoonAsPossible(() -> {
-                final Image image = this.imageConverter.convert(output);
-                this.imageView.setImage(image);
-                this.infoLabel.setText("Found " + numBlobs + " blobs");
-            });
+        // For each blob in the report, draw a circle with the blob's diameter around its center
+        for (BlobsReport.Blob blob : blobsReport.getBlobs()) {
+            final double radius = blob.size / 2;
+            graphics.strokeOval(blob.x - radius, blob.y - radius, blob.size, blob.size);
         }
+
+        this.infoLabel.setText("Found " + blobsReport.getBlobs().size() + " blobs");
     }
 }
@@ -1,20 +1,20 @@
 package edu.wpi.grip.ui.preview;
 
-import com.google.common.eventbus.Subscribe;
 import edu.wpi.grip.core.OutputSocket;
-import edu.wpi.grip.core.events.SocketChangedEvent;
+import edu.wpi.grip.core.Region;
 import edu.wpi.grip.core.operations.composite.ContoursReport;
-import edu.wpi.grip.ui.util.GRIPPlatform;
-import edu.wpi.grip.ui.util.ImageConverter;
 import javafx.application.Platform;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import org.bytedeco.javacpp.indexer.IntIndexer;
 
-import static org.bytedeco.javacpp.opencv_core.*;
-import static org.bytedeco.javacpp.opencv_imgproc.drawContours;
+import java.util.Optional;
+
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_core.MatVector;
 
 /**
  * A preview view for displaying contours.  This view shows each contour as a different-colored outline (so they can be
@@ -22,75 +22,77 @@ import static org.bytedeco.javacpp.opencv_imgproc.drawContours;
  */
 public final class ContoursSocketPreviewView extends SocketPreviewView<ContoursReport> {
 
-    private final ImageConverter imageConverter = new ImageConverter();
-    private final ImageView imageView = new ImageView();
+    private final PreviewOverlay overlay = new PreviewOverlay(this::markDirty);
     private final Label infoLabel = new Label();
     private final CheckBox colorContours;
-    private final Mat tmp = new Mat();
-    private final GRIPPlatform platform;
-
-    private final static Scalar[] CONTOUR_COLORS = new Scalar[]{
-            Scalar.RED,
-            Scalar.YELLOW,
-            Scalar.GREEN,
-            Scalar.CYAN,
-            Scalar.BLUE,
-            Scalar.MAGENTA,
+
+    private final static Color[] CONTOUR_COLORS = new Color[]{
+            Color.RED,
+            Color.YELLOW,
+            Color.LIME,
+            Color.CYAN,
+            Color.BLUE,
+            Color.MAGENTA,
     };
 
     /**
      * @param socket   An output socket to preview
      */
-    public ContoursSocketPreviewView(GRIPPlatform platform, OutputSocket<ContoursReport> socket) {
+    public ContoursSocketPreviewView(OutputSocket<ContoursReport> socket) {
         super(socket);
-        this.platform = platform;
         this.colorContours = new CheckBox("Color Contours");
         this.colorContours.setSelected(false);
 
-        this.setContent(new VBox(this.imageView, this.infoLabel, this.colorContours));
+        this.setContent(new VBox(this.overlay, this.infoLabel, this.colorContours));
 
-        this.colorContours.selectedProperty().addListener(observable -> this.render());
+        this.colorContours.selectedProperty().addListener(observable -> this.markDirty());
 
         assert Platform.isFxApplicationThread() : "Must be in FX Thread to create this or you will be exposing constructor to another thread!";
-        render();
     }
 
-    @Subscribe
-    public void onSocketChanged(SocketChangedEvent event) {
-        if (event.getSocket() == this.getSocket()) {
-            this.render();
-        }
-    }
+    @Override
+    protected void render() {
+        final ContoursReport contours = this.getSocket().getValue().get();
+        long numContours = 0;
 
-    private void render() {
-        synchronized (this) {
-            final ContoursReport contours = this.getSocket().getValue().get();
-            long numContours = 0;
+        // Contours are always in the coordinates of the full frame, and are drawn as outlines on a black background
+        final GraphicsContext graphics = this.overlay.begin(
+                Region.ofFrame(contours.getCols(), contours.getRows()), Optional.empty());
+        graphics.setStroke(Color.WHITE);
 
-            if (!contours.getContours().isNull() && contours.getRows() > 0 && contours.getCols() > 0) {
-                // Allocate a completely black OpenCV Mat to draw the contours onto.  We can easily render contours
-                // by using OpenCV's drawContours function and converting the Mat into a JavaFX Image.
-                this.tmp.create(contours.getRows(), contours.getCols(), CV_8UC3);
-                bitwise_xor(tmp, tmp, tmp);
-
-                numContours = contours.getContours().size();
+        if (!contours.getContours().isNull() && contours.getRows() > 0 && contours.getCols() > 0) {
+            final MatVector contourVector = contours.getContours();
+            numContours = contourVector.size();
 
+            for (int i = 0; i < numContours; i++) {
                 if (this.colorContours.isSelected()) {
-                    for (int i = 0; i < numContours; i++) {
-                        drawContours(this.tmp, contours.getContours(), i, CONTOUR_COLORS[i % CONTOUR_COLORS.length]);
-                    }
-                } else {
-                    drawContours(this.tmp, contours.getContours(), -1, Scalar.WHITE);
+                    graphics.setStroke(CONTOUR_COLORS[i % CONTOUR_COLORS.length]);
                 }
+                strokeContour(graphics, contourVector.get(i));
             }
+        }
 
-            final long finalNumContours = numContours;
-            final Mat convertInput = tmp;
-            platform.runAsSoonAsPossible(() -> {
-                final Image image = this.imageConverter.convert(convertInput);
-                this.imageView.setImage(image);
-                this.infoLabel.setText("Found " + finalNumContours + " contours");
-            });
+        this.infoLabel.setText("Found " + numContours + " contours");
+    }
+
+    /**
+     * Draw the outline of a contour, which is a CV_32SC2 Mat of points
+     */
+    private static void strokeContour(GraphicsContext graphics, Mat contour) {
+        final int numPoints = contour.rows();
+        if (numPoints == 0) {
+            return;
         }
+
+        final double[] xPoints = new double[numPoints];
+        final double[] yPoints = new double[numPoints];
+        final IntIndexer indexer = contour.createIndexer();
+        for (int i = 0; i < numPoints; i++) {
+            xPoints[i] = indexer.get(i, 0, 0);
+            yPoints[i] = indexer.get(i, 0, 1);
+        }
+        indexer.release();
+
+        graphics.strokePolygon(xPoints, yPoints, numPoints);
     }
 }
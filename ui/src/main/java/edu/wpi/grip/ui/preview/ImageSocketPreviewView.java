@@ -1,13 +1,10 @@
 package edu.wpi.grip.ui.preview;
 
-import com.google.common.eventbus.Subscribe;
 import edu.wpi.grip.core.OutputSocket;
-import edu.wpi.grip.core.events.SocketChangedEvent;
-import edu.wpi.grip.ui.util.GRIPPlatform;
-import edu.wpi.grip.ui.util.ImageConverter;
+import edu.wpi.grip.core.util.PreviewBuffer;
 import javafx.application.Platform;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
+
+import java.util.function.Function;
 
 import static org.bytedeco.javacpp.opencv_core.Mat;
 
@@ -16,40 +13,27 @@ import static org.bytedeco.javacpp.opencv_core.Mat;
  */
 public class ImageSocketPreviewView extends SocketPreviewView<Mat> {
 
-    private final GRIPPlatform platform;
-    private final ImageConverter imageConverter;
-    private final ImageView imageView;
+    private final PreviewBuffer<Mat> buffer = new PreviewBuffer<>(Function.identity());
+    private final PreviewImageView imageView;
 
     /**
      * @param socket   An output socket to preview
      */
-    ImageSocketPreviewView(GRIPPlatform platform, OutputSocket<Mat> socket) {
+    ImageSocketPreviewView(OutputSocket<Mat> socket) {
         super(socket);
-        this.platform = platform;
-        this.imageConverter = new ImageConverter();
-        this.imageView = new ImageView();
+        this.imageView = new PreviewImageView(this::markDirty);
         this.setContent(imageView);
 
         assert Platform.isFxApplicationThread() : "Must be in FX Thread to create this or you will be exposing constructor to another thread!";
-        convertImage();
     }
 
-    @Subscribe
-    public void onSocketChanged(SocketChangedEvent event) {
-        if (event.getSocket() == this.getSocket()) {
-            this.convertImage();
-        }
+    @Override
+    protected boolean copyValue() {
+        return this.buffer.update(this.getSocket().snapshot());
     }
 
-    private void convertImage() {
-        synchronized (this) {
-            this.getSocket().getValue().ifPresent(mat -> {
-                platform.runAsSoonAsPossible(() -> {
-                    final Image image = this.imageConverter.convert(mat);
-                    this.imageView.setImage(image);
-                });
-
-            });
-        }
+    @Override
+    protected void render() {
+        this.imageView.setImage(this.imageView.convert(this.buffer.read().getImage()));
     }
 }
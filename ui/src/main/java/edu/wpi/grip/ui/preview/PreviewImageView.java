@@ -0,0 +1,55 @@
+package edu.wpi.grip.ui.preview;
+
+import edu.wpi.grip.ui.util.DPIUtility;
+import edu.wpi.grip.ui.util.ImageConverter;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.bytedeco.javacpp.opencv_core.Mat;
+
+/**
+ * An {@link ImageView} for previews of OpenCV images.  Images are shown at most {@link DPIUtility#PREVIEW_IMAGE_WIDTH}
+ * wide, and are shrunk to that size before they're converted, so a preview of a high resolution image only costs as
+ * much as the pixels that are on the screen.  Clicking the image zooms in to its full resolution, and clicking it again
+ * zooms back out.
+ */
+class PreviewImageView extends ImageView {
+    private final ImageConverter imageConverter = new ImageConverter();
+    private final Runnable onZoomChanged;
+    private boolean zoomed = false;
+
+    /**
+     * @param onZoomChanged Called when the image is zoomed in or out, so the preview can convert its image again
+     */
+    PreviewImageView(Runnable onZoomChanged) {
+        this.onZoomChanged = checkNotNull(onZoomChanged, "onZoomChanged can not be null");
+        Tooltip.install(this, new Tooltip("Click to switch between full resolution and a thumbnail"));
+        this.setOnMouseClicked(event -> toggleZoom());
+    }
+
+    /**
+     * Switch between showing images at full resolution and as thumbnails
+     */
+    void toggleZoom() {
+        zoomed = !zoomed;
+        onZoomChanged.run();
+    }
+
+    /**
+     * @return The width that an image of the given width is shown at
+     */
+    double getDisplayWidth(int width) {
+        return zoomed ? width : Math.min(width, DPIUtility.PREVIEW_IMAGE_WIDTH);
+    }
+
+    /**
+     * Convert an image to show in this view.  This must be called on the JavaFX application thread.
+     *
+     * @return A JavaFX image at the size that it will be shown, or null for an empty image
+     */
+    Image convert(Mat mat) {
+        return imageConverter.convert(mat, getDisplayWidth(mat.cols()));
+    }
+}
@@ -0,0 +1,86 @@
+package edu.wpi.grip.ui.preview;
+
+import edu.wpi.grip.core.Region;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+
+import java.util.Optional;
+
+import static org.bytedeco.javacpp.opencv_core.Mat;
+
+/**
+ * A preview of shapes found in an image, like contours, lines, or blobs.  The shapes are drawn as vectors on a
+ * {@link Canvas} that's the size of the preview, optionally over a thumbnail of the image that they were found in, so
+ * the cost of a preview depends on the number of shapes instead of the number of pixels in the image.
+ * <p>
+ * Like a {@link PreviewImageView}, clicking the preview switches between full resolution and a thumbnail.
+ */
+class PreviewOverlay extends StackPane {
+    private final PreviewImageView imageView;
+    private final Canvas canvas = new Canvas();
+    private double scale = 1.0;
+
+    /**
+     * @param onZoomChanged Called when the preview is zoomed in or out, so the shapes can be drawn again
+     */
+    PreviewOverlay(Runnable onZoomChanged) {
+        this.imageView = new PreviewImageView(onZoomChanged);
+        this.canvas.setOnMouseClicked(event -> imageView.toggleZoom());
+        Tooltip.install(this.canvas, new Tooltip("Click to switch between full resolution and a thumbnail"));
+        this.getChildren().addAll(imageView, canvas);
+    }
+
+    /**
+     * Clear the preview and get ready to draw the shapes found in an image.  This must be called on the JavaFX
+     * application thread.
+     *
+     * @param region     Where the image is in the full frame.  Shapes are drawn in the coordinates of the full frame.
+     * @param background The image to show behind the shapes.  If this is empty, the shapes are drawn on black.
+     * @return The graphics context to draw the shapes with, transformed so that a unit is a pixel of the full frame and
+     * whole coordinates are the centers of pixels, like they are in OpenCV
+     */
+    GraphicsContext begin(Region region, Optional<Mat> background) {
+        final int imageWidth = (int) Math.round(region.getWidth() / region.getScaleX());
+        final int imageHeight = (int) Math.round(region.getHeight() / region.getScaleY());
+        final double width = Math.round(imageView.getDisplayWidth(imageWidth));
+        final double height = imageWidth == 0 ? 0 : Math.max(1, Math.round(imageHeight * width / imageWidth));
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+
+        if (background.isPresent() && !background.get().empty()) {
+            imageView.setImage(imageView.convert(background.get()));
+            imageView.setVisible(true);
+        } else {
+            imageView.setImage(null);
+            imageView.setVisible(false);
+        }
+
+        final GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.setTransform(1, 0, 0, 1, 0, 0);
+        graphics.clearRect(0, 0, width, height);
+        if (!imageView.isVisible()) {
+            graphics.setFill(Color.BLACK);
+            graphics.fillRect(0, 0, width, height);
+        }
+
+        // Pixels of the full frame are this many pixels on the screen.  The width and height of a shrunk image are
+        // rounded separately, so the rows and columns are scaled a little differently.
+        final double scaleX = imageWidth == 0 ? 1.0 : width / imageWidth / region.getScaleX();
+        final double scaleY = imageHeight == 0 ? 1.0 : height / imageHeight / region.getScaleY();
+        scale = (scaleX + scaleY) / 2;
+        graphics.setTransform(scaleX, 0, 0, scaleY, (0.5 - region.getX()) * scaleX, (0.5 - region.getY()) * scaleY);
+        graphics.setLineWidth(getPixelWidth());
+        return graphics;
+    }
+
+    /**
+     * @return The width of a pixel on the screen, in pixels of the full frame.  This can be used to draw lines that
+     * are the same thickness at any scale.
+     */
+    double getPixelWidth() {
+        return 1.0 / scale;
+    }
+}
@@ -1,16 +1,40 @@
 package edu.wpi.grip.ui.preview;
 
+import com.google.common.eventbus.Subscribe;
 import edu.wpi.grip.core.OutputSocket;
+import edu.wpi.grip.core.events.SocketChangedEvent;
+import javafx.animation.AnimationTimer;
 import javafx.scene.control.TitledPane;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * A JavaFX control that shows a preview of the current value of a socket.  This allows the user to have real-time
  * feedback on an algorithm.
+ * <p>
+ * A change to the socket only marks the preview as out of date, so the thread that changed it never waits for the
+ * GUI.  While the preview is showing, it checks once per JavaFX pulse whether it's out of date, and if so
+ * {@link #render() renders} the latest value of the socket.  Any values that came and went in between are never
+ * rendered, so a preview costs at most one render per frame of the GUI no matter how fast the pipeline runs.
+ * <p>
+ * Previews that show images never read the {@link org.bytedeco.javacpp.opencv_core.Mat Mats} in the pipeline from the
+ * JavaFX application thread, since a step could be writing into them at the same time.  Instead, they copy what they
+ * show in {@link #copyValue()}, which is called on the thread that posted the change while the steps that write
+ * the socket are kept from running.
  */
 public abstract class SocketPreviewView<T> extends TitledPane {
     private final OutputSocket<T> socket;
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final AnimationTimer renderTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (dirty.getAndSet(false)) {
+                render();
+            }
+        }
+    };
 
     /**
      * @param socket   An output socket to preview
@@ -21,8 +45,48 @@ public abstract class SocketPreviewView<T> extends TitledPane {
         this.setText(this.getTitle());
         this.getStyleClass().add("socket-preview");
         this.setCollapsible(false);
+
+        // Only render while the preview is on the screen
+        this.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene == null) {
+                renderTimer.stop();
+            } else {
+                // The socket might not change again for a while, so get its current value the same way as later ones
+                socket.requestChangedEvent();
+                renderTimer.start();
+            }
+        });
     }
 
+    @Subscribe
+    public void onSocketChanged(SocketChangedEvent event) {
+        if (event.getSocket() == this.socket && copyValue()) {
+            markDirty();
+        }
+    }
+
+    /**
+     * Called on the thread that posted a change to the socket, before the preview is marked out of date.  Previews
+     * that show images copy them here.
+     *
+     * @return true if there's something new to render
+     */
+    protected boolean copyValue() {
+        return true;
+    }
+
+    /**
+     * Render the preview again on the next JavaFX pulse.  This can be called from any thread, and never blocks.
+     */
+    protected void markDirty() {
+        dirty.set(true);
+    }
+
+    /**
+     * Show the latest value of the socket.  This is called on the JavaFX application thread, at most once per pulse.
+     */
+    protected abstract void render();
+
     /**
      * @return A string of text to display in the GUI to identify this preview, including the name of the output socket
      * and what operation it is the output of.
@@ -1,10 +1,6 @@
 package edu.wpi.grip.ui.preview;
 
-import com.google.common.eventbus.Subscribe;
 import edu.wpi.grip.core.OutputSocket;
-import edu.wpi.grip.core.Socket;
-import edu.wpi.grip.core.events.SocketChangedEvent;
-import edu.wpi.grip.ui.util.GRIPPlatform;
 import javafx.scene.control.TextArea;
 
 /**
@@ -14,14 +10,12 @@ import javafx.scene.control.TextArea;
 public class TextAreaSocketPreviewView<T> extends SocketPreviewView<T> {
 
     private final TextArea text;
-    private final GRIPPlatform platform;
 
     /**
      * @param socket An output socket to preview
      */
-    public TextAreaSocketPreviewView(GRIPPlatform platform, OutputSocket<T> socket) {
+    public TextAreaSocketPreviewView(OutputSocket<T> socket) {
         super(socket);
-        this.platform = platform;
 
         this.setStyle("-fx-pref-width: 20em;");
 
@@ -31,13 +25,8 @@ public class TextAreaSocketPreviewView<T> extends SocketPreviewView<T> {
         this.setContent(text);
     }
 
-    @Subscribe
-    public void onSocketChanged(SocketChangedEvent event) {
-        final Socket socket = event.getSocket();
-        if (socket == this.getSocket()) {
-            platform.runAsSoonAsPossible(() -> {
-                this.text.setText(socket.getValue().orElse("").toString());
-            });
-        }
+    @Override
+    protected void render() {
+        this.text.setText(this.getSocket().getValue().map(Object::toString).orElse(""));
     }
 }
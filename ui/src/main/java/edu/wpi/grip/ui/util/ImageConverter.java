@@ -1,41 +1,71 @@
 package edu.wpi.grip.ui.util;
 
-import com.google.common.primitives.UnsignedBytes;
 import javafx.application.Platform;
 import javafx.scene.image.Image;
 import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 
 import static org.bytedeco.javacpp.opencv_core.*;
+import static org.bytedeco.javacpp.opencv_imgproc.COLOR_BGR2BGRA;
+import static org.bytedeco.javacpp.opencv_imgproc.COLOR_GRAY2BGRA;
+import static org.bytedeco.javacpp.opencv_imgproc.INTER_AREA;
+import static org.bytedeco.javacpp.opencv_imgproc.cvtColor;
+import static org.bytedeco.javacpp.opencv_imgproc.resize;
 
 /**
  * Utility class for creating a JavaFX image from an OpenCV image.  This used by the preview views to render an image
  * in the GUI.
  */
 public final class ImageConverter {
-    private WritableImage image;
-    private IntBuffer pixels;
+    /**
+     * Images are converted into these two in turn, so the one that was returned last time (which might be on the
+     * screen) isn't changed until the next one is ready
+     */
+    private final WritableImage[] images = new WritableImage[2];
+    private int nextImage = 0;
+    private final Mat bgra = new Mat();
+    private final Mat resized = new Mat();
+
+    /**
+     * Convert an OpenCV {@link Mat} into a JavaFX {@link Image} that's at most the given width.  Bigger images are
+     * shrunk natively before they're converted, by averaging the pixels that each pixel of the result covers, so the
+     * time to convert and upload the image only depends on how big it is on the screen.
+     *
+     * @param mat      An 8-bit OpenCV Mat containing an image with 1, 3, or 4 channels
+     * @param maxWidth The width of the image on the screen
+     * @return A JavaFX image, or null for empty
+     * @see #convert(Mat)
+     */
+    public Image convert(Mat mat, double maxWidth) {
+        if (mat.empty() || mat.cols() <= maxWidth) {
+            return convert(mat);
+        }
+
+        final int width = (int) Math.round(maxWidth);
+        final int height = Math.max(1, (int) Math.round(mat.rows() * maxWidth / mat.cols()));
+        resize(mat, this.resized, new Size(width, height), 0, 0, INTER_AREA);
+        return convert(this.resized);
+    }
 
     /**
      * Convert a BGR-formatted OpenCV {@link Mat} into a JavaFX {@link Image}.
      * <p>
-     * JavaFX understands ARGB pixel data, so one way to turn a Mat into a JavaFX image is to shift around the bytes
-     * from the Mat into an int array of pixels.
+     * JavaFX can read pixels in BGRA order, so OpenCV converts the Mat into a reused 4-channel Mat natively, and its
+     * native buffer is then copied into the image in one call.  No pixels are touched one at a time in Java.
      * <p>
      * This is also possible to do by using JavaCV, but the JavaCV method involves several intermediate conversions
      * (Mat -> Frame -> BufferedImage -> JavaFX Image) and is way too slow to use for a real-time video.
      *
-     * @param mat An 8-bit OpenCV Mat containing an image with either 1 or 3 channels
+     * @param mat An 8-bit OpenCV Mat containing an image with 1, 3, or 4 channels
      * @return A JavaFX image, or null for empty
      */
     public Image convert(Mat mat) {
         /*
          * IMPORTANT!
-         * The {@link ImageConverter#image} is a component that may be actively part of the UI
-         * If we are changing it while it is being rendered by the UI thread this could cause
+         * The images are components that may be actively part of the UI
+         * If we are changing them while they are being rendered by the UI thread this could cause
          * a problem in the UI thread.
          */
         if(!Platform.isFxApplicationThread()) {
@@ -46,8 +76,8 @@ public final class ImageConverter {
         final int height = mat.rows();
         final int channels = mat.channels();
 
-        assert channels == 3 || channels == 1 :
-                "Only 3-channel BGR images or single-channel grayscale images can be converted";
+        assert channels == 3 || channels == 1 || channels == 4 :
+                "Only 3-channel BGR, 4-channel BGRA, or single-channel grayscale images can be converted";
 
         assert mat.depth() == CV_8U || mat.depth() == CV_8S :
                 "Only images with 8 bits per channel can be previewed";
@@ -57,46 +87,37 @@ public final class ImageConverter {
             return null;
         }
 
-        // If the size of the Mat changed for whatever reason, allocate a new image with the proper dimensions and a buffer
-        // big enough to hold all of the pixels in the image.
-        if (this.image == null || this.image.getWidth() != width || this.image.getHeight() != height) {
-            this.image = new WritableImage(width, height);
-            this.pixels = IntBuffer.allocate(width * height);
+        // If the size of the Mat changed for whatever reason, allocate a new image with the proper dimensions
+        WritableImage image = this.images[this.nextImage];
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new WritableImage(width, height);
+            this.images[this.nextImage] = image;
         }
+        this.nextImage = 1 - this.nextImage;
 
-        final ByteBuffer buffer = mat.<ByteBuffer>createBuffer();
-        final int stride = buffer.capacity() / height;
-
-        // Convert the data from the Mat into ARGB data that we can put into a JavaFX WritableImage
+        // Gray and BGR pixels are converted with an opaque alpha, so it doesn't matter that JavaFX expects the colors
+        // to be premultiplied by it.  BGRA images from OpenCV aren't premultiplied, so they're handed over in the
+        // format that says so.  The converted Mat is always continuous, even if the input is a region of a bigger
+        // image, so it can be handed over in one piece.
+        final PixelFormat<ByteBuffer> pixelFormat;
         switch (channels) {
             case 1:
-                // 1 channel - convert grayscale to ARGB
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        final int value = UnsignedBytes.toInt(buffer.get(stride * y + channels * x));
-                        this.pixels.put(width * y + x, (0xff << 24) | (value << 16) | (value << 8) | value);
-                    }
-                }
-
+                cvtColor(mat, this.bgra, COLOR_GRAY2BGRA);
+                pixelFormat = PixelFormat.getByteBgraPreInstance();
                 break;
-
             case 3:
-                // 3 channels - convert BGR to RGBA
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        final int b = UnsignedBytes.toInt(buffer.get(stride * y + channels * x));
-                        final int g = UnsignedBytes.toInt(buffer.get(stride * y + channels * x + 1));
-                        final int r = UnsignedBytes.toInt(buffer.get(stride * y + channels * x + 2));
-                        this.pixels.put(width * y + x, (0xff << 24) | (r << 16) | (g << 8) | b);
-                    }
-                }
-
+                cvtColor(mat, this.bgra, COLOR_BGR2BGRA);
+                pixelFormat = PixelFormat.getByteBgraPreInstance();
+                break;
+            default:
+                mat.copyTo(this.bgra);
+                pixelFormat = PixelFormat.getByteBgraInstance();
                 break;
         }
 
-        final PixelFormat<IntBuffer> argb = PixelFormat.getIntArgbInstance();
-        this.image.getPixelWriter().setPixels(0, 0, width, height, argb, this.pixels, width);
+        final ByteBuffer buffer = this.bgra.<ByteBuffer>createBuffer();
+        image.getPixelWriter().setPixels(0, 0, width, height, pixelFormat, buffer, width * 4);
 
-        return this.image;
+        return image;
     }
 }
@@ -127,7 +127,7 @@ public class PipelineUITest extends ApplicationTest {
     }
 
     private Step addOperation(int count, Operation operation) {
-        final Step step = new Step.Factory(eventBus, origin -> new MockExceptionWitness(eventBus, origin)).create(operation);
+        final Step step = new Step.Factory(eventBus, origin -> new MockExceptionWitness(eventBus, origin), new MatPool()).create(operation);
         pipeline.addStep(step);
 
         // Wait for the event to propagate to the UI
@@ -8,15 +8,20 @@ import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import org.bytedeco.javacpp.opencv_core.Mat;
+import org.bytedeco.javacpp.opencv_core.Rect;
+import org.bytedeco.javacpp.opencv_core.Scalar;
 import org.junit.Test;
 import org.testfx.framework.junit.ApplicationTest;
 
 import java.net.URLDecoder;
 import java.nio.file.Paths;
 
+import static org.bytedeco.javacpp.opencv_core.CV_8UC1;
+import static org.bytedeco.javacpp.opencv_core.CV_8UC3;
 import static org.bytedeco.javacpp.opencv_imgproc.COLOR_BGR2GRAY;
 import static org.bytedeco.javacpp.opencv_imgproc.cvtColor;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 
 
 public class ImageConverterTest extends ApplicationTest {
@@ -75,6 +80,68 @@ public class ImageConverterTest extends ApplicationTest {
         });
     }
 
+    @Test
+    public void testConvertPixels() {
+        // A blue image with one red pixel, cut out of a bigger image so its rows aren't next to each other in memory
+        final Mat bigMat = new Mat(4, 4, CV_8UC3, new Scalar(255, 0, 0, 0));
+        bigMat.apply(new Rect(2, 1, 1, 1)).put(new Scalar(0, 0, 255, 0));
+        final Mat mat = bigMat.apply(new Rect(1, 1, 2, 2));
+
+        interact(() -> {
+            final Image javaFXImage = converter.convert(mat);
+            assertEquals(0xff0000ff, javaFXImage.getPixelReader().getArgb(0, 0));
+            assertEquals(0xffff0000, javaFXImage.getPixelReader().getArgb(1, 0));
+            assertEquals(0xff0000ff, javaFXImage.getPixelReader().getArgb(1, 1));
+        });
+    }
+
+    @Test
+    public void testConvertGrayPixels() {
+        final Mat mat = new Mat(2, 2, CV_8UC1, Scalar.all(0x40));
+
+        interact(() -> {
+            final Image javaFXImage = converter.convert(mat);
+            assertEquals(0xff404040, javaFXImage.getPixelReader().getArgb(1, 1));
+        });
+    }
+
+    @Test
+    public void testConvertDoesntChangeTheLastImage() {
+        final Mat black = new Mat(2, 2, CV_8UC1, Scalar.all(0));
+        final Mat white = new Mat(2, 2, CV_8UC1, Scalar.all(0xff));
+
+        interact(() -> {
+            final Image shownImage = converter.convert(black);
+            final Image nextImage = converter.convert(white);
+            assertNotSame(shownImage, nextImage);
+            assertEquals(0xff000000, shownImage.getPixelReader().getArgb(1, 1));
+            assertEquals(0xffffffff, nextImage.getPixelReader().getArgb(1, 1));
+        });
+    }
+
+    @Test
+    public void testConvertShrinksToMaxWidth() throws Exception {
+        final Mat mat = new Mat();
+        ImageLoadingUtility.loadImage(URLDecoder.decode(Paths.get(gompeiImage.file.toURI()).toString()), mat);
+
+        interact(() -> {
+            final Image javaFXImage = converter.convert(mat, mat.cols() / 4.0);
+            assertEquals(Math.round(mat.cols() / 4.0), Math.round(javaFXImage.getWidth()));
+            assertEquals(Math.round(mat.rows() / 4.0), Math.round(javaFXImage.getHeight()), 1.0);
+        });
+    }
+
+    @Test
+    public void testConvertDoesntEnlargeSmallImages() throws Exception {
+        final Mat mat = new Mat();
+        ImageLoadingUtility.loadImage(URLDecoder.decode(Paths.get(gompeiImage.file.toURI()).toString()), mat);
+
+        interact(() -> {
+            final Image javaFXImage = converter.convert(mat, mat.cols() * 2.0);
+            assertSameImage(gompeiImage, javaFXImage);
+        });
+    }
+
     private void assertSameImage(ImageWithData imageWithData, Image javaFXImage) {
         assertEquals(imageWithData.getCols(), Math.round(javaFXImage.getWidth()));
         assertEquals(imageWithData.getRows(), Math.round(javaFXImage.getHeight()));